@@ -0,0 +1,55 @@
+// k6 load test comparing the platform-thread and virtual-thread request modes.
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e VUS=2000 loadtest/notes-read-mix.js
+//
+// Run it once against the default profile and once with SPRING_PROFILES_ACTIVE=virtual-threads on Java 21,
+// against the same Mongo instance, and compare http_req_duration p(99) and http_reqs rate.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const VUS = parseInt(__ENV.VUS || '1000');
+const SEED_NOTES = parseInt(__ENV.SEED_NOTES || '200');
+
+export const options = {
+    scenarios: {
+        read_mix: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: VUS },
+                { duration: '2m', target: VUS },
+                { duration: '15s', target: 0 },
+            ],
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export function setup() {
+    const ids = [];
+    for (let i = 0; i < SEED_NOTES; i++) {
+        const res = http.post(`${BASE_URL}/api/v1/notes`, JSON.stringify({
+            title: `Load test note ${i}`,
+            text: 'the quick brown fox jumps over the lazy dog '.repeat(20),
+            tags: ['BUSINESS'],
+            createdDate: new Date(Date.now() - i * 1000).toISOString().slice(0, 19),
+        }), { headers: { 'Content-Type': 'application/json' } });
+        ids.push(res.json('id'));
+    }
+    return { ids };
+}
+
+export default function (data) {
+    const id = data.ids[Math.floor(Math.random() * data.ids.length)];
+    const roll = Math.random();
+    let res;
+    if (roll < 0.5) {
+        res = http.get(`${BASE_URL}/api/v1/notes?cursor=&size=20&tags=BUSINESS`, { tags: { name: 'summaries' } });
+    } else if (roll < 0.8) {
+        res = http.get(`${BASE_URL}/api/v1/notes/${id}`, { tags: { name: 'note' } });
+    } else {
+        res = http.get(`${BASE_URL}/api/v1/notes/${id}/stats?top=10`, { tags: { name: 'stats' } });
+    }
+    check(res, { 'status is 200': (r) => r.status === 200 });
+}
@@ -0,0 +1,41 @@
+package com.teletronics.notesapi.benchmark;
+
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.store.Note;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Deterministic note fixtures shared by the benchmarks.
+ */
+final class BenchmarkNotes {
+    private static final Constant.Tag[] TAGS = Constant.Tag.values();
+
+    private BenchmarkNotes() {
+    }
+
+    static List<Note> notes(int count, int textLength) {
+        Random random = new Random(42);
+        LocalDateTime createdDate = LocalDateTime.of(2024, 7, 2, 10, 36);
+        List<Note> notes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            notes.add(new Note(new UUID(random.nextLong(), random.nextLong()), "Note title " + i, text(random, textLength),
+                    Set.of(TAGS[i % TAGS.length]), createdDate.minusMinutes(i)));
+        }
+        return notes;
+    }
+
+    private static String text(Random random, int length) {
+        StringBuilder builder = new StringBuilder(length + 16);
+        while (builder.length() < length) {
+            builder.append("word").append(random.nextInt(500)).append(' ');
+        }
+        builder.setLength(length);
+        return builder.toString();
+    }
+}
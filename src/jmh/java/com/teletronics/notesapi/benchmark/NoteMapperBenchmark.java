@@ -0,0 +1,44 @@
+package com.teletronics.notesapi.benchmark;
+
+import com.teletronics.notesapi.mapper.NoteMapper;
+import com.teletronics.notesapi.model.NoteResponse;
+import com.teletronics.notesapi.model.NoteSummary;
+import com.teletronics.notesapi.model.store.Note;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * List conversions performed by {@link NoteMapper} for one listing page.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NoteMapperBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int pageSize;
+
+    private final NoteMapper noteMapper = Mappers.getMapper(NoteMapper.class);
+    private List<Note> notes;
+
+    @Setup
+    public void setUp() {
+        notes = BenchmarkNotes.notes(pageSize, 512);
+    }
+
+    @Benchmark
+    public List<NoteResponse> toResponseDTOList() {
+        return noteMapper.toResponseDTOList(notes);
+    }
+
+    @Benchmark
+    public List<NoteSummary> toSummaryDTOList() {
+        return noteMapper.toSummaryDTOList(notes);
+    }
+}
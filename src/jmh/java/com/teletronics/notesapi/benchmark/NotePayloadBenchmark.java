@@ -0,0 +1,87 @@
+package com.teletronics.notesapi.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.teletronics.notesapi.mapper.NoteMapper;
+import com.teletronics.notesapi.model.NoteResponse;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encode time of a {@code /details} page in each negotiable content type, with and without the gzip response
+ * compression. Payload sizes are printed once per trial since they do not vary between invocations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NotePayloadBenchmark {
+
+    public enum Format {
+        JSON,
+        SMILE,
+        CBOR
+    }
+
+    @Param({"10", "100", "1000"})
+    private int pageSize;
+
+    @Param
+    private Format format;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    private ObjectMapper objectMapper;
+    private List<NoteResponse> responses;
+    private ByteArrayOutputStream buffer;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .factory(factory(format))
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        responses = Mappers.getMapper(NoteMapper.class).toResponseDTOList(BenchmarkNotes.notes(pageSize, 512));
+        buffer = new ByteArrayOutputStream(pageSize * 1024);
+        System.out.printf("%n%s gzip=%s pageSize=%d: %d bytes%n", format, gzip, pageSize, encode());
+    }
+
+    @Benchmark
+    public int encodePage() throws IOException {
+        return encode();
+    }
+
+    private int encode() throws IOException {
+        buffer.reset();
+        if (gzip) {
+            try (OutputStream out = new GZIPOutputStream(buffer)) {
+                objectMapper.writeValue(out, responses);
+            }
+        } else {
+            objectMapper.writeValue(buffer, responses);
+        }
+        return buffer.size();
+    }
+
+    private static JsonFactory factory(Format format) {
+        return switch (format) {
+            case JSON -> new JsonFactory();
+            case SMILE -> new SmileFactory();
+            case CBOR -> new CBORFactory();
+        };
+    }
+}
@@ -0,0 +1,54 @@
+package com.teletronics.notesapi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.teletronics.notesapi.mapper.NoteMapper;
+import com.teletronics.notesapi.model.NoteResponse;
+import com.teletronics.notesapi.model.NoteSummary;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of listing pages, configured the way Spring Boot configures the application mapper.
+ * Output goes to a discarding stream so only encoding cost is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NoteSerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int pageSize;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private List<NoteResponse> responses;
+    private List<NoteSummary> summaries;
+
+    @Setup
+    public void setUp() {
+        NoteMapper noteMapper = Mappers.getMapper(NoteMapper.class);
+        responses = noteMapper.toResponseDTOList(BenchmarkNotes.notes(pageSize, 512));
+        summaries = noteMapper.toSummaryDTOList(BenchmarkNotes.notes(pageSize, 512));
+    }
+
+    @Benchmark
+    public void noteResponses() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), responses);
+    }
+
+    @Benchmark
+    public void noteSummaries() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), summaries);
+    }
+}
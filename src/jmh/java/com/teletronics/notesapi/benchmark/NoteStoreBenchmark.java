@@ -0,0 +1,89 @@
+package com.teletronics.notesapi.benchmark;
+
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.store.Note;
+import com.teletronics.notesapi.respository.AppendLogNoteStore;
+import com.teletronics.notesapi.respository.InMemoryNoteStore;
+import com.teletronics.notesapi.respository.IndexedNoteStore;
+import com.teletronics.notesapi.respository.NoteStore;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Slice;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the embedded {@link NoteStore}s on inserts, single-note reads and tag listings over a preloaded tenant.
+ * The append-log store writes to a temporary directory without forcing each record to disk, as configured by
+ * default; reads decode every note from its segment, where the in-memory store copies it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NoteStoreBenchmark {
+    private static final String TENANT = "benchmark";
+
+    @Param({NoteStore.IN_MEMORY_PROFILE, NoteStore.APPEND_LOG_PROFILE})
+    private String store;
+
+    @Param({"100000"})
+    private int noteCount;
+
+    private IndexedNoteStore noteStore;
+    private Path directory;
+    private List<Note> notes;
+
+    @Setup
+    public void setUp() throws IOException {
+        if (NoteStore.APPEND_LOG_PROFILE.equals(store)) {
+            directory = Files.createTempDirectory("notes-log");
+            noteStore = new AppendLogNoteStore(directory.toString(), DataSize.ofMegabytes(64), false, 0.5);
+        } else {
+            noteStore = new InMemoryNoteStore();
+        }
+        notes = BenchmarkNotes.notes(noteCount, 256);
+        for (Note note : notes) {
+            note.setTenantId(TENANT);
+            noteStore.insert(note);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (noteStore instanceof AppendLogNoteStore appendLogNoteStore) {
+            appendLogNoteStore.close();
+            FileSystemUtils.deleteRecursively(directory);
+        }
+    }
+
+    @Benchmark
+    public Note insert() {
+        Note note = new Note(UUID.randomUUID(), "Inserted note", "Some text to store", Set.of(Constant.Tag.PERSONAL),
+                LocalDateTime.now());
+        note.setTenantId(TENANT);
+        return noteStore.insert(note);
+    }
+
+    @Benchmark
+    public Optional<Note> findById() {
+        return noteStore.findById(TENANT, notes.get(ThreadLocalRandom.current().nextInt(noteCount)).getId());
+    }
+
+    @Benchmark
+    public Slice<Note> findSlice() {
+        return noteStore.findSlice(TENANT, Set.of(Constant.Tag.BUSINESS), null, 20);
+    }
+}
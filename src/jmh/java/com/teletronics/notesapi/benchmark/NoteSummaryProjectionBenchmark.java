@@ -0,0 +1,106 @@
+package com.teletronics.notesapi.benchmark;
+
+import com.mongodb.MongoClientSettings;
+import com.teletronics.notesapi.mapper.NoteMapper;
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.NoteSummary;
+import com.teletronics.notesapi.model.store.Note;
+import com.teletronics.notesapi.model.store.NoteSummaryView;
+import org.bson.BsonBinaryReader;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.UuidRepresentation;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.projection.EntityProjection;
+import org.springframework.data.projection.EntityProjectionIntrospector;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the driver and mapping cost of reading a summary from a full {@link Note} document against the
+ * projected document returned by the summary queries. Wire size per document is printed during setup;
+ * allocation per operation comes from the gc profiler.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NoteSummaryProjectionBenchmark {
+
+    @Param({"1024", "65536", "1048576"})
+    private int textLength;
+
+    private final Codec<Document> codec = new DocumentCodec(CodecRegistries.withUuidRepresentation(
+            MongoClientSettings.getDefaultCodecRegistry(), UuidRepresentation.JAVA_LEGACY))
+            .withUuidRepresentation(UuidRepresentation.JAVA_LEGACY);
+    private final NoteMapper noteMapper = Mappers.getMapper(NoteMapper.class);
+    private MappingMongoConverter converter;
+    private EntityProjection<NoteSummaryView, Note> summaryProjection;
+    private byte[] fullDocument;
+    private byte[] projectedDocument;
+
+    @Setup
+    public void setUp() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        summaryProjection = EntityProjectionIntrospector.create(converter.getProjectionFactory(),
+                        EntityProjectionIntrospector.ProjectionPredicate.typeHierarchy(), mappingContext)
+                .introspect(NoteSummaryView.class, Note.class);
+
+        Note note = new Note(UUID.randomUUID(), "Quarterly planning", "a".repeat(textLength),
+                Set.of(Constant.Tag.BUSINESS, Constant.Tag.IMPORTANT), LocalDateTime.now());
+        Document full = new Document();
+        converter.write(note, full);
+        Document projected = new Document("_id", full.get("_id"))
+                .append("title", full.get("title"))
+                .append("createdDate", full.get("createdDate"));
+
+        fullDocument = toBytes(full);
+        projectedDocument = toBytes(projected);
+        System.out.printf("wire bytes per document: full=%d, projected=%d%n", fullDocument.length, projectedDocument.length);
+    }
+
+    @Benchmark
+    public NoteSummary fullDocument() {
+        return noteMapper.toSummaryDTO(converter.read(Note.class, decode(fullDocument)));
+    }
+
+    @Benchmark
+    public NoteSummary projectedDocument() {
+        NoteSummaryView view = converter.project(summaryProjection, decode(projectedDocument));
+        return noteMapper.toSummaryDTO(view);
+    }
+
+    private byte[] toBytes(Document document) {
+        RawBsonDocument raw = new RawBsonDocument(document, codec);
+        ByteBuffer buffer = raw.getByteBuffer().asNIO();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private Document decode(byte[] bytes) {
+        return codec.decode(new BsonBinaryReader(ByteBuffer.wrap(bytes)), DecoderContext.builder().build());
+    }
+}
@@ -0,0 +1,66 @@
+package com.teletronics.notesapi.benchmark;
+
+import com.teletronics.notesapi.service.WordFrequencyCalculator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the single-pass word counter and its top-K mode against the original split/box/sort implementation,
+ * which is kept here verbatim as the baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WordFrequencyBenchmark {
+    private static final Pattern WORD_SPLIT_PATTERN = Pattern.compile("[\\s.,!?;:]+");
+    private static final String[] SEPARATORS = {" ", " ", " ", ", ", ". ", "\n", "! "};
+
+    @Param({"1024", "65536", "1048576"})
+    private int textLength;
+
+    @Param({"1000"})
+    private int vocabularySize;
+
+    private String text;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder(textLength + 32);
+        while (builder.length() < textLength) {
+            // Skewed draw so a few words dominate, as in natural text.
+            int word = (int) (vocabularySize * Math.pow(random.nextDouble(), 3));
+            builder.append(random.nextInt(8) == 0 ? "Word" : "word").append(word)
+                    .append(SEPARATORS[random.nextInt(SEPARATORS.length)]);
+        }
+        text = builder.toString();
+    }
+
+    @Benchmark
+    public Map<String, Integer> regexSplitAndSort() {
+        String[] words = WORD_SPLIT_PATTERN.split(text);
+        Map<String, Integer> wordFrequencyMap = new LinkedHashMap<>();
+        Arrays.stream(words)
+                .map(String::toLowerCase)
+                .forEach(word -> wordFrequencyMap.put(word, wordFrequencyMap.getOrDefault(word, 0) + 1));
+        return wordFrequencyMap.entrySet()
+                .stream()
+                .sorted((entry1, entry2) -> entry2.getValue().compareTo(entry1.getValue()))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (e1, e2) -> e1, LinkedHashMap::new));
+    }
+
+    @Benchmark
+    public Map<String, Integer> scannerFullTable() {
+        return WordFrequencyCalculator.calculateWordFrequency(text);
+    }
+}
@@ -0,0 +1,38 @@
+package com.teletronics.notesapi.actuator;
+
+import com.teletronics.notesapi.respository.NoteIndexManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+@Component("noteIndexes")
+public class NoteIndexHealthIndicator implements HealthIndicator {
+    // Queries still work on a mismatched index, only slower, so it is reported without taking the instance down.
+    static final Status MISMATCHED = new Status("MISMATCHED", "Indexes on notes differ from their declaration");
+
+    private final NoteIndexManager noteIndexManager;
+
+    @Autowired
+    public NoteIndexHealthIndicator(NoteIndexManager noteIndexManager) {
+        this.noteIndexManager = noteIndexManager;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = switch (noteIndexManager.getStatus()) {
+            case UP_TO_DATE -> Health.up();
+            case MISMATCHED -> Health.status(MISMATCHED);
+            case FAILED -> Health.down().withDetail("error", String.valueOf(noteIndexManager.getLastError()));
+            case PENDING, RECONCILING -> Health.unknown();
+        };
+        return builder
+                .withDetail("status", noteIndexManager.getStatus())
+                .withDetail("verified", noteIndexManager.getVerifiedIndexes())
+                .withDetail("created", noteIndexManager.getCreatedIndexes())
+                .withDetail("mismatched", noteIndexManager.getMismatchedIndexes())
+                .withDetail("recreated", noteIndexManager.getRecreatedIndexes())
+                .build();
+    }
+}
@@ -0,0 +1,120 @@
+package com.teletronics.notesapi.actuator;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records request and response body sizes per endpoint. Responses are counted as the application writes them,
+ * before compression. Streamed responses complete after the filter returns and are not recorded.
+ */
+@Component
+@Profile("!reactive")
+public class PayloadSizeMetricsFilter extends OncePerRequestFilter {
+
+    static final String REQUEST_SIZE = "notes.http.request.size";
+    static final String RESPONSE_SIZE = "notes.http.response.size";
+
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public PayloadSizeMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        CountingResponse countingResponse = new CountingResponse(response);
+        filterChain.doFilter(request, countingResponse);
+        if (request.isAsyncStarted()) {
+            return;
+        }
+        // The matched pattern keeps the number of series bounded; raw paths contain note ids.
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Tags tags = Tags.of("method", request.getMethod(), "uri", pattern != null ? pattern.toString() : "UNKNOWN");
+        if (request.getContentLengthLong() > 0) {
+            summary(REQUEST_SIZE, tags).record(request.getContentLengthLong());
+        }
+        summary(RESPONSE_SIZE, tags).record(countingResponse.bytesWritten);
+    }
+
+    private DistributionSummary summary(String name, Tags tags) {
+        return DistributionSummary.builder(name)
+                .baseUnit(BaseUnits.BYTES)
+                .tags(tags)
+                .register(meterRegistry);
+    }
+
+    private static final class CountingResponse extends HttpServletResponseWrapper {
+        private long bytesWritten;
+        private ServletOutputStream outputStream;
+
+        CountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new CountingOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+
+        private final class CountingOutputStream extends ServletOutputStream {
+            private final ServletOutputStream delegate;
+
+            CountingOutputStream(ServletOutputStream delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                delegate.write(b);
+                bytesWritten++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                delegate.write(b, off, len);
+                bytesWritten += len;
+            }
+
+            @Override
+            public void flush() throws IOException {
+                delegate.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                delegate.close();
+            }
+
+            @Override
+            public boolean isReady() {
+                return delegate.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                delegate.setWriteListener(writeListener);
+            }
+        }
+    }
+}
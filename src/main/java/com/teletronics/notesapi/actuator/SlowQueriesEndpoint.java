@@ -0,0 +1,40 @@
+package com.teletronics.notesapi.actuator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code /actuator/slowqueries}: the query shapes that exceeded the slow query threshold, those whose plan scans
+ * the collection or sorts in memory first. {@code DELETE} starts over, e.g. after adding an index.
+ */
+@Component
+@Endpoint(id = "slowqueries")
+public class SlowQueriesEndpoint {
+
+    private final SlowQueryMonitor slowQueryMonitor;
+
+    @Autowired
+    public SlowQueriesEndpoint(SlowQueryMonitor slowQueryMonitor) {
+        this.slowQueryMonitor = slowQueryMonitor;
+    }
+
+    @ReadOperation
+    public Map<String, Object> slowQueries() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("enabled", slowQueryMonitor.isEnabled());
+        report.put("thresholdMillis", slowQueryMonitor.getThresholdMillis());
+        report.put("queries", slowQueryMonitor.getSlowQueries());
+        return report;
+    }
+
+    @DeleteOperation
+    public void clear() {
+        slowQueryMonitor.clear();
+    }
+}
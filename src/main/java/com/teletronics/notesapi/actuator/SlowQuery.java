@@ -0,0 +1,69 @@
+package com.teletronics.notesapi.actuator;
+
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Slow executions of one query shape: the command and collection with every literal value of its filter, sort or
+ * pipeline replaced by {@code "?"}. The plan is the winning plan of the last sampled {@code explain}. Updates are
+ * synchronized; fields are volatile so the endpoint can read them without locking.
+ */
+@Getter
+public class SlowQuery {
+
+    public enum Problem {
+        COLLECTION_SCAN,
+        IN_MEMORY_SORT
+    }
+
+    private final String database;
+    private final String collection;
+    private final String command;
+    private final String shape;
+    private volatile long count;
+    private volatile long maxMillis;
+    private volatile long lastMillis;
+    private volatile Instant lastSeen;
+    private volatile Instant explainedAt;
+    private volatile List<String> plan = List.of();
+    private volatile Set<Problem> problems = Set.of();
+    private volatile String explainError;
+
+    SlowQuery(String database, String collection, String command, String shape) {
+        this.database = database;
+        this.collection = collection;
+        this.command = command;
+        this.shape = shape;
+    }
+
+    synchronized void record(long elapsedMillis, Instant now) {
+        count++;
+        maxMillis = Math.max(maxMillis, elapsedMillis);
+        lastMillis = elapsedMillis;
+        lastSeen = now;
+    }
+
+    /**
+     * Claims the next explain of this shape if none ran within {@code intervalMillis}.
+     */
+    synchronized boolean claimExplain(Instant now, long intervalMillis) {
+        if (explainedAt != null && explainedAt.plusMillis(intervalMillis).isAfter(now)) {
+            return false;
+        }
+        explainedAt = now;
+        return true;
+    }
+
+    synchronized void explained(List<String> plan, Set<Problem> problems) {
+        this.plan = List.copyOf(plan);
+        this.problems = Set.copyOf(problems);
+        this.explainError = null;
+    }
+
+    synchronized void explainFailed(String error) {
+        this.explainError = error;
+    }
+}
@@ -0,0 +1,297 @@
+package com.teletronics.notesapi.actuator;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Records Mongo commands slower than {@code notes.slow-queries.threshold}, grouped by query shape, and explains
+ * each shape at most once per {@code notes.slow-queries.explain-interval} to flag collection scans and in-memory
+ * sorts. It listens on the driver, so repository methods and {@code MongoTemplate} calls are covered alike.
+ * <p>
+ * Explains run on a single background thread with a small queue; when it is full the sample is dropped rather
+ * than delaying the application's own commands.
+ */
+@Slf4j
+@Component
+public class SlowQueryMonitor implements CommandListener {
+
+    static final String SLOW_QUERY_COUNTER = "notes.mongo.slow.queries";
+
+    // Commands that take a filter, sort or pipeline and can be explained.
+    private static final Set<String> QUERY_COMMANDS =
+            Set.of("find", "aggregate", "count", "distinct", "findAndModify", "update", "delete");
+    private static final Set<String> SHAPE_FIELDS = Set.of("filter", "pipeline", "query");
+    // Part of the shape as they are: sort directions, index hints and the field of a distinct.
+    private static final Set<String> VERBATIM_FIELDS = Set.of("sort", "hint", "key");
+    // Parts of an explain result that repeat the explained command, including any $sort it asked for.
+    private static final Set<String> ECHOED_FIELDS =
+            Set.of("rejectedPlans", "command", "originalCommand", "parsedQuery", "splitPipeline");
+    // Session, transaction and write concern fields that explain does not accept.
+    private static final Set<String> NOT_EXPLAINABLE_FIELDS =
+            Set.of("lsid", "txnNumber", "autocommit", "startTransaction", "writeConcern", "readConcern");
+
+    private final boolean enabled;
+    private final long thresholdMillis;
+    private final long explainIntervalMillis;
+    private final int maxEntries;
+    private final MeterRegistry meterRegistry;
+    private final BiFunction<String, Document, Document> explainer;
+    private final Executor explainExecutor;
+    private final ConcurrentMap<Integer, BsonDocument> startedCommands = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, SlowQuery> slowQueries = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SlowQueryMonitor(@Value("${notes.slow-queries.enabled:true}") boolean enabled,
+                            @Value("${notes.slow-queries.threshold:100ms}") Duration threshold,
+                            @Value("${notes.slow-queries.explain-interval:10m}") Duration explainInterval,
+                            @Value("${notes.slow-queries.max-entries:100}") int maxEntries,
+                            MeterRegistry meterRegistry,
+                            ObjectProvider<MongoDatabaseFactory> mongoDatabaseFactory) {
+        // The factory is resolved lazily: it depends on the client this listener is registered with.
+        this(enabled, threshold, explainInterval, maxEntries, meterRegistry,
+                (database, command) -> mongoDatabaseFactory.getObject().getMongoDatabase(database).runCommand(command),
+                explainExecutor());
+    }
+
+    SlowQueryMonitor(boolean enabled, Duration threshold, Duration explainInterval, int maxEntries,
+                     MeterRegistry meterRegistry, BiFunction<String, Document, Document> explainer,
+                     Executor explainExecutor) {
+        this.enabled = enabled;
+        this.thresholdMillis = threshold.toMillis();
+        this.explainIntervalMillis = explainInterval.toMillis();
+        this.maxEntries = maxEntries;
+        this.meterRegistry = meterRegistry;
+        this.explainer = explainer;
+        this.explainExecutor = explainExecutor;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getThresholdMillis() {
+        return thresholdMillis;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (enabled && QUERY_COMMANDS.contains(event.getCommandName())) {
+            // The event's document is only valid during the callback.
+            startedCommands.put(event.getRequestId(), event.getCommand().clone());
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        BsonDocument command = startedCommands.remove(event.getRequestId());
+        if (command != null) {
+            record(event.getDatabaseName(), event.getCommandName(), command, event.getElapsedTime(TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        startedCommands.remove(event.getRequestId());
+    }
+
+    /**
+     * @return the recorded shapes, those with plan problems first, then slowest first
+     */
+    public List<SlowQuery> getSlowQueries() {
+        List<SlowQuery> queries = new ArrayList<>(slowQueries.values());
+        queries.sort(Comparator.comparing((SlowQuery query) -> query.getProblems().isEmpty())
+                .thenComparing(SlowQuery::getMaxMillis, Comparator.reverseOrder()));
+        return queries;
+    }
+
+    public void clear() {
+        slowQueries.clear();
+    }
+
+    void record(String database, String commandName, BsonDocument command, long elapsedMillis) {
+        if (elapsedMillis < thresholdMillis) {
+            return;
+        }
+        String collection = command.get(commandName) instanceof BsonString name ? name.getValue() : "";
+        String shape = shapeOf(command).toJson();
+        String key = database + '.' + collection + ' ' + commandName + ' ' + shape;
+        SlowQuery slowQuery = slowQueries.get(key);
+        if (slowQuery == null) {
+            evictIfFull();
+            slowQuery = slowQueries.computeIfAbsent(key, __ -> new SlowQuery(database, collection, commandName, shape));
+        }
+        Instant now = Instant.now();
+        slowQuery.record(elapsedMillis, now);
+        meterRegistry.counter(SLOW_QUERY_COUNTER, "collection", collection, "command", commandName).increment();
+        if (slowQuery.claimExplain(now, explainIntervalMillis)) {
+            SlowQuery explained = slowQuery;
+            explainExecutor.execute(() -> explain(explained, command));
+        }
+    }
+
+    private void explain(SlowQuery slowQuery, BsonDocument command) {
+        try {
+            Document explainCommand = new Document("explain", explainable(command))
+                    .append("verbosity", "queryPlanner");
+            Document result = explainer.apply(slowQuery.getDatabase(), explainCommand);
+            List<String> plan = new ArrayList<>();
+            Set<SlowQuery.Problem> problems = EnumSet.noneOf(SlowQuery.Problem.class);
+            analyze(result, plan, problems);
+            slowQuery.explained(plan, problems);
+            if (!problems.isEmpty()) {
+                log.warn("Slow {} on {} ({} ms) has plan problems {}: {}", slowQuery.getCommand(),
+                        slowQuery.getCollection(), slowQuery.getLastMillis(), problems, slowQuery.getShape());
+            }
+        } catch (RuntimeException ex) {
+            log.debug("Explain of slow {} on {} failed", slowQuery.getCommand(), slowQuery.getCollection(), ex);
+            slowQuery.explainFailed(ex.getMessage());
+        }
+    }
+
+    /**
+     * Collects the stages of every winning plan in an explain result, outermost first, and the problems they show.
+     * Rejected plans and the echoed command are ignored. A {@code $sort} left in the pipeline stages after the
+     * {@code $cursor} stage sorts in memory as well; one pushed down to the query layer shows up in the winning plan.
+     */
+    static void analyze(Object node, List<String> plan, Set<SlowQuery.Problem> problems) {
+        if (node instanceof Document document) {
+            for (Map.Entry<String, Object> entry : document.entrySet()) {
+                if (entry.getKey().equals("winningPlan")) {
+                    collectStages(entry.getValue(), plan, problems);
+                } else if (entry.getKey().equals("stages") && entry.getValue() instanceof List<?> stages) {
+                    analyzePipeline(stages, plan, problems);
+                } else if (!ECHOED_FIELDS.contains(entry.getKey())) {
+                    analyze(entry.getValue(), plan, problems);
+                }
+            }
+        } else if (node instanceof List<?> list) {
+            list.forEach(element -> analyze(element, plan, problems));
+        }
+    }
+
+    private static void analyzePipeline(List<?> stages, List<String> plan, Set<SlowQuery.Problem> problems) {
+        boolean afterCursor = false;
+        for (Object stage : stages) {
+            if (!(stage instanceof Document document)) {
+                continue;
+            }
+            if (document.containsKey("$cursor")) {
+                afterCursor = true;
+                analyze(document.get("$cursor"), plan, problems);
+            } else if (afterCursor && document.containsKey("$sort")) {
+                plan.add("$sort");
+                problems.add(SlowQuery.Problem.IN_MEMORY_SORT);
+            }
+        }
+    }
+
+    private static void collectStages(Object node, List<String> plan, Set<SlowQuery.Problem> problems) {
+        if (node instanceof Document document) {
+            if (document.get("stage") instanceof String stage) {
+                plan.add(document.get("indexName") instanceof String index ? stage + "(" + index + ")" : stage);
+                if (stage.equals("COLLSCAN")) {
+                    problems.add(SlowQuery.Problem.COLLECTION_SCAN);
+                } else if (stage.equals("SORT")) {
+                    problems.add(SlowQuery.Problem.IN_MEMORY_SORT);
+                }
+            }
+            document.values().forEach(value -> collectStages(value, plan, problems));
+        } else if (node instanceof List<?> list) {
+            list.forEach(element -> collectStages(element, plan, problems));
+        }
+    }
+
+    /**
+     * Keeps the fields that select and order documents, with every literal replaced by {@code "?"}. Updates and
+     * deletes are shaped by the filter of their first statement.
+     */
+    static BsonDocument shapeOf(BsonDocument command) {
+        BsonDocument shape = new BsonDocument();
+        command.forEach((field, value) -> {
+            if (SHAPE_FIELDS.contains(field)) {
+                shape.put(field, shapeOf(value));
+            } else if (VERBATIM_FIELDS.contains(field)) {
+                shape.put(field, value);
+            } else if ((field.equals("updates") || field.equals("deletes"))
+                    && value instanceof BsonArray statements && !statements.isEmpty()
+                    && statements.get(0) instanceof BsonDocument statement && statement.containsKey("q")) {
+                shape.put("q", shapeOf(statement.get("q")));
+            }
+        });
+        return shape;
+    }
+
+    private static BsonValue shapeOf(BsonValue value) {
+        if (value instanceof BsonDocument document) {
+            BsonDocument shape = new BsonDocument();
+            document.forEach((field, fieldValue) -> shape.put(field, field.equals("$sort") ? fieldValue : shapeOf(fieldValue)));
+            return shape;
+        }
+        if (value instanceof BsonArray array && !array.isEmpty() && array.get(0).isDocument()) {
+            // Pipelines and $and/$or clauses keep their structure; value lists do not.
+            BsonArray shape = new BsonArray();
+            array.forEach(element -> shape.add(shapeOf(element)));
+            return shape;
+        }
+        return new BsonString("?");
+    }
+
+    private static BsonDocument explainable(BsonDocument command) {
+        BsonDocument explainable = new BsonDocument();
+        command.forEach((field, value) -> {
+            if (!field.startsWith("$") && !NOT_EXPLAINABLE_FIELDS.contains(field)) {
+                explainable.put(field, value);
+            }
+        });
+        return explainable;
+    }
+
+    private void evictIfFull() {
+        while (slowQueries.size() >= maxEntries && !slowQueries.isEmpty()) {
+            slowQueries.values().stream()
+                    .min(Comparator.comparing(SlowQuery::getLastSeen, Comparator.nullsFirst(Comparator.naturalOrder())))
+                    .ifPresent(oldest -> slowQueries.values().remove(oldest));
+        }
+    }
+
+    private static ThreadPoolExecutor explainExecutor() {
+        return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(16), runnable -> {
+            Thread thread = new Thread(runnable, "slow-query-explainer");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (explainExecutor instanceof ThreadPoolExecutor executor) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.teletronics.notesapi.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-process Caffeine (W-TinyLFU) caches for single-note reads. Hit, miss and eviction counts are recorded and
+ * published by actuator under the {@code cache.*} metrics.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String NOTES_CACHE = "notes";
+    public static final String NOTE_STATS_CACHE = "noteStats";
+    // Note ids are only unique within a tenant as far as reads are concerned, so cached notes and their stats are
+    // keyed by both.
+    public static final String NOTE_KEY = "new org.springframework.cache.interceptor.SimpleKey(#tenantId, #id)";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${notes.cache.notes.maximum-size:10000}") long notesMaximumSize,
+                                     @Value("${notes.cache.notes.expire-after-write:10m}") Duration notesExpireAfterWrite,
+                                     @Value("${notes.cache.stats.maximum-words:1000000}") long statsMaximumWords,
+                                     @Value("${notes.cache.stats.expire-after-write:10m}") Duration statsExpireAfterWrite) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCacheNames(List.of());
+        cacheManager.registerCustomCache(NOTES_CACHE, Caffeine.newBuilder()
+                .maximumSize(notesMaximumSize)
+                .expireAfterWrite(notesExpireAfterWrite)
+                .recordStats()
+                .build());
+        // Stats tables range from a handful of words to tens of thousands, so they are bounded by word count.
+        cacheManager.registerCustomCache(NOTE_STATS_CACHE, Caffeine.newBuilder()
+                .maximumWeight(statsMaximumWords)
+                .weigher((Object key, Object value) -> value instanceof Map<?, ?> map ? map.size() + 1 : 1)
+                .expireAfterWrite(statsExpireAfterWrite)
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+}
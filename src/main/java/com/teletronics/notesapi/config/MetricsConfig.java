@@ -0,0 +1,62 @@
+package com.teletronics.notesapi.config;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics on top of what Spring Boot records by itself (HTTP requests, repository invocations, Mongo commands and
+ * pool sizes). Histogram buckets of all timers are enabled in {@code management.metrics.distribution}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    public static final String SERVICE_TIMER = "notes.service";
+    public static final String MAPPER_TIMER = "notes.mapper";
+    static final String POOL_WAIT_TIMER = "mongodb.driver.pool.wait";
+
+    /**
+     * Enables {@code @Timed} on beans, used at class level to time every public method of the services.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    /**
+     * Times how long operations wait for a pooled connection, which Boot's pool metrics only show as a queue size.
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer connectionPoolWaitCustomizer(MeterRegistry meterRegistry) {
+        return builder -> builder.applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(
+                new ConnectionPoolListener() {
+                    @Override
+                    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+                        poolWaitTimer(meterRegistry, event.getConnectionId().getServerId().getAddress().toString(), "success")
+                                .record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+                    }
+
+                    @Override
+                    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+                        poolWaitTimer(meterRegistry, event.getServerId().getAddress().toString(), event.getReason().name())
+                                .record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+                    }
+                }));
+    }
+
+    private static Timer poolWaitTimer(MeterRegistry meterRegistry, String serverAddress, String status) {
+        return Timer.builder(POOL_WAIT_TIMER)
+                .description("Time spent waiting for a connection from the pool")
+                .tag("server.address", serverAddress)
+                .tag("status", status)
+                .register(meterRegistry);
+    }
+}
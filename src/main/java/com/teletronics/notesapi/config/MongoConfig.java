@@ -0,0 +1,36 @@
+package com.teletronics.notesapi.config;
+
+import com.teletronics.notesapi.actuator.SlowQueryMonitor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class MongoConfig {
+
+    /**
+     * Connection pool sizing. The defaults are the driver's own; the virtual-threads profile raises them, since
+     * request concurrency is then no longer capped by Tomcat's worker pool but by the number of connections.
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer connectionPoolCustomizer(
+            @Value("${notes.mongodb.pool.max-size:100}") int maxSize,
+            @Value("${notes.mongodb.pool.min-size:0}") int minSize,
+            @Value("${notes.mongodb.pool.max-connecting:2}") int maxConnecting,
+            @Value("${notes.mongodb.pool.max-wait-time:2m}") Duration maxWaitTime) {
+        return builder -> builder.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(maxSize)
+                .minSize(minSize)
+                .maxConnecting(maxConnecting)
+                .maxWaitTime(maxWaitTime.toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer slowQueryCustomizer(SlowQueryMonitor slowQueryMonitor) {
+        return builder -> builder.addCommandListener(slowQueryMonitor);
+    }
+}
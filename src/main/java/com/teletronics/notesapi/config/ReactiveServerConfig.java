@@ -0,0 +1,29 @@
+package com.teletronics.notesapi.config;
+
+import com.teletronics.notesapi.controller.ReactiveTenantIdArgumentResolver;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.result.method.annotation.ArgumentResolverConfigurer;
+
+/**
+ * Tomcat stays on the classpath for the default servlet stack and Spring Boot would otherwise prefer it for WebFlux
+ * as well, so the reactive profile pins the server to Netty and its fixed set of event-loop threads. It also resolves
+ * {@link com.teletronics.notesapi.controller.TenantId} parameters of the reactive controller.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveServerConfig implements WebFluxConfigurer {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Override
+    public void configureArgumentResolvers(ArgumentResolverConfigurer configurer) {
+        configurer.addCustomResolver(new ReactiveTenantIdArgumentResolver());
+    }
+}
@@ -0,0 +1,23 @@
+package com.teletronics.notesapi.config;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Spring Boot silently falls back to platform threads when virtual threads are requested on a JRE older than 21,
+ * so the profile refuses to start there instead of running with a pool sized for virtual threads.
+ */
+@Configuration
+@Profile("virtual-threads")
+public class VirtualThreadsConfig implements InitializingBean {
+
+    @Override
+    public void afterPropertiesSet() {
+        int javaVersion = Runtime.version().feature();
+        if (javaVersion < 21) {
+            throw new IllegalStateException(
+                    "The virtual-threads profile requires Java 21 or later, but is running on Java " + javaVersion);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.teletronics.notesapi.config;
+
+import com.teletronics.notesapi.controller.TenantIdArgumentResolver;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Resolves {@link com.teletronics.notesapi.controller.TenantId} parameters of the servlet controllers and runs their
+ * async work, such as writing the events of {@code GET /notes/changes}, on a pool of its own. Boot's shared task
+ * executor has 8 threads, so a few clients blocked on a full TCP window would otherwise hold up every other stream
+ * and async request. With virtual threads, Boot's executor starts a virtual thread per task and is kept.
+ */
+@Configuration
+@Profile("!reactive")
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ThreadPoolTaskExecutor asyncExecutor;
+
+    @Autowired
+    public WebConfig(@Value("${notes.async.pool-size:200}") int poolSize,
+                     @Value("${notes.async.queue-capacity:1000}") int queueCapacity,
+                     @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads) {
+            this.asyncExecutor = null;
+            return;
+        }
+        asyncExecutor = new ThreadPoolTaskExecutor();
+        asyncExecutor.setCorePoolSize(poolSize);
+        asyncExecutor.setMaxPoolSize(poolSize);
+        asyncExecutor.setQueueCapacity(queueCapacity);
+        asyncExecutor.setAllowCoreThreadTimeOut(true);
+        asyncExecutor.setThreadNamePrefix("mvc-async-");
+        asyncExecutor.setDaemon(true);
+        asyncExecutor.initialize();
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new TenantIdArgumentResolver());
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        if (asyncExecutor != null) {
+            configurer.setTaskExecutor(asyncExecutor);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (asyncExecutor != null) {
+            asyncExecutor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.teletronics.notesapi.controller;
+
+import com.teletronics.notesapi.exception.PreconditionFailedException;
+import com.teletronics.notesapi.model.NoteResponse;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Version headers of a single note, shared by {@link NotesController} and {@link ReactiveNotesController}. The ETag
+ * is the version of the note, which {@code If-Match} on an update is checked against.
+ */
+final class NoteETags {
+
+    private NoteETags() {
+    }
+
+    // For GET, If-None-Match and If-Modified-Since are evaluated against these headers and answered with 304
+    // before the body is serialized.
+    static ResponseEntity<NoteResponse> withETag(NoteResponse note) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (note.getVersion() != null) {
+            response.eTag(String.valueOf(note.getVersion()));
+        }
+        if (note.getLastModifiedDate() != null) {
+            response.lastModified(note.getLastModifiedDate());
+        }
+        return response.body(note);
+    }
+
+    /**
+     * @return the version named by {@code If-Match}, or {@code null} when the header is absent or {@code *}
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        try {
+            return Long.parseLong(tag.replace("\"", ""));
+        } catch (NumberFormatException ex) {
+            throw new PreconditionFailedException("If-Match does not match the current version of the note");
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.teletronics.notesapi.controller;
+
+import com.teletronics.notesapi.exception.ResourceNotFoundException;
+import com.teletronics.notesapi.model.ImportJobResponse;
+import com.teletronics.notesapi.service.NoteImportService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+@RestController
+@Profile("!reactive")
+@RequestMapping(value = "/api/v1/notes/imports", produces = MediaType.APPLICATION_JSON_VALUE)
+public class NoteImportController {
+    private static final String APPLICATION_GZIP_VALUE = "application/gzip";
+
+    private final ObjectProvider<NoteImportService> noteImportService;
+
+    // Only the Mongo note store has an import service; with the embedded stores the endpoints answer 404.
+    @Autowired
+    public NoteImportController(ObjectProvider<NoteImportService> noteImportService) {
+        this.noteImportService = noteImportService;
+    }
+
+    @PostMapping
+    public ResponseEntity<ImportJobResponse> createImportJob(
+            @TenantId String tenantId) {
+        return new ResponseEntity<>(noteImportService().createJob(tenantId), HttpStatus.CREATED);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportJobResponse> getImportJob(
+            @TenantId String tenantId,
+            @PathVariable UUID id) {
+        return ResponseEntity.ok(noteImportService().getJob(tenantId, id));
+    }
+
+    // Uploading the same data to a failed job resumes after its last committed line.
+    @PutMapping(value = "/{id}/data", consumes = {MediaType.APPLICATION_NDJSON_VALUE, APPLICATION_GZIP_VALUE})
+    public ResponseEntity<ImportJobResponse> uploadImportData(
+            @TenantId String tenantId,
+            @PathVariable UUID id,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            InputStream body) throws IOException {
+        boolean gzip = "gzip".equalsIgnoreCase(contentEncoding)
+                || MediaType.valueOf(APPLICATION_GZIP_VALUE).includes(contentType);
+        InputStream data = gzip ? new GZIPInputStream(body, 64 * 1024) : body;
+        return ResponseEntity.ok(noteImportService().importNotes(tenantId, id, data));
+    }
+
+    private NoteImportService noteImportService() {
+        NoteImportService service = noteImportService.getIfAvailable();
+        if (service == null) {
+            throw new ResourceNotFoundException("Bulk import is only available with the Mongo note store");
+        }
+        return service;
+    }
+}
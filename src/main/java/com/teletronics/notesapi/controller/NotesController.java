@@ -1,72 +1,247 @@
 package com.teletronics.notesapi.controller;
 
 
+import com.teletronics.notesapi.config.MessageConverterConfig;
+import com.teletronics.notesapi.model.BatchResponse;
+import com.teletronics.notesapi.model.BatchTagUpdateRequest;
 import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.CursorPage;
+import com.teletronics.notesapi.model.NoteChangeEvent;
 import com.teletronics.notesapi.model.NoteRequest;
 import com.teletronics.notesapi.model.NoteResponse;
+import com.teletronics.notesapi.model.NoteSearchResult;
 import com.teletronics.notesapi.model.NoteSummary;
+import com.teletronics.notesapi.model.store.NoteChanges;
+import com.teletronics.notesapi.service.NoteBatchService;
+import com.teletronics.notesapi.service.NoteChangeFeed;
+import com.teletronics.notesapi.service.NoteChangeService;
+import com.teletronics.notesapi.service.NoteExportService;
 import com.teletronics.notesapi.service.NoteService;
+import com.teletronics.notesapi.service.NoteWriteBehindService;
+import com.teletronics.notesapi.service.TagCountService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import reactor.core.publisher.Flux;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping(value = "/api/v1/notes", produces = MediaType.APPLICATION_JSON_VALUE)
 public class NotesController {
 
     private final NoteService noteService;
+    private final NoteBatchService noteBatchService;
+    private final NoteExportService noteExportService;
+    private final TagCountService tagCountService;
+    private final NoteChangeService noteChangeService;
+    private final NoteChangeFeed noteChangeFeed;
+    private final NoteWriteBehindService noteWriteBehindService;
 
     @Autowired
-    public NotesController(NoteService noteService) {
+    public NotesController(NoteService noteService, NoteBatchService noteBatchService,
+                           NoteExportService noteExportService, TagCountService tagCountService,
+                           NoteChangeService noteChangeService, NoteChangeFeed noteChangeFeed,
+                           NoteWriteBehindService noteWriteBehindService) {
         this.noteService = noteService;
+        this.noteBatchService = noteBatchService;
+        this.noteExportService = noteExportService;
+        this.tagCountService = tagCountService;
+        this.noteChangeService = noteChangeService;
+        this.noteChangeFeed = noteChangeFeed;
+        this.noteWriteBehindService = noteWriteBehindService;
     }
 
-    @GetMapping
-    public ResponseEntity<List<NoteSummary>> fetchNoteSummaries(@Valid @RequestParam(required = false) Set<Constant.Tag> tags,
-                                                                @RequestParam(defaultValue = "0") @Min(0) int page,
-                                                                @RequestParam(defaultValue = "10") @Min(1) int size) {
-        return ResponseEntity.ok(noteService.fetchNoteSummaries(tags, page, size));
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MessageConverterConfig.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<List<NoteSummary>> fetchNoteSummaries(
+            @TenantId String tenantId,
+            @Valid @RequestParam(required = false) Set<Constant.Tag> tags,
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "10") @Min(1) int size,
+            WebRequest webRequest) {
+        if (isListingNotModified(tenantId, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok(noteService.fetchNoteSummaries(tenantId, tags, page, size));
     }
 
+    @GetMapping(params = "cursor",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MessageConverterConfig.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<CursorPage<NoteSummary>> fetchNoteSummariesByCursor(
+            @TenantId String tenantId,
+            @Valid @RequestParam(required = false) Set<Constant.Tag> tags,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") @Min(1) int size,
+            WebRequest webRequest) {
+        if (isListingNotModified(tenantId, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok(noteService.fetchNoteSummariesByCursor(tenantId, tags, cursor, size));
+    }
+
+    // Streams every matching note, newest first, from a Mongo cursor; from is inclusive and to exclusive.
+    // A WebAsyncTask carries the export's own timeout and executor, which a StreamingResponseBody cannot.
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<Void> exportNotes(
+            @TenantId String tenantId,
+            @Valid @RequestParam(required = false) Set<Constant.Tag> tags,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            HttpServletResponse response) {
+        return new WebAsyncTask<>(noteExportService.getTimeout().toMillis(), noteExportService.getExecutor(), () -> {
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            noteExportService.exportNotes(tenantId, tags, from, to, response.getOutputStream());
+            return null;
+        });
+    }
+
+    // Resumes after the event given by the after parameter or, on an automatic reconnect, the Last-Event-ID header.
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<NoteChangeEvent>> streamChanges(
+            @TenantId String tenantId,
+            @Valid @RequestParam(required = false) Set<Constant.Tag> tags,
+            @RequestParam(required = false) String after,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return noteChangeFeed.subscribe(tenantId, tags, after != null ? after : lastEventId);
+    }
+
+    @GetMapping("/tags/counts")
+    public ResponseEntity<Map<Constant.Tag, Long>> getTagCounts(
+            @TenantId String tenantId) {
+        return ResponseEntity.ok(tagCountService.getCounts(tenantId));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<NoteSearchResult>> searchNotes(
+            @TenantId String tenantId,
+            @RequestParam @NotBlank String q,
+            @Valid @RequestParam(required = false) Set<Constant.Tag> tags,
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "10") @Min(1) int size) {
+        return ResponseEntity.ok(noteService.searchNotes(tenantId, q, tags, page, size));
+    }
+
+    // With write-behind on, the note is answered with 202 once queued and can be read back after the writer stored it.
     @PostMapping
-    public ResponseEntity<NoteResponse> createNote(@Valid @RequestBody NoteRequest noteRequest) {
-        return new ResponseEntity<>(noteService.createNote(noteRequest), HttpStatus.CREATED);
+    public ResponseEntity<NoteResponse> createNote(
+            @TenantId String tenantId,
+            @Valid @RequestBody NoteRequest noteRequest) {
+        if (noteWriteBehindService.isEnabled()) {
+            return new ResponseEntity<>(noteWriteBehindService.enqueue(tenantId, noteRequest), HttpStatus.ACCEPTED);
+        }
+        return new ResponseEntity<>(noteService.createNote(tenantId, noteRequest), HttpStatus.CREATED);
     }
 
-    @GetMapping("/details")
-    public ResponseEntity<List<NoteResponse>> fetchNotes(@Valid @RequestParam(required = false) Set<Constant.Tag> tags,
-                                                         @RequestParam(defaultValue = "0") @Min(0) int page,
-                                                         @RequestParam(defaultValue = "10") @Min(1) int size) {
-        return ResponseEntity.ok(noteService.fetchNotes(tags, page, size));
+    // Items are validated one by one, so an invalid note is reported in the response instead of failing the batch.
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResponse> createNotes(
+            @TenantId String tenantId,
+            @RequestBody @NotEmpty List<NoteRequest> noteRequests) {
+        return ResponseEntity.ok(noteBatchService.createNotes(tenantId, noteRequests));
+    }
+
+    @PatchMapping("/batch/tags")
+    public ResponseEntity<BatchResponse> updateTags(
+            @TenantId String tenantId,
+            @Valid @RequestBody BatchTagUpdateRequest request) {
+        return ResponseEntity.ok(noteBatchService.updateTags(tenantId, request));
+    }
+
+    @PostMapping("/batch/delete")
+    public ResponseEntity<BatchResponse> deleteNotes(
+            @TenantId String tenantId,
+            @RequestBody @NotEmpty List<UUID> ids) {
+        return ResponseEntity.ok(noteBatchService.deleteNotes(tenantId, ids));
+    }
+
+    @GetMapping(value = "/details",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MessageConverterConfig.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<List<NoteResponse>> fetchNotes(
+            @TenantId String tenantId,
+            @Valid @RequestParam(required = false) Set<Constant.Tag> tags,
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "10") @Min(1) int size,
+            WebRequest webRequest) {
+        if (isListingNotModified(tenantId, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok(noteService.fetchNotes(tenantId, tags, page, size));
+    }
+
+    @GetMapping(value = "/details", params = "cursor",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MessageConverterConfig.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<CursorPage<NoteResponse>> fetchNotesByCursor(
+            @TenantId String tenantId,
+            @Valid @RequestParam(required = false) Set<Constant.Tag> tags,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") @Min(1) int size,
+            WebRequest webRequest) {
+        if (isListingNotModified(tenantId, webRequest)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok(noteService.fetchNotesByCursor(tenantId, tags, cursor, size));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<NoteResponse> getNote(@PathVariable UUID id) {
-        return ResponseEntity.ok(noteService.getNote(id));
+    public ResponseEntity<NoteResponse> getNote(
+            @TenantId String tenantId,
+            @PathVariable UUID id) {
+        return NoteETags.withETag(noteService.getNote(tenantId, id));
     }
 
+    // Without If-Match the update applies unconditionally; with it, a stale version is answered with 412.
     @PutMapping("/{id}")
-    public ResponseEntity<NoteResponse> updateNote(@PathVariable UUID id, @RequestBody NoteRequest noteRequest) {
-        return ResponseEntity.ok(noteService.updateNote(id, noteRequest));
+    public ResponseEntity<NoteResponse> updateNote(
+            @TenantId String tenantId,
+            @PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Validated(NoteRequest.Update.class) @RequestBody NoteRequest noteRequest) {
+        Long expectedVersion = NoteETags.expectedVersion(ifMatch);
+        return NoteETags.withETag(noteService.updateNote(tenantId, id, noteRequest, expectedVersion));
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteNote(@PathVariable UUID id) {
-        noteService.deleteNote(id);
+    public ResponseEntity<Void> deleteNote(
+            @TenantId String tenantId,
+            @PathVariable UUID id) {
+        noteService.deleteNote(tenantId, id);
         return ResponseEntity.noContent().build();
     }
 
     @GetMapping("/{id}/stats")
-    public ResponseEntity<Map<String, Integer>> getNoteStats(@PathVariable UUID id) {
-        return ResponseEntity.ok(noteService.getNoteTextStats(id));
+    public ResponseEntity<Map<String, Integer>> getNoteStats(
+            @TenantId String tenantId,
+            @PathVariable UUID id,
+            @RequestParam(required = false) @Min(1) Integer top) {
+        return ResponseEntity.ok(noteService.getNoteTextStats(tenantId, id, top));
+    }
+
+    /**
+     * Validates a listing against the change token of the tenant before any page is read. The ETag is weak because
+     * the token stands for every representation and encoding of every listing. No Last-Modified is sent: HTTP dates
+     * have one-second granularity, so If-Modified-Since would miss a write in the same second as the previous poll.
+     */
+    private boolean isListingNotModified(String tenantId, WebRequest webRequest) {
+        NoteChanges changes = noteChangeService.current(tenantId);
+        return webRequest.checkNotModified("W/\"" + changes.getSequence() + "\"");
     }
 }
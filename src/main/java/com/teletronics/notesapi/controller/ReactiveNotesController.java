@@ -0,0 +1,119 @@
+package com.teletronics.notesapi.controller;
+
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.CursorPage;
+import com.teletronics.notesapi.model.NoteRequest;
+import com.teletronics.notesapi.model.NoteResponse;
+import com.teletronics.notesapi.model.NoteSummary;
+import com.teletronics.notesapi.service.ReactiveNoteService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * WebFlux variant of {@link NotesController} serving the same contract. Listings are also available as
+ * {@code application/x-ndjson}, which writes each note as soon as Mongo returns it.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping(value = "/api/v1/notes", produces = MediaType.APPLICATION_JSON_VALUE)
+public class ReactiveNotesController {
+
+    private final ReactiveNoteService noteService;
+
+    @Autowired
+    public ReactiveNotesController(ReactiveNoteService noteService) {
+        this.noteService = noteService;
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<NoteSummary> fetchNoteSummaries(
+            @TenantId String tenantId,
+            @Valid @RequestParam(required = false) Set<Constant.Tag> tags,
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "10") @Min(1) int size) {
+        return noteService.fetchNoteSummaries(tenantId, tags, page, size);
+    }
+
+    @GetMapping(params = "cursor")
+    public Mono<CursorPage<NoteSummary>> fetchNoteSummariesByCursor(
+            @TenantId String tenantId,
+            @Valid @RequestParam(required = false) Set<Constant.Tag> tags,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") @Min(1) int size) {
+        return noteService.fetchNoteSummariesByCursor(tenantId, tags, cursor, size);
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<NoteResponse> createNote(
+            @TenantId String tenantId,
+            @Valid @RequestBody NoteRequest noteRequest) {
+        return noteService.createNote(tenantId, noteRequest);
+    }
+
+    @GetMapping(value = "/details", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<NoteResponse> fetchNotes(
+            @TenantId String tenantId,
+            @Valid @RequestParam(required = false) Set<Constant.Tag> tags,
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "10") @Min(1) int size) {
+        return noteService.fetchNotes(tenantId, tags, page, size);
+    }
+
+    @GetMapping(value = "/details", params = "cursor")
+    public Mono<CursorPage<NoteResponse>> fetchNotesByCursor(
+            @TenantId String tenantId,
+            @Valid @RequestParam(required = false) Set<Constant.Tag> tags,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") @Min(1) int size) {
+        return noteService.fetchNotesByCursor(tenantId, tags, cursor, size);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<NoteResponse>> getNote(
+            @TenantId String tenantId,
+            @PathVariable UUID id) {
+        return noteService.getNote(tenantId, id).map(NoteETags::withETag);
+    }
+
+    // Without If-Match the update applies unconditionally; with it, a stale version is answered with 412.
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<NoteResponse>> updateNote(
+            @TenantId String tenantId,
+            @PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Validated(NoteRequest.Update.class) @RequestBody NoteRequest noteRequest) {
+        Long expectedVersion = NoteETags.expectedVersion(ifMatch);
+        return noteService.updateNote(tenantId, id, noteRequest, expectedVersion).map(NoteETags::withETag);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> deleteNote(
+            @TenantId String tenantId,
+            @PathVariable UUID id) {
+        return noteService.deleteNote(tenantId, id);
+    }
+
+    @GetMapping("/{id}/stats")
+    public Mono<Map<String, Integer>> getNoteStats(
+            @TenantId String tenantId,
+            @PathVariable UUID id,
+            @RequestParam(required = false) @Min(1) Integer top) {
+        return noteService.getNoteTextStats(tenantId, id, top);
+    }
+}
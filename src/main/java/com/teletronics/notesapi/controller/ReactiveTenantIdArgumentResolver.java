@@ -0,0 +1,24 @@
+package com.teletronics.notesapi.controller;
+
+import com.teletronics.notesapi.model.Constant;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.reactive.BindingContext;
+import org.springframework.web.reactive.result.method.SyncHandlerMethodArgumentResolver;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * Resolves {@link TenantId} parameters of the reactive controller, like {@link TenantIdArgumentResolver} does for
+ * the servlet ones.
+ */
+public class ReactiveTenantIdArgumentResolver implements SyncHandlerMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(TenantId.class) && parameter.getParameterType() == String.class;
+    }
+
+    @Override
+    public Object resolveArgumentValue(MethodParameter parameter, BindingContext bindingContext, ServerWebExchange exchange) {
+        return TenantIdArgumentResolver.tenantOf(exchange.getRequest().getHeaders().getFirst(Constant.TENANT_HEADER));
+    }
+}
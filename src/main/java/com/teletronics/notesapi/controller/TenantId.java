@@ -0,0 +1,21 @@
+package com.teletronics.notesapi.controller;
+
+import com.teletronics.notesapi.model.Constant;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a handler parameter to the tenant of the request, read from the {@link Constant#TENANT_HEADER} header.
+ * Requests without the header belong to {@link Constant#DEFAULT_TENANT}, and a malformed tenant is answered with 400.
+ *
+ * @see TenantIdArgumentResolver
+ */
+@Documented
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface TenantId {
+}
@@ -0,0 +1,44 @@
+package com.teletronics.notesapi.controller;
+
+import com.teletronics.notesapi.exception.InvalidTenantException;
+import com.teletronics.notesapi.model.Constant;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.util.regex.Pattern;
+
+/**
+ * Resolves {@link TenantId} parameters of the servlet controllers.
+ */
+public class TenantIdArgumentResolver implements HandlerMethodArgumentResolver {
+    private static final Pattern TENANT_PATTERN = Pattern.compile(Constant.TENANT_PATTERN);
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(TenantId.class) && parameter.getParameterType() == String.class;
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        return tenantOf(webRequest.getHeader(Constant.TENANT_HEADER));
+    }
+
+    /**
+     * @param header the value of the tenant header, or {@code null} when absent
+     * @return the tenant the header names, or the default tenant when it names none
+     * @throws InvalidTenantException when the header does not match {@link Constant#TENANT_PATTERN}
+     */
+    static String tenantOf(String header) {
+        if (header == null || header.isEmpty()) {
+            return Constant.DEFAULT_TENANT;
+        }
+        if (!TENANT_PATTERN.matcher(header).matches()) {
+            throw new InvalidTenantException("Invalid " + Constant.TENANT_HEADER + " header, expected " + Constant.TENANT_PATTERN);
+        }
+        return header;
+    }
+}
@@ -0,0 +1,8 @@
+package com.teletronics.notesapi.exception;
+
+public class BatchTooLargeException extends RuntimeException {
+
+    public BatchTooLargeException(String message) {
+        super(message);
+    }
+}
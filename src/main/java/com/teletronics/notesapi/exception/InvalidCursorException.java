@@ -0,0 +1,8 @@
+package com.teletronics.notesapi.exception;
+
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
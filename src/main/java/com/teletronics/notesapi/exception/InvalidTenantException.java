@@ -0,0 +1,8 @@
+package com.teletronics.notesapi.exception;
+
+public class InvalidTenantException extends RuntimeException {
+
+    public InvalidTenantException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.teletronics.notesapi.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
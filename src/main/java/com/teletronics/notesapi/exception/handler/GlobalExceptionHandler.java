@@ -1,8 +1,17 @@
 package com.teletronics.notesapi.exception.handler;
 
+import com.teletronics.notesapi.exception.BatchTooLargeException;
+import com.teletronics.notesapi.exception.ConflictException;
+import com.teletronics.notesapi.exception.InvalidCursorException;
+import com.teletronics.notesapi.exception.InvalidTenantException;
+import com.teletronics.notesapi.exception.PreconditionFailedException;
 import com.teletronics.notesapi.exception.ResourceNotFoundException;
+import com.teletronics.notesapi.exception.TooManyRequestsException;
 import com.teletronics.notesapi.model.ErrorResponse;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -11,6 +20,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.method.annotation.HandlerMethodValidationException;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.server.ServerWebInputException;
 
 import java.time.LocalDateTime;
 
@@ -21,7 +31,11 @@ public class GlobalExceptionHandler {
             ConstraintViolationException.class,
             MethodArgumentNotValidException.class,
             HandlerMethodValidationException.class,
-            MethodArgumentTypeMismatchException.class
+            MethodArgumentTypeMismatchException.class,
+            ServerWebInputException.class,
+            InvalidCursorException.class,
+            InvalidTenantException.class,
+            BatchTooLargeException.class
     })
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ResponseEntity<ErrorResponse> handleValidationExceptions(Exception ex) {
@@ -36,6 +50,44 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
     }
 
+    @ExceptionHandler(PreconditionFailedException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ResponseEntity<ErrorResponse> handlePreconditionFailedException(PreconditionFailedException ex) {
+        ErrorResponse errorResponse = createErrorResponse(HttpStatus.PRECONDITION_FAILED, "Precondition failed", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(errorResponse);
+    }
+
+    @ExceptionHandler({
+            OptimisticLockingFailureException.class,
+            ConflictException.class
+    })
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ResponseEntity<ErrorResponse> handleConflictExceptions(Exception ex) {
+        ErrorResponse errorResponse = createErrorResponse(HttpStatus.CONFLICT, "Conflict", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
+
+    // The writer drains the queue within a bulk write or two, so the client is asked to retry shortly.
+    @ExceptionHandler(TooManyRequestsException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public ResponseEntity<ErrorResponse> handleTooManyRequestsException(TooManyRequestsException ex) {
+        ErrorResponse errorResponse = createErrorResponse(HttpStatus.TOO_MANY_REQUESTS, "Too many requests", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorResponse);
+    }
+
+    // An async executor, such as the one running exports, is saturated.
+    @ExceptionHandler(TaskRejectedException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public ResponseEntity<ErrorResponse> handleTaskRejectedException(TaskRejectedException ex) {
+        ErrorResponse errorResponse = createErrorResponse(HttpStatus.TOO_MANY_REQUESTS, "Too many requests",
+                "Too many concurrent requests of this kind, retry later");
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorResponse);
+    }
+
     @ExceptionHandler(Exception.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ResponseEntity<ErrorResponse> handleException(Exception ex) {
@@ -0,0 +1,11 @@
+package com.teletronics.notesapi.mapper;
+
+import com.teletronics.notesapi.model.ImportJobResponse;
+import com.teletronics.notesapi.model.store.ImportJob;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface ImportJobMapper {
+
+    ImportJobResponse toResponseDTO(ImportJob importJob);
+}
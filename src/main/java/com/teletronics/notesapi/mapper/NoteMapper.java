@@ -1,18 +1,28 @@
 package com.teletronics.notesapi.mapper;
 
+import com.teletronics.notesapi.config.MetricsConfig;
 import com.teletronics.notesapi.model.NoteRequest;
 import com.teletronics.notesapi.model.NoteResponse;
+import com.teletronics.notesapi.model.NoteSearchResult;
 import com.teletronics.notesapi.model.NoteSummary;
 import com.teletronics.notesapi.model.store.Note;
+import com.teletronics.notesapi.model.store.NoteSummaryView;
+import com.teletronics.notesapi.model.store.ScoredNote;
+import io.micrometer.core.annotation.Timed;
 import org.mapstruct.*;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
 @Mapper(componentModel = "spring")
+@AnnotateWith(value = Timed.class, elements = @AnnotateWith.Element(strings = MetricsConfig.MAPPER_TIMER))
 public interface NoteMapper {
 
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "lastModifiedDate", ignore = true)
+    @Mapping(target = "tenantId", ignore = true)
     Note toEntity(NoteRequest noteRequest);
     @IterableMapping(elementTargetType = NoteResponse.class)
     List<NoteResponse> toResponseDTOList(List<Note> note);
@@ -20,10 +30,20 @@ public interface NoteMapper {
     @IterableMapping(elementTargetType = NoteSummary.class)
     List<NoteSummary> toSummaryDTOList(List<Note> note);
     NoteSummary toSummaryDTO(Note note);
+    @IterableMapping(elementTargetType = NoteSummary.class)
+    List<NoteSummary> toSummaryDTOListFromView(List<NoteSummaryView> summaryViews);
+    NoteSummary toSummaryDTO(NoteSummaryView summaryView);
+    @IterableMapping(elementTargetType = NoteSearchResult.class)
+    List<NoteSearchResult> toSearchResultDTOList(List<ScoredNote> scoredNotes);
 
 
     @AfterMapping
     default void setUUIDIfNotPresent(@MappingTarget Note note) {
         note.setId(UUID.randomUUID());
     }
+
+    @AfterMapping
+    default void setLastModifiedDate(@MappingTarget Note note) {
+        note.setLastModifiedDate(Instant.now());
+    }
 }
@@ -0,0 +1,36 @@
+package com.teletronics.notesapi.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * Outcome of one item of a batch request; {@code index} is the item's position in the request.
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        DELETED,
+        INVALID,
+        NOT_FOUND,
+        FAILED
+    }
+
+    private int index;
+    private UUID id;
+    private Status status;
+    private String message;
+
+    @JsonIgnore
+    public boolean isSucceeded() {
+        return status == Status.CREATED || status == Status.UPDATED || status == Status.DELETED;
+    }
+}
@@ -0,0 +1,18 @@
+package com.teletronics.notesapi.model;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class BatchResponse {
+    private final int succeeded;
+    private final int failed;
+    private final List<BatchItemResult> items;
+
+    public BatchResponse(List<BatchItemResult> items) {
+        this.items = items;
+        this.succeeded = (int) items.stream().filter(BatchItemResult::isSucceeded).count();
+        this.failed = items.size() - succeeded;
+    }
+}
@@ -0,0 +1,20 @@
+package com.teletronics.notesapi.model;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+@Getter
+@Setter
+public class BatchTagUpdateRequest {
+    @NotEmpty(message = "Ids cannot be empty")
+    private List<UUID> ids;
+
+    @NotNull(message = "Tags cannot be null")
+    private Set<Constant.Tag> tags;
+}
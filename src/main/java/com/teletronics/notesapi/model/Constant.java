@@ -2,6 +2,11 @@ package com.teletronics.notesapi.model;
 
 public class Constant {
 
+    // Requests without this header belong to DEFAULT_TENANT, so single-tenant deployments need no changes.
+    public static final String TENANT_HEADER = "X-Tenant-Id";
+    public static final String DEFAULT_TENANT = "default";
+    public static final String TENANT_PATTERN = "[A-Za-z0-9_-]{1,64}";
+
     public enum Tag {
         BUSINESS,
         PERSONAL,
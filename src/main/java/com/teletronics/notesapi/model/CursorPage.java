@@ -0,0 +1,18 @@
+package com.teletronics.notesapi.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * A single keyset-paginated slice of results. {@code nextCursor} is absent on the last slice.
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPage<T> {
+    private List<T> content;
+    private String nextCursor;
+}
@@ -0,0 +1,29 @@
+package com.teletronics.notesapi.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.teletronics.notesapi.model.store.ImportJob;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@Setter
+@RequiredArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportJobResponse {
+    private UUID id;
+    private ImportJob.Status status;
+    private long committedOffset;
+    private long imported;
+    private long duplicates;
+    private long invalid;
+    private long failed;
+    private List<ImportJob.LineError> errors;
+    private String lastError;
+    private LocalDateTime createdDate;
+    private LocalDateTime updatedDate;
+}
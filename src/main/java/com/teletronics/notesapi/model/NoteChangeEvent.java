@@ -0,0 +1,29 @@
+package com.teletronics.notesapi.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Data of a {@code GET /notes/changes} event. Tags are those of the note after the change, or before it when the
+ * note was deleted. A {@code RESET} event carries no note: the changes since the last event id received are no longer
+ * known, so the client has to list the notes again.
+ */
+@Getter
+@AllArgsConstructor
+public class NoteChangeEvent {
+    private Type type;
+    private UUID id;
+    private Set<Constant.Tag> tags;
+    private Instant occurredAt;
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        RESET
+    }
+}
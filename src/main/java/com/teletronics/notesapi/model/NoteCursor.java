@@ -0,0 +1,56 @@
+package com.teletronics.notesapi.model;
+
+import com.teletronics.notesapi.exception.InvalidCursorException;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Opaque continuation token for keyset pagination, positioned on the {@code (createdDate, id)} of the last
+ * note returned. Clients must treat the encoded form as an opaque string.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class NoteCursor {
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime createdDate;
+    private final UUID id;
+
+    public static NoteCursor of(LocalDateTime createdDate, UUID id) {
+        return new NoteCursor(createdDate, id);
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}. A blank token denotes the first page and yields empty.
+     */
+    public static Optional<NoteCursor> decode(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separatorIndex = decoded.indexOf(SEPARATOR);
+            if (separatorIndex < 0) {
+                throw new InvalidCursorException("Malformed cursor");
+            }
+            return Optional.of(new NoteCursor(
+                    LocalDateTime.parse(decoded.substring(0, separatorIndex)),
+                    UUID.fromString(decoded.substring(separatorIndex + 1))));
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = createdDate + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
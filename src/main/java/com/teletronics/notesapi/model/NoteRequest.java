@@ -2,6 +2,7 @@ package com.teletronics.notesapi.model;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.groups.Default;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -11,14 +12,20 @@ import java.util.Set;
 @Getter
 @Setter
 public class NoteRequest {
-    @NotBlank(message = "Title cannot be blank")
+    @NotBlank(message = "Title cannot be blank", groups = {Default.class, Update.class})
     private String title;
 
-    @NotBlank(message = "Text cannot be blank")
+    @NotBlank(message = "Text cannot be blank", groups = {Default.class, Update.class})
     private String text;
 
     private Set<Constant.Tag> tags;
 
     @NotNull(message = "Created Date cannot be blank")
     private LocalDateTime createdDate;
+
+    /**
+     * Constraints checked on updates, which keep the creation date of the note.
+     */
+    public interface Update {
+    }
 }
@@ -1,18 +1,18 @@
 package com.teletronics.notesapi.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.Set;
 import java.util.UUID;
 
 @Getter
 @Setter
-@AllArgsConstructor
 @RequiredArgsConstructor
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class NoteResponse {
@@ -21,4 +21,17 @@ public class NoteResponse {
     private String text;
     private Set<Constant.Tag> tags;
     private LocalDateTime createdDate;
+    // Sent as the ETag and Last-Modified headers rather than in the body.
+    @JsonIgnore
+    private Long version;
+    @JsonIgnore
+    private Instant lastModifiedDate;
+
+    public NoteResponse(UUID id, String title, String text, Set<Constant.Tag> tags, LocalDateTime createdDate) {
+        this.id = id;
+        this.title = title;
+        this.text = text;
+        this.tags = tags;
+        this.createdDate = createdDate;
+    }
 }
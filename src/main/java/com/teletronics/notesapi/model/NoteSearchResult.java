@@ -0,0 +1,20 @@
+package com.teletronics.notesapi.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+@Getter
+@Setter
+@RequiredArgsConstructor
+public class NoteSearchResult {
+    private UUID id;
+    private String title;
+    private Set<Constant.Tag> tags;
+    private LocalDateTime createdDate;
+    private Float score;
+}
@@ -0,0 +1,62 @@
+package com.teletronics.notesapi.model.store;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Progress of an NDJSON import. Counters and {@code committedOffset} are only written at checkpoints, after the
+ * notes of every line up to that offset are stored, so a resumed upload can skip exactly those lines.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Document(collection = "import_jobs")
+public class ImportJob {
+
+    public enum Status {
+        CREATED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    @Id
+    private UUID id;
+    private String tenantId;
+    private Status status;
+    private long committedOffset;
+    private long imported;
+    private long duplicates;
+    private long invalid;
+    private long failed;
+    private List<LineError> errors = new ArrayList<>();
+    private String lastError;
+    private LocalDateTime createdDate;
+    private LocalDateTime updatedDate;
+
+    public ImportJob(UUID id, String tenantId, LocalDateTime createdDate) {
+        this.id = id;
+        this.tenantId = tenantId;
+        this.status = Status.CREATED;
+        this.createdDate = createdDate;
+        this.updatedDate = createdDate;
+    }
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class LineError {
+        private long line;
+        private String message;
+    }
+}
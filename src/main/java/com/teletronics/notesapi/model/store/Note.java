@@ -1,13 +1,18 @@
 package com.teletronics.notesapi.model.store;
 
 import com.teletronics.notesapi.model.Constant;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Sharded;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.Set;
 import java.util.UUID;
@@ -15,14 +20,36 @@ import java.util.UUID;
 @Getter
 @Setter
 @Document(collection = "notes")
-@AllArgsConstructor
+@CompoundIndexes({
+        // _id breaks ties between notes created at the same time, so tag listings sorted by both avoid an in-memory sort.
+        @CompoundIndex(name = "tenantId_tags_createdDate_id", def = "{'tenantId': 1, 'tags': 1, 'createdDate': -1, '_id': -1}"),
+        @CompoundIndex(name = "tenantId_createdDate_id", def = "{'tenantId': 1, 'createdDate': -1, '_id': -1}")
+})
+// Recommended shard key: { tenantId: 'hashed', createdDate: 1 }. Every query carries the tenant, so it is routed to
+// the shards owning that tenant's chunks only; see README. Neither field changes after a note is created.
+@Sharded(shardKey = {"tenantId", "createdDate"}, immutableKey = true)
 @NoArgsConstructor
 public class Note {
 
     @Id
     private UUID id;
+    private String tenantId;
+    // Title matches rank above text matches in search.
+    @TextIndexed(weight = 3)
     private String title;
+    @TextIndexed
     private String text;
     private Set<Constant.Tag> tags;
     private LocalDateTime createdDate;
+    @Version
+    private Long version;
+    private Instant lastModifiedDate;
+
+    public Note(UUID id, String title, String text, Set<Constant.Tag> tags, LocalDateTime createdDate) {
+        this.id = id;
+        this.title = title;
+        this.text = text;
+        this.tags = tags;
+        this.createdDate = createdDate;
+    }
 }
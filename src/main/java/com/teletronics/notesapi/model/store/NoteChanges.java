@@ -0,0 +1,26 @@
+package com.teletronics.notesapi.model.store;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Change token of the notes of one tenant, whose id is the document id. Its {@code sequence} is incremented after
+ * every write to the tenant's notes, so listings can be validated by reading one small document instead of the page
+ * itself, and writes of one tenant do not invalidate the listings of another.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Document(collection = "note_changes")
+public class NoteChanges {
+
+    @Id
+    private String id;
+    private long sequence;
+    private Instant modifiedDate;
+}
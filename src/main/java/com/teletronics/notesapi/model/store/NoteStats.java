@@ -0,0 +1,38 @@
+package com.teletronics.notesapi.model.store;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Word frequency table of a note, keyed by the note id and kept in descending count order. Words are stored as
+ * values rather than keys because note text may contain characters Mongo does not accept in field names. The tenant
+ * of the note is kept as well, so a table is only served to the tenant owning the note.
+ */
+@Getter
+@Setter
+@Document(collection = "note_stats")
+@AllArgsConstructor
+@NoArgsConstructor
+public class NoteStats {
+
+    @Id
+    private UUID id;
+    private String tenantId;
+    private List<WordCount> words;
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class WordCount {
+        private String word;
+        private int count;
+    }
+}
@@ -0,0 +1,15 @@
+package com.teletronics.notesapi.model.store;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Closed projection of {@link Note} used by the summary listings, so the {@code text} field never leaves Mongo.
+ */
+public interface NoteSummaryView {
+    UUID getId();
+
+    String getTitle();
+
+    LocalDateTime getCreatedDate();
+}
@@ -0,0 +1,27 @@
+package com.teletronics.notesapi.model.store;
+
+import com.teletronics.notesapi.model.Constant;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.TextScore;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A note matched by a text search, read without its {@code text} and with the relevance score Mongo assigned.
+ */
+@Getter
+@Setter
+public class ScoredNote {
+
+    @Id
+    private UUID id;
+    private String title;
+    private Set<Constant.Tag> tags;
+    private LocalDateTime createdDate;
+    @TextScore
+    private Float score;
+}
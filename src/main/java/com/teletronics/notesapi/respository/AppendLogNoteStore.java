@@ -0,0 +1,274 @@
+package com.teletronics.notesapi.respository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.store.Note;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link NoteStore} persisting notes to an append-only {@link NoteLog} of memory-mapped segment files, selected by
+ * the {@code append-log} profile. Every write appends a record, the current version of a note or a tombstone, and
+ * an in-memory map points each id at the record holding its note, which reads decode from the mapping.
+ * <p>
+ * At startup the segments are replayed oldest first, so the last record of each id wins, and the indexes are rebuilt
+ * from the surviving notes. Segments are compacted in the background: once enough of a segment is superseded, its
+ * live records are appended again and the file is deleted.
+ * <p>
+ * A tombstone is only needed while a segment older than its own may still hold a record of the deleted note, which
+ * replay would otherwise bring back. Records of a note are never older than the segment its first record went to,
+ * so each needed tombstone is kept in memory with that segment, counts as live bytes of its own segment, and is
+ * released once no segment between the two is left.
+ */
+@Slf4j
+@Repository
+@Profile(NoteStore.APPEND_LOG_PROFILE)
+public class AppendLogNoteStore extends IndexedNoteStore {
+    private static final byte[] TOMBSTONE = new byte[0];
+
+    private final ObjectMapper mapper = new ObjectMapper(new SmileFactory()).registerModule(new JavaTimeModule());
+    private final Map<UUID, NoteLog.Location> locations = new ConcurrentHashMap<>();
+    // The oldest segment holding a record of a note, for the notes whose current record is in a later segment.
+    private final Map<UUID, Long> firstSegments = new ConcurrentHashMap<>();
+    private final Map<UUID, Tombstone> tombstones = new ConcurrentHashMap<>();
+    private final NoteLog noteLog;
+    private final double compactionThreshold;
+
+    @Autowired
+    public AppendLogNoteStore(@Value("${notes.log.directory:data/notes-log}") String directory,
+                              @Value("${notes.log.segment-size:64MB}") DataSize segmentSize,
+                              @Value("${notes.log.sync-on-write:false}") boolean syncOnWrite,
+                              @Value("${notes.log.compaction-threshold:0.5}") double compactionThreshold) throws IOException {
+        this(Path.of(directory), Math.toIntExact(segmentSize.toBytes()), syncOnWrite, compactionThreshold);
+    }
+
+    AppendLogNoteStore(Path directory, int segmentSize, boolean syncOnWrite, double compactionThreshold) throws IOException {
+        this.noteLog = new NoteLog(directory, segmentSize, syncOnWrite);
+        this.compactionThreshold = compactionThreshold;
+        recover(directory);
+    }
+
+    @Override
+    public Note insert(Note note) {
+        UUID id = Objects.requireNonNull(note.getId(), "Note id must be assigned before insert");
+        if (note.getVersion() == null) {
+            note.setVersion(0L);
+        }
+        // Encoded before taking the lock, which also keeps later changes by the caller out of the store.
+        byte[] payload = encode(note);
+        Note indexed = copyOf(note);
+        withLock(id, () -> {
+            if (locations.containsKey(id)) {
+                throw new DuplicateKeyException(String.format("Note with ID %s already exists", id));
+            }
+            NoteLog.Location location = noteLog.append(NoteLog.PUT, id, payload);
+            // A note inserted again after a delete may still have records of its earlier version in older segments.
+            Tombstone tombstone = tombstones.remove(id);
+            if (tombstone != null) {
+                tombstone.location().segment().liveBytes.addAndGet(-tombstone.location().length());
+                firstSegments.put(id, tombstone.firstSegment());
+            }
+            locate(id, location);
+            indexAdded(indexed);
+            return null;
+        });
+        return note;
+    }
+
+    @Override
+    public Optional<Note> findAndUpdateContent(String tenantId, UUID id, Long expectedVersion, String title, String text,
+                                               Set<Constant.Tag> tags, Instant lastModifiedDate) {
+        return withLock(id, () -> find(tenantId, id)
+                .filter(note -> expectedVersion == null || expectedVersion.equals(note.getVersion()))
+                .map(previousNote -> {
+                    Note updatedNote = copyOf(previousNote);
+                    updatedNote.setTitle(title);
+                    updatedNote.setText(text);
+                    updatedNote.setTags(tags == null ? null : new HashSet<>(tags));
+                    updatedNote.setLastModifiedDate(lastModifiedDate);
+                    updatedNote.setVersion(previousNote.getVersion() == null ? 1L : previousNote.getVersion() + 1);
+                    NoteLog.Location location = noteLog.append(NoteLog.PUT, id, encode(updatedNote));
+                    NoteLog.Location previous = locations.get(id);
+                    if (previous.segment() != location.segment()) {
+                        firstSegments.putIfAbsent(id, previous.segment().id());
+                    }
+                    locate(id, location);
+                    indexRetagged(previousNote, updatedNote);
+                    return previousNote;
+                }));
+    }
+
+    @Override
+    public Optional<Note> findAndRemove(String tenantId, UUID id) {
+        return withLock(id, () -> find(tenantId, id)
+                .map(note -> {
+                    NoteLog.Location location = noteLog.append(NoteLog.DELETE, id, TOMBSTONE);
+                    indexRemoved(note);
+                    NoteLog.Location previous = locations.remove(id);
+                    previous.segment().liveBytes.addAndGet(-previous.length());
+                    Long firstSegment = firstSegments.remove(id);
+                    retainTombstone(id, location, firstSegment == null ? previous.segment().id() : firstSegment, null);
+                    return note;
+                }));
+    }
+
+    @Override
+    protected Note load(UUID id) {
+        NoteLog.Location location = locations.get(id);
+        return location == null ? null : decode(noteLog.read(location));
+    }
+
+    /**
+     * Rewrites the sealed segments whose share of superseded records reached the threshold. A record is appended
+     * again under the lock of its note and only while it is still the note's current version, so writes racing the
+     * compaction are never undone. A tombstone is appended again only while it is still needed; after each deleted
+     * segment the tombstones and first segments it was holding on to are released.
+     */
+    @Scheduled(initialDelayString = "${notes.log.compaction-interval:PT10M}",
+            fixedDelayString = "${notes.log.compaction-interval:PT10M}")
+    public synchronized void compact() {
+        for (NoteLog.Segment segment : noteLog.sealedSegments()) {
+            double garbageRatio = segment.garbageRatio();
+            if (garbageRatio < compactionThreshold) {
+                continue;
+            }
+            noteLog.records(segment, record -> withLock(record.id(), () -> {
+                NoteLog.Location current = locations.get(record.id());
+                Tombstone tombstone = tombstones.get(record.id());
+                if (record.type() == NoteLog.PUT && record.location().equals(current)) {
+                    locate(record.id(), noteLog.append(NoteLog.PUT, record.id(), noteLog.read(current)));
+                } else if (record.type() == NoteLog.DELETE && tombstone != null
+                        && record.location().equals(tombstone.location())) {
+                    tombstones.remove(record.id());
+                    segment.liveBytes.addAndGet(-record.location().length());
+                    retainTombstone(record.id(), noteLog.append(NoteLog.DELETE, record.id(), TOMBSTONE),
+                            tombstone.firstSegment(), segment);
+                }
+                return null;
+            }));
+            // The copies must be on disk before the only other copy of the records goes away.
+            noteLog.force();
+            try {
+                noteLog.delete(segment);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Failed to delete compacted log segment", ex);
+            }
+            log.info("Compacted log segment {} holding {}% superseded records", segment, Math.round(garbageRatio * 100));
+            release();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        noteLog.close();
+    }
+
+    private void recover(Path directory) {
+        long start = System.nanoTime();
+        Map<UUID, NoteLog.Location> latest = new HashMap<>();
+        Map<UUID, NoteLog.Location> deleted = new HashMap<>();
+        Map<UUID, Long> first = new HashMap<>();
+        int[] records = {0};
+        noteLog.replay(record -> {
+            records[0]++;
+            first.putIfAbsent(record.id(), record.location().segment().id());
+            if (record.type() == NoteLog.PUT) {
+                latest.put(record.id(), record.location());
+                deleted.remove(record.id());
+            } else {
+                latest.remove(record.id());
+                deleted.put(record.id(), record.location());
+            }
+        });
+        latest.forEach((id, location) -> {
+            locate(id, location);
+            if (first.get(id) != location.segment().id()) {
+                firstSegments.put(id, first.get(id));
+            }
+            indexAdded(decode(noteLog.read(location)));
+        });
+        deleted.forEach((id, location) -> retainTombstone(id, location, first.get(id), null));
+        log.info("Recovered {} notes from {} log records in {} in {} ms", latest.size(), records[0], directory,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Keeps the tombstone while a segment older than its own, other than the one being compacted, may hold a record
+    // of the note.
+    private void retainTombstone(UUID id, NoteLog.Location location, long firstSegment, NoteLog.Segment compacted) {
+        if (noteLog.hasSegmentBetween(firstSegment, location.segment().id(), compacted)) {
+            tombstones.put(id, new Tombstone(location, firstSegment));
+            location.segment().liveBytes.addAndGet(location.length());
+        }
+    }
+
+    // Drops what the deleted segments were the last reason to keep. A released tombstone becomes garbage of its
+    // segment, which is compacted once enough of it is.
+    private void release() {
+        tombstones.forEach((id, tombstone) -> {
+            NoteLog.Location location = tombstone.location();
+            if (!noteLog.hasSegmentBetween(tombstone.firstSegment(), location.segment().id(), null)
+                    && tombstones.remove(id, tombstone)) {
+                location.segment().liveBytes.addAndGet(-location.length());
+            }
+        });
+        firstSegments.keySet().forEach(id -> withLock(id, () -> {
+            Long firstSegment = firstSegments.get(id);
+            NoteLog.Location current = locations.get(id);
+            if (firstSegment != null && current != null
+                    && !noteLog.hasSegmentBetween(firstSegment, current.segment().id(), null)) {
+                firstSegments.remove(id);
+            }
+            return null;
+        }));
+    }
+
+    // Points the id at its new record and moves the record's bytes from the garbage of the segments to their live part.
+    private void locate(UUID id, NoteLog.Location location) {
+        location.segment().liveBytes.addAndGet(location.length());
+        NoteLog.Location previous = locations.put(id, location);
+        if (previous != null) {
+            previous.segment().liveBytes.addAndGet(-previous.length());
+        }
+    }
+
+    private byte[] encode(Note note) {
+        try {
+            return mapper.writeValueAsBytes(note);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to encode note " + note.getId(), ex);
+        }
+    }
+
+    private Note decode(byte[] payload) {
+        try {
+            return mapper.readValue(payload, Note.class);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to decode note", ex);
+        }
+    }
+
+    private record Tombstone(NoteLog.Location location, long firstSegment) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.teletronics.notesapi.respository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Outcome of an idempotent bulk insert, by position in the inserted list. Positions in neither collection were
+ * inserted.
+ */
+@Getter
+@AllArgsConstructor
+public class BulkInsertResult {
+    private final Set<Integer> duplicates;
+    private final Map<Integer, String> failures;
+}
@@ -0,0 +1,9 @@
+package com.teletronics.notesapi.respository;
+
+import com.teletronics.notesapi.model.store.ImportJob;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.UUID;
+
+public interface ImportJobRepository extends MongoRepository<ImportJob, UUID> {
+}
@@ -0,0 +1,67 @@
+package com.teletronics.notesapi.respository;
+
+import com.teletronics.notesapi.model.store.NoteStats;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link NoteStatsStore} keeping the tables in a concurrent map, selected by the {@code in-memory} and
+ * {@code append-log} profiles. Tables are replaced whole and never modified after they are stored. They are derived
+ * from the notes, so after a restart of the {@code append-log} store each one is recomputed on its first read.
+ */
+@Repository
+@Profile({NoteStore.IN_MEMORY_PROFILE, NoteStore.APPEND_LOG_PROFILE})
+public class InMemoryNoteStatsStore implements NoteStatsStore {
+
+    private final Map<UUID, NoteStats> stats = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<NoteStats> findById(UUID noteId) {
+        return Optional.ofNullable(stats.get(noteId));
+    }
+
+    @Override
+    public List<NoteStats> findAllById(Collection<UUID> noteIds) {
+        return noteIds.stream()
+                .map(stats::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public void save(NoteStats noteStats) {
+        stats.put(noteStats.getId(), copyOf(noteStats));
+    }
+
+    @Override
+    public void saveAll(List<NoteStats> noteStats) {
+        noteStats.forEach(this::save);
+    }
+
+    @Override
+    public void insertAll(List<NoteStats> noteStats) {
+        noteStats.forEach(table -> stats.putIfAbsent(table.getId(), copyOf(table)));
+    }
+
+    @Override
+    public void deleteById(UUID noteId) {
+        stats.remove(noteId);
+    }
+
+    @Override
+    public void deleteAllById(Collection<UUID> noteIds) {
+        noteIds.forEach(stats::remove);
+    }
+
+    private static NoteStats copyOf(NoteStats noteStats) {
+        return new NoteStats(noteStats.getId(), noteStats.getTenantId(), List.copyOf(noteStats.getWords()));
+    }
+}
@@ -0,0 +1,81 @@
+package com.teletronics.notesapi.respository;
+
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.store.Note;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link NoteStore} keeping every note in a concurrent map by id, selected by the {@code in-memory} profile, so
+ * single-note reads are a map lookup. Stored notes are never modified: a write replaces the note, and callers always
+ * receive copies. Nothing survives a restart.
+ */
+@Repository
+@Profile(NoteStore.IN_MEMORY_PROFILE)
+public class InMemoryNoteStore extends IndexedNoteStore {
+
+    private final Map<UUID, Note> notes = new ConcurrentHashMap<>();
+
+    @Override
+    public Note insert(Note note) {
+        UUID id = Objects.requireNonNull(note.getId(), "Note id must be assigned before insert");
+        if (note.getVersion() == null) {
+            note.setVersion(0L);
+        }
+        Note stored = copyOf(note);
+        withLock(id, () -> {
+            if (notes.containsKey(id)) {
+                throw new DuplicateKeyException(String.format("Note with ID %s already exists", id));
+            }
+            notes.put(id, stored);
+            indexAdded(stored);
+            return null;
+        });
+        return note;
+    }
+
+    @Override
+    public Optional<Note> findAndUpdateContent(String tenantId, UUID id, Long expectedVersion, String title, String text,
+                                               Set<Constant.Tag> tags, Instant lastModifiedDate) {
+        return withLock(id, () -> find(tenantId, id)
+                .filter(note -> expectedVersion == null || expectedVersion.equals(note.getVersion()))
+                .map(previousNote -> {
+                    Note updatedNote = copyOf(previousNote);
+                    updatedNote.setTitle(title);
+                    updatedNote.setText(text);
+                    updatedNote.setTags(tags == null ? null : new HashSet<>(tags));
+                    updatedNote.setLastModifiedDate(lastModifiedDate);
+                    updatedNote.setVersion(previousNote.getVersion() == null ? 1L : previousNote.getVersion() + 1);
+                    notes.put(id, updatedNote);
+                    indexRetagged(previousNote, updatedNote);
+                    return previousNote;
+                }));
+    }
+
+    @Override
+    public Optional<Note> findAndRemove(String tenantId, UUID id) {
+        return withLock(id, () -> find(tenantId, id)
+                .map(note -> {
+                    // Index entries go first; a listing that already read them skips the missing note.
+                    indexRemoved(note);
+                    notes.remove(id);
+                    return note;
+                }));
+    }
+
+    @Override
+    protected Note load(UUID id) {
+        Note note = notes.get(id);
+        return note == null ? null : copyOf(note);
+    }
+}
@@ -0,0 +1,436 @@
+package com.teletronics.notesapi.respository;
+
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.NoteCursor;
+import com.teletronics.notesapi.model.store.Note;
+import com.teletronics.notesapi.model.store.NoteChanges;
+import com.teletronics.notesapi.model.store.NoteSummaryView;
+import com.teletronics.notesapi.model.store.ScoredNote;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Base of the embedded {@link NoteStore}s, which serve every read from in-memory indexes. Each tenant has a sorted
+ * index of {@code (createdDate, id)} keys over all its notes and one per tag, so listings walk an index from the
+ * cursor position without sorting and only {@link #load} the notes they return.
+ * <p>
+ * Subclasses store the notes and call {@link #indexAdded}, {@link #indexRetagged} and {@link #indexRemoved} from
+ * their writes, which hold the lock of the note's stripe through {@link #withLock}: writes to different notes rarely
+ * contend and reads take no lock at all. A listing racing a write may or may not see it, as with Mongo; entries whose
+ * note was removed or retagged meanwhile are skipped.
+ */
+public abstract class IndexedNoteStore implements NoteStore {
+    // A power of two, so the stripe of a note is a mask of its id hash.
+    private static final int STRIPES = 64;
+    private static final Comparator<Key> NEWEST_FIRST = Comparator
+            .comparing(Key::createdDate, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+            .thenComparing(Key::id)
+            .reversed();
+    private static final UUID LOWEST_ID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    // Same weights as the text index declared on Note.
+    private static final int TITLE_WEIGHT = 3;
+    private static final int TEXT_WEIGHT = 1;
+
+    private final Map<String, TenantIndex> indexes = new ConcurrentHashMap<>();
+    private final Map<String, NoteChanges> changes = new ConcurrentHashMap<>();
+    // ReentrantLock rather than synchronized, which would pin virtual threads while a write holds it.
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    // Change tokens are not stored. Sequences start from the start time, so a token issued before a restart is not
+    // reissued for different notes after it.
+    private final long initialSequence = System.currentTimeMillis() * 1000;
+
+    protected IndexedNoteStore() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * @return the stored note with that id as an instance the caller may modify, or {@code null} when there is none
+     */
+    protected abstract Note load(UUID id);
+
+    @Override
+    public Optional<Note> findById(String tenantId, UUID id) {
+        return find(tenantId, id);
+    }
+
+    @Override
+    public boolean existsById(String tenantId, UUID id) {
+        return find(tenantId, id).isPresent();
+    }
+
+    @Override
+    public Page<Note> findPage(String tenantId, Set<Constant.Tag> tags, Pageable pageable) {
+        return page(tenantId, tags, pageable);
+    }
+
+    @Override
+    public Page<NoteSummaryView> findSummaryPage(String tenantId, Set<Constant.Tag> tags, Pageable pageable) {
+        return page(tenantId, tags, pageable).map(IndexedNoteStore::summaryOf);
+    }
+
+    @Override
+    public Slice<Note> findSlice(String tenantId, Set<Constant.Tag> tags, NoteCursor after, int size) {
+        return slice(tenantId, tags, after, size);
+    }
+
+    @Override
+    public Slice<NoteSummaryView> findSummarySlice(String tenantId, Set<Constant.Tag> tags, NoteCursor after, int size) {
+        return slice(tenantId, tags, after, size).map(IndexedNoteStore::summaryOf);
+    }
+
+    /**
+     * Scores every note of the tenant by the weighted number of occurrences of the terms in its title and text.
+     * Unlike the Mongo text index, words are matched exactly, without stemming, stop words or phrases.
+     */
+    @Override
+    public List<ScoredNote> search(String tenantId, String terms, Set<Constant.Tag> tags, Pageable pageable) {
+        Set<String> words = words(terms).collect(HashSet::new, Set::add, Set::addAll);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        // The listing order is kept among equal scores, as the Mongo search sorts them by creation date.
+        return notes(tenantId, tags, null)
+                .map(note -> scoredNoteOf(note, TITLE_WEIGHT * occurrences(note.getTitle(), words)
+                        + TEXT_WEIGHT * occurrences(note.getText(), words)))
+                .filter(scoredNote -> scoredNote.getScore() > 0)
+                .sorted(Comparator.comparing(ScoredNote::getScore).reversed())
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .toList();
+    }
+
+    // Bulk writes apply note by note: there is no round trip to save, and each note is written under its own lock.
+    @Override
+    public Map<Integer, String> insertAllUnordered(List<Note> notes, int chunkSize) {
+        Map<Integer, String> failures = new HashMap<>();
+        for (int i = 0; i < notes.size(); i++) {
+            try {
+                insert(notes.get(i));
+            } catch (RuntimeException ex) {
+                failures.put(i, ex.getMessage());
+            }
+        }
+        return failures;
+    }
+
+    @Override
+    public BulkInsertResult insertAllIdempotent(List<Note> notes, int chunkSize) {
+        Set<Integer> duplicates = new HashSet<>();
+        Map<Integer, String> failures = new HashMap<>();
+        for (int i = 0; i < notes.size(); i++) {
+            try {
+                insert(notes.get(i));
+            } catch (DuplicateKeyException ex) {
+                duplicates.add(i);
+            } catch (RuntimeException ex) {
+                failures.put(i, ex.getMessage());
+            }
+        }
+        return new BulkInsertResult(duplicates, failures);
+    }
+
+    @Override
+    public Map<UUID, Set<Constant.Tag>> setTags(String tenantId, Collection<UUID> ids, Set<Constant.Tag> tags) {
+        Instant lastModifiedDate = Instant.now();
+        Map<UUID, Set<Constant.Tag>> previousTags = new HashMap<>();
+        // The stripe locks are reentrant, so the note is read and updated under the same lock.
+        for (UUID id : new LinkedHashSet<>(ids)) {
+            withLock(id, () -> find(tenantId, id)
+                    .flatMap(note -> findAndUpdateContent(tenantId, id, null, note.getTitle(), note.getText(), tags, lastModifiedDate)))
+                    .ifPresent(previous ->
+                            previousTags.put(id, previous.getTags() == null ? Set.of() : previous.getTags()));
+        }
+        return previousTags;
+    }
+
+    @Override
+    public Map<UUID, Set<Constant.Tag>> removeAllById(String tenantId, Collection<UUID> ids) {
+        Map<UUID, Set<Constant.Tag>> removedTags = new HashMap<>();
+        for (UUID id : new LinkedHashSet<>(ids)) {
+            findAndRemove(tenantId, id).ifPresent(removed ->
+                    removedTags.put(id, removed.getTags() == null ? Set.of() : removed.getTags()));
+        }
+        return removedTags;
+    }
+
+    /**
+     * Walks the index from {@code to} down to {@code from}, so notes outside the range are never loaded. Like the
+     * Mongo range query, a range excludes notes without a creation date.
+     */
+    @Override
+    public Stream<Note> streamAll(String tenantId, Set<Constant.Tag> tags, LocalDateTime from, LocalDateTime to, int batchSize) {
+        // Sorts before every other key of that date, so the walk starts at the newest note created before it.
+        Key after = to == null ? null : new Key(to, LOWEST_ID);
+        return notes(tenantId, tags, after)
+                .takeWhile(note -> from == null && to == null
+                        || note.getCreatedDate() != null && (from == null || !note.getCreatedDate().isBefore(from)));
+    }
+
+    @Override
+    public Map<String, Map<Constant.Tag, Long>> countByTag() {
+        Map<String, Map<Constant.Tag, Long>> counts = new HashMap<>();
+        indexes.forEach((tenantId, index) -> index.byTag.forEach((tag, keys) -> {
+            long count = keys.size();
+            if (count > 0) {
+                counts.computeIfAbsent(tenantId, __ -> new EnumMap<>(Constant.Tag.class)).put(tag, count);
+            }
+        }));
+        return counts;
+    }
+
+    @Override
+    public void recordChange(String tenantId) {
+        // Tokens are replaced rather than modified, so the instance returned by currentChanges never changes.
+        changes.compute(tenantId, (id, previous) -> {
+            Instant now = Instant.now();
+            NoteChanges next = new NoteChanges();
+            next.setId(id);
+            next.setSequence((previous == null ? initialSequence : previous.getSequence()) + 1);
+            next.setModifiedDate(previous == null || now.isAfter(previous.getModifiedDate()) ? now : previous.getModifiedDate());
+            return next;
+        });
+    }
+
+    @Override
+    public NoteChanges currentChanges(String tenantId) {
+        NoteChanges current = changes.get(tenantId);
+        if (current != null) {
+            return current;
+        }
+        NoteChanges initial = new NoteChanges();
+        initial.setSequence(initialSequence);
+        return initial;
+    }
+
+    protected final Optional<Note> find(String tenantId, UUID id) {
+        return Optional.ofNullable(load(id))
+                .filter(note -> tenantId.equals(note.getTenantId()));
+    }
+
+    protected final <T> T withLock(UUID id, Supplier<T> write) {
+        ReentrantLock lock = locks[id.hashCode() & (STRIPES - 1)];
+        lock.lock();
+        try {
+            return write.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    protected final void indexAdded(Note note) {
+        indexes.computeIfAbsent(note.getTenantId(), __ -> new TenantIndex()).add(note);
+    }
+
+    protected final void indexRetagged(Note previousNote, Note note) {
+        indexes.get(note.getTenantId()).retag(previousNote, note);
+    }
+
+    protected final void indexRemoved(Note note) {
+        indexes.get(note.getTenantId()).remove(note);
+    }
+
+    protected static Note copyOf(Note note) {
+        Note copy = new Note(note.getId(), note.getTitle(), note.getText(),
+                note.getTags() == null ? null : new HashSet<>(note.getTags()), note.getCreatedDate());
+        copy.setTenantId(note.getTenantId());
+        copy.setVersion(note.getVersion());
+        copy.setLastModifiedDate(note.getLastModifiedDate());
+        return copy;
+    }
+
+    // Skips and counts index entries, so only the notes of the page are loaded.
+    private Page<Note> page(String tenantId, Set<Constant.Tag> tags, Pageable pageable) {
+        List<Note> content = load(keys(tenantId, tags, null)
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize()), tags)
+                .toList();
+        // The total is only counted when the content does not reveal it.
+        return PageableExecutionUtils.getPage(content, pageable, () -> keys(tenantId, tags, null).count());
+    }
+
+    private Slice<Note> slice(String tenantId, Set<Constant.Tag> tags, NoteCursor after, int size) {
+        Key afterKey = after == null ? null : new Key(after.getCreatedDate(), after.getId());
+        // One note more than requested tells whether there is a next slice.
+        List<Note> content = notes(tenantId, tags, afterKey)
+                .limit(size + 1L)
+                .toList();
+        boolean hasNext = content.size() > size;
+        return new SliceImpl<>(hasNext ? content.subList(0, size) : content, PageRequest.of(0, size), hasNext);
+    }
+
+    /**
+     * Walks the tenant's notes newest first, starting strictly after {@code after} when given. With tags, the
+     * indexes of the requested tags are merged, so only notes having one of them are visited.
+     */
+    private Stream<Note> notes(String tenantId, Set<Constant.Tag> tags, Key after) {
+        return load(keys(tenantId, tags, after), tags);
+    }
+
+    private Stream<Key> keys(String tenantId, Set<Constant.Tag> tags, Key after) {
+        TenantIndex index = indexes.get(tenantId);
+        if (index == null) {
+            return Stream.empty();
+        }
+        Iterator<Key> keys = tags == null || tags.isEmpty()
+                ? tail(index.all, after).iterator()
+                : new MergingIterator(tags.stream().map(tag -> tail(index.byTag.get(tag), after).iterator()).toList());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(keys, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    private Stream<Note> load(Stream<Key> keys, Set<Constant.Tag> tags) {
+        return keys.map(key -> load(key.id()))
+                .filter(note -> note != null && hasAnyTag(note, tags));
+    }
+
+    private static NavigableSet<Key> tail(NavigableSet<Key> keys, Key after) {
+        return after == null ? keys : keys.tailSet(after, false);
+    }
+
+    private static boolean hasAnyTag(Note note, Set<Constant.Tag> tags) {
+        return tags == null || tags.isEmpty()
+                || note.getTags() != null && note.getTags().stream().anyMatch(tags::contains);
+    }
+
+    private static Stream<String> words(String text) {
+        return text == null ? Stream.empty() : WORD_SEPARATOR.splitAsStream(text.toLowerCase(Locale.ROOT))
+                .filter(word -> !word.isEmpty());
+    }
+
+    private static int occurrences(String text, Set<String> words) {
+        return (int) words(text).filter(words::contains).count();
+    }
+
+    private static ScoredNote scoredNoteOf(Note note, int score) {
+        ScoredNote scoredNote = new ScoredNote();
+        scoredNote.setId(note.getId());
+        scoredNote.setTitle(note.getTitle());
+        scoredNote.setTags(note.getTags() == null ? null : new HashSet<>(note.getTags()));
+        scoredNote.setCreatedDate(note.getCreatedDate());
+        scoredNote.setScore((float) score);
+        return scoredNote;
+    }
+
+    private static NoteSummaryView summaryOf(Note note) {
+        return new Summary(note.getId(), note.getTitle(), note.getCreatedDate());
+    }
+
+    private record Key(LocalDateTime createdDate, UUID id) {
+
+        static Key of(Note note) {
+            return new Key(note.getCreatedDate(), note.getId());
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static final class Summary implements NoteSummaryView {
+        private final UUID id;
+        private final String title;
+        private final LocalDateTime createdDate;
+    }
+
+    /**
+     * Index entries of one tenant. The tag map is filled once, so it is read without locking.
+     */
+    private static final class TenantIndex {
+        private final NavigableSet<Key> all = new ConcurrentSkipListSet<>(NEWEST_FIRST);
+        private final Map<Constant.Tag, NavigableSet<Key>> byTag = new EnumMap<>(Constant.Tag.class);
+
+        TenantIndex() {
+            for (Constant.Tag tag : Constant.Tag.values()) {
+                byTag.put(tag, new ConcurrentSkipListSet<>(NEWEST_FIRST));
+            }
+        }
+
+        void add(Note note) {
+            Key key = Key.of(note);
+            all.add(key);
+            tagsOf(note).forEach(tag -> byTag.get(tag).add(key));
+        }
+
+        void remove(Note note) {
+            Key key = Key.of(note);
+            tagsOf(note).forEach(tag -> byTag.get(tag).remove(key));
+            all.remove(key);
+        }
+
+        // The creation date never changes, so only the entries of added and removed tags are touched.
+        void retag(Note previousNote, Note note) {
+            Key key = Key.of(note);
+            Set<Constant.Tag> previousTags = tagsOf(previousNote);
+            Set<Constant.Tag> tags = tagsOf(note);
+            tags.stream().filter(tag -> !previousTags.contains(tag)).forEach(tag -> byTag.get(tag).add(key));
+            previousTags.stream().filter(tag -> !tags.contains(tag)).forEach(tag -> byTag.get(tag).remove(key));
+        }
+
+        private static Set<Constant.Tag> tagsOf(Note note) {
+            return note.getTags() == null ? Set.of() : note.getTags();
+        }
+    }
+
+    /**
+     * Merges iterators over differently tagged indexes of one tenant into a single newest first iteration, yielding
+     * a note having several of the tags once.
+     */
+    private static final class MergingIterator implements Iterator<Key> {
+        private final List<Iterator<Key>> iterators;
+        private final Key[] heads;
+
+        MergingIterator(List<Iterator<Key>> iterators) {
+            this.iterators = iterators;
+            this.heads = new Key[iterators.size()];
+            for (int i = 0; i < heads.length; i++) {
+                advance(i);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return Arrays.stream(heads).anyMatch(Objects::nonNull);
+        }
+
+        @Override
+        public Key next() {
+            Key next = null;
+            for (Key head : heads) {
+                if (head != null && (next == null || NEWEST_FIRST.compare(head, next) < 0)) {
+                    next = head;
+                }
+            }
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            for (int i = 0; i < heads.length; i++) {
+                if (next.equals(heads[i])) {
+                    advance(i);
+                }
+            }
+            return next;
+        }
+
+        private void advance(int i) {
+            heads[i] = iterators.get(i).hasNext() ? iterators.get(i).next() : null;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.teletronics.notesapi.respository;
+
+import com.teletronics.notesapi.model.store.NoteStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * {@link NoteStatsStore} backed by the {@code note_stats} collection through {@link NoteStatsRepository}.
+ */
+@Repository
+@Profile(NoteStore.MONGO_PROFILE)
+public class MongoNoteStatsStore implements NoteStatsStore {
+
+    private final NoteStatsRepository noteStatsRepository;
+
+    @Autowired
+    public MongoNoteStatsStore(NoteStatsRepository noteStatsRepository) {
+        this.noteStatsRepository = noteStatsRepository;
+    }
+
+    @Override
+    public Optional<NoteStats> findById(UUID noteId) {
+        return noteStatsRepository.findById(noteId);
+    }
+
+    @Override
+    public List<NoteStats> findAllById(Collection<UUID> noteIds) {
+        return noteStatsRepository.findAllById(noteIds);
+    }
+
+    @Override
+    public void save(NoteStats noteStats) {
+        noteStatsRepository.save(noteStats);
+    }
+
+    @Override
+    public void saveAll(List<NoteStats> noteStats) {
+        noteStatsRepository.saveAll(noteStats);
+    }
+
+    @Override
+    public void insertAll(List<NoteStats> noteStats) {
+        noteStatsRepository.insert(noteStats);
+    }
+
+    @Override
+    public void deleteById(UUID noteId) {
+        noteStatsRepository.deleteById(noteId);
+    }
+
+    @Override
+    public void deleteAllById(Collection<UUID> noteIds) {
+        noteStatsRepository.deleteAllById(noteIds);
+    }
+}
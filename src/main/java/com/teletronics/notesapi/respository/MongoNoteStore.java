@@ -0,0 +1,173 @@
+package com.teletronics.notesapi.respository;
+
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.NoteCursor;
+import com.teletronics.notesapi.model.store.Note;
+import com.teletronics.notesapi.model.store.NoteChanges;
+import com.teletronics.notesapi.model.store.NoteSummaryView;
+import com.teletronics.notesapi.model.store.ScoredNote;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * {@link NoteStore} backed by the {@code notes} collection through {@link NoteRepository}, and by the
+ * {@code note_changes} collection for change tokens.
+ */
+@Repository
+@Profile(NoteStore.MONGO_PROFILE)
+public class MongoNoteStore implements NoteStore {
+    // Pages sort on createdDate alone, so tag filtered pages are served by the (tenantId, tags, createdDate) index.
+    private static final Sort PAGE_SORT = Sort.by("createdDate").descending();
+    private static final Sort KEYSET_SORT = Sort.by(Sort.Order.desc("createdDate"), Sort.Order.desc("id"));
+
+    private final NoteRepository noteRepository;
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public MongoNoteStore(NoteRepository noteRepository, MongoTemplate mongoTemplate) {
+        this.noteRepository = noteRepository;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Note insert(Note note) {
+        return noteRepository.insert(note);
+    }
+
+    @Override
+    public Optional<Note> findById(String tenantId, UUID id) {
+        return noteRepository.findByTenantIdAndId(tenantId, id);
+    }
+
+    @Override
+    public boolean existsById(String tenantId, UUID id) {
+        return noteRepository.existsByTenantIdAndId(tenantId, id);
+    }
+
+    @Override
+    public Page<Note> findPage(String tenantId, Set<Constant.Tag> tags, Pageable pageable) {
+        Pageable sorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), PAGE_SORT);
+        return hasTags(tags)
+                ? noteRepository.findByTenantIdAndTagsIn(tenantId, tags, sorted)
+                : noteRepository.findByTenantId(tenantId, sorted);
+    }
+
+    @Override
+    public Page<NoteSummaryView> findSummaryPage(String tenantId, Set<Constant.Tag> tags, Pageable pageable) {
+        Pageable sorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), PAGE_SORT);
+        return hasTags(tags)
+                ? noteRepository.findSummariesByTenantIdAndTagsIn(tenantId, tags, sorted)
+                : noteRepository.findSummariesByTenantId(tenantId, sorted);
+    }
+
+    @Override
+    public Slice<Note> findSlice(String tenantId, Set<Constant.Tag> tags, NoteCursor after, int size) {
+        Pageable pageable = PageRequest.of(0, size, KEYSET_SORT);
+        if (after == null) {
+            return hasTags(tags)
+                    ? noteRepository.findAllByTenantIdAndTagsIn(tenantId, tags, pageable)
+                    : noteRepository.findAllByTenantId(tenantId, pageable);
+        }
+        return hasTags(tags)
+                ? noteRepository.findAllByTagsInAfter(tenantId, tags, after.getCreatedDate(), after.getId(), pageable)
+                : noteRepository.findAllAfter(tenantId, after.getCreatedDate(), after.getId(), pageable);
+    }
+
+    @Override
+    public Slice<NoteSummaryView> findSummarySlice(String tenantId, Set<Constant.Tag> tags, NoteCursor after, int size) {
+        Pageable pageable = PageRequest.of(0, size, KEYSET_SORT);
+        if (after == null) {
+            return hasTags(tags)
+                    ? noteRepository.findSummarySliceByTenantIdAndTagsIn(tenantId, tags, pageable)
+                    : noteRepository.findSummarySliceByTenantId(tenantId, pageable);
+        }
+        return hasTags(tags)
+                ? noteRepository.findSummariesByTagsInAfter(tenantId, tags, after.getCreatedDate(), after.getId(), pageable)
+                : noteRepository.findSummariesAfter(tenantId, after.getCreatedDate(), after.getId(), pageable);
+    }
+
+    @Override
+    public List<ScoredNote> search(String tenantId, String terms, Set<Constant.Tag> tags, Pageable pageable) {
+        return noteRepository.search(tenantId, terms, tags, pageable);
+    }
+
+    @Override
+    public Optional<Note> findAndUpdateContent(String tenantId, UUID id, Long expectedVersion, String title, String text,
+                                               Set<Constant.Tag> tags, Instant lastModifiedDate) {
+        return noteRepository.findAndUpdateContent(tenantId, id, expectedVersion, title, text, tags, lastModifiedDate);
+    }
+
+    @Override
+    public Optional<Note> findAndRemove(String tenantId, UUID id) {
+        return noteRepository.findAndRemove(tenantId, id);
+    }
+
+    @Override
+    public Map<Integer, String> insertAllUnordered(List<Note> notes, int chunkSize) {
+        return noteRepository.insertAllUnordered(notes, chunkSize);
+    }
+
+    @Override
+    public BulkInsertResult insertAllIdempotent(List<Note> notes, int chunkSize) {
+        return noteRepository.insertAllIdempotent(notes, chunkSize);
+    }
+
+    @Override
+    public Map<UUID, Set<Constant.Tag>> setTags(String tenantId, Collection<UUID> ids, Set<Constant.Tag> tags) {
+        return noteRepository.setTags(tenantId, ids, tags);
+    }
+
+    @Override
+    public Map<UUID, Set<Constant.Tag>> removeAllById(String tenantId, Collection<UUID> ids) {
+        return noteRepository.removeAllById(tenantId, ids);
+    }
+
+    @Override
+    public Stream<Note> streamAll(String tenantId, Set<Constant.Tag> tags, LocalDateTime from, LocalDateTime to, int batchSize) {
+        return noteRepository.streamAll(tenantId, tags, from, to, batchSize);
+    }
+
+    @Override
+    public Map<String, Map<Constant.Tag, Long>> countByTag() {
+        return noteRepository.countByTag();
+    }
+
+    @Override
+    public void recordChange(String tenantId) {
+        mongoTemplate.upsert(tokenOf(tenantId), new Update().inc("sequence", 1).max("modifiedDate", Instant.now()), NoteChanges.class);
+    }
+
+    @Override
+    public NoteChanges currentChanges(String tenantId) {
+        NoteChanges changes = mongoTemplate.findOne(tokenOf(tenantId), NoteChanges.class);
+        return changes != null ? changes : new NoteChanges();
+    }
+
+    private static boolean hasTags(Set<Constant.Tag> tags) {
+        return tags != null && !tags.isEmpty();
+    }
+
+    private static Query tokenOf(String tenantId) {
+        return Query.query(Criteria.where("_id").is(tenantId));
+    }
+}
@@ -0,0 +1,199 @@
+package com.teletronics.notesapi.respository;
+
+import com.teletronics.notesapi.model.store.Note;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Verifies the indexes declared on {@link Note} against the live collection and creates any that are missing.
+ * Spring Data's own auto index creation is left disabled: it runs synchronously during context startup and
+ * builds in the foreground, which blocks writes on a large collection.
+ * <p>
+ * An existing index is matched by name and then compared by keys and options, so one left over from an older
+ * declaration is not taken as up to date. A mismatched index is reported, or dropped and rebuilt when
+ * {@code notes.indexes.recreate-mismatched} is set; queries may fall back to collection scans while it rebuilds.
+ */
+@Slf4j
+@Component
+public class NoteIndexManager {
+
+    public enum Status {
+        PENDING,
+        RECONCILING,
+        UP_TO_DATE,
+        MISMATCHED,
+        FAILED
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean reconcileOnStartup;
+    private final long backgroundThreshold;
+    private final boolean recreateMismatched;
+
+    @Getter
+    private volatile Status status = Status.PENDING;
+    @Getter
+    private volatile List<String> verifiedIndexes = List.of();
+    @Getter
+    private volatile List<String> createdIndexes = List.of();
+    @Getter
+    private volatile List<String> mismatchedIndexes = List.of();
+    @Getter
+    private volatile List<String> recreatedIndexes = List.of();
+    @Getter
+    private volatile String lastError;
+
+    @Autowired
+    public NoteIndexManager(MongoTemplate mongoTemplate,
+                            @Value("${notes.indexes.reconcile-on-startup:true}") boolean reconcileOnStartup,
+                            @Value("${notes.indexes.background-threshold:100000}") long backgroundThreshold,
+                            @Value("${notes.indexes.recreate-mismatched:false}") boolean recreateMismatched) {
+        this.mongoTemplate = mongoTemplate;
+        this.reconcileOnStartup = reconcileOnStartup;
+        this.backgroundThreshold = backgroundThreshold;
+        this.recreateMismatched = recreateMismatched;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileAfterStartup() {
+        if (!reconcileOnStartup) {
+            return;
+        }
+        Thread reconciler = new Thread(this::reconcile, "note-index-reconciler");
+        reconciler.setDaemon(true);
+        reconciler.start();
+    }
+
+    public synchronized void reconcile() {
+        status = Status.RECONCILING;
+        try {
+            IndexOperations indexOperations = mongoTemplate.indexOps(Note.class);
+            Map<String, Document> existingIndexes = listIndexes().stream()
+                    .collect(Collectors.toMap(index -> index.getString("name"), Function.identity()));
+            boolean background = mongoTemplate.estimatedCount(Note.class) >= backgroundThreshold;
+
+            List<String> verified = new ArrayList<>();
+            List<String> created = new ArrayList<>();
+            List<String> mismatched = new ArrayList<>();
+            List<String> recreated = new ArrayList<>();
+            MongoPersistentEntityIndexResolver resolver =
+                    new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+            for (IndexDefinition definition : resolver.resolveIndexFor(Note.class)) {
+                String name = definition.getIndexOptions().getString("name");
+                Document existing = existingIndexes.get(name);
+                if (existing == null) {
+                    log.info("Creating missing index {} on notes (background={})", name, background);
+                    indexOperations.ensureIndex(background ? inBackground(definition) : definition);
+                    created.add(name);
+                } else if (matches(definition, existing)) {
+                    verified.add(name);
+                } else if (recreateMismatched) {
+                    log.warn("Recreating index {} on notes (background={}): found {}, declared keys {} and options {}",
+                            name, background, existing, definition.getIndexKeys(), definition.getIndexOptions());
+                    indexOperations.dropIndex(name);
+                    indexOperations.ensureIndex(background ? inBackground(definition) : definition);
+                    recreated.add(name);
+                } else {
+                    log.warn("Index {} on notes does not match its declaration: found {}, declared keys {} and options {}",
+                            name, existing, definition.getIndexKeys(), definition.getIndexOptions());
+                    mismatched.add(name);
+                }
+            }
+
+            verifiedIndexes = List.copyOf(verified);
+            createdIndexes = List.copyOf(created);
+            mismatchedIndexes = List.copyOf(mismatched);
+            recreatedIndexes = List.copyOf(recreated);
+            lastError = null;
+            status = mismatched.isEmpty() ? Status.UP_TO_DATE : Status.MISMATCHED;
+        } catch (RuntimeException ex) {
+            log.warn("Index reconciliation for notes failed", ex);
+            lastError = ex.getMessage();
+            status = Status.FAILED;
+        }
+    }
+
+    private List<Document> listIndexes() {
+        return mongoTemplate.execute(Note.class, collection -> collection.listIndexes().into(new ArrayList<>()));
+    }
+
+    static boolean matches(IndexDefinition definition, Document existing) {
+        Document options = definition.getIndexOptions();
+        return sameKeys(definition, existing)
+                && options.getBoolean("unique", false) == existing.getBoolean("unique", false)
+                && options.getBoolean("sparse", false) == existing.getBoolean("sparse", false)
+                && Objects.equals(options.get("partialFilterExpression"), existing.get("partialFilterExpression"))
+                && sameNumber(options.get("expireAfterSeconds"), existing.get("expireAfterSeconds"));
+    }
+
+    // The server stores a text index under the keys _fts and _ftsx, with its fields and weights under "weights".
+    private static boolean sameKeys(IndexDefinition definition, Document existing) {
+        Document declared = new Document();
+        Map<String, Object> declaredWeights = new LinkedHashMap<>();
+        Document weightOptions = definition.getIndexOptions().get("weights", new Document());
+        definition.getIndexKeys().forEach((field, direction) -> {
+            if ("text".equals(direction)) {
+                declaredWeights.put(field, weightOptions.getOrDefault(field, 1));
+                declared.putIfAbsent("_fts", "text");
+                declared.putIfAbsent("_ftsx", 1);
+            } else {
+                declared.put(field, direction);
+            }
+        });
+        return sameEntries(declared, existing.get("key", new Document()), true)
+                && sameEntries(declaredWeights, existing.get("weights", new Document()), false);
+    }
+
+    private static boolean sameEntries(Map<String, Object> declared, Map<String, Object> existing, boolean ordered) {
+        if (declared.size() != existing.size()) {
+            return false;
+        }
+        if (ordered && !List.copyOf(declared.keySet()).equals(List.copyOf(existing.keySet()))) {
+            return false;
+        }
+        return declared.entrySet().stream()
+                .allMatch(entry -> sameNumber(entry.getValue(), existing.get(entry.getKey())));
+    }
+
+    // Key directions and weights come back as int, long or double depending on how the index was created.
+    private static boolean sameNumber(Object declared, Object existing) {
+        if (declared instanceof Number a && existing instanceof Number b) {
+            return a.doubleValue() == b.doubleValue();
+        }
+        return Objects.equals(declared, existing);
+    }
+
+    private static IndexDefinition inBackground(IndexDefinition definition) {
+        Document options = new Document(definition.getIndexOptions());
+        options.put("background", true);
+        return new IndexDefinition() {
+            @Override
+            public Document getIndexKeys() {
+                return definition.getIndexKeys();
+            }
+
+            @Override
+            public Document getIndexOptions() {
+                return options;
+            }
+        };
+    }
+}
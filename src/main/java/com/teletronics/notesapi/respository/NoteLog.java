@@ -0,0 +1,276 @@
+package com.teletronics.notesapi.respository;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.VarHandle;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of note records in memory-mapped segment files of a fixed size, used by
+ * {@link AppendLogNoteStore}. Each record is
+ * <pre>
+ * int length | int crc32c | byte type | long idMostSigBits | long idLeastSigBits | byte[] payload
+ * </pre>
+ * where {@code length} covers the whole record, so it is never zero. Segments are zero-filled when created and a record's checksum is written last, so a record cut short by a crash
+ * fails its checksum; replay stops there, clears it and later appends overwrite it. Writes to the
+ * mapping belong to the operating system as soon as they are made, so a killed process loses nothing; surviving a
+ * power loss as well takes {@code syncOnWrite}, which forces every record to disk before the append returns.
+ */
+@Slf4j
+final class NoteLog implements Closeable {
+    static final byte PUT = 1;
+    static final byte DELETE = 2;
+
+    private static final int HEADER_SIZE = 4 + 4 + 1 + 8 + 8;
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean syncOnWrite;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private volatile Segment active;
+    private int writePosition;
+
+    NoteLog(Path directory, int segmentSize, boolean syncOnWrite) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        this.syncOnWrite = syncOnWrite;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList()) {
+                segments.add(Segment.open(file));
+            }
+        }
+        if (segments.isEmpty()) {
+            segments.add(Segment.create(directory, 1, segmentSize));
+        }
+        active = segments.get(segments.size() - 1);
+    }
+
+    /**
+     * Reads every intact record, oldest first, and positions appends after the last one. Must be called once,
+     * before the first append.
+     */
+    void replay(Consumer<Record> consumer) {
+        for (Segment segment : segments) {
+            int end = scan(segment, consumer);
+            segment.end = end;
+            if (segment == active) {
+                writePosition = end;
+                segment.clearFrom(end);
+            }
+        }
+    }
+
+    /**
+     * Reads the intact records of a sealed segment, oldest first.
+     */
+    void records(Segment segment, Consumer<Record> consumer) {
+        scan(segment, consumer);
+    }
+
+    Location append(byte type, UUID id, byte[] payload) {
+        int length = HEADER_SIZE + payload.length;
+        appendLock.lock();
+        try {
+            if (writePosition + length > active.buffer.capacity()) {
+                roll(length);
+            }
+            int offset = writePosition;
+            MappedByteBuffer buffer = active.buffer;
+            buffer.putInt(offset, length);
+            buffer.put(offset + 8, type);
+            buffer.putLong(offset + 9, id.getMostSignificantBits());
+            buffer.putLong(offset + 17, id.getLeastSignificantBits());
+            buffer.put(offset + HEADER_SIZE, payload);
+            // The checksum completes the record, so it must not reach memory before the rest of it.
+            VarHandle.storeStoreFence();
+            buffer.putInt(offset + 4, checksum(buffer, offset, length));
+            if (syncOnWrite) {
+                buffer.force(offset, length);
+            }
+            writePosition += length;
+            active.end = writePosition;
+            return new Location(active, offset, length);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    byte[] read(Location location) {
+        byte[] payload = new byte[location.length() - HEADER_SIZE];
+        location.segment().buffer.get(location.offset() + HEADER_SIZE, payload);
+        return payload;
+    }
+
+    /**
+     * @return every segment but the one appended to, oldest first
+     */
+    List<Segment> sealedSegments() {
+        List<Segment> sealed = new ArrayList<>(segments);
+        sealed.remove(active);
+        return sealed;
+    }
+
+    /**
+     * @return whether a segment other than {@code excluded} with an id in {@code [fromId, toId)} still exists
+     */
+    boolean hasSegmentBetween(long fromId, long toId, Segment excluded) {
+        for (Segment segment : segments) {
+            if (segment != excluded && segment.id >= fromId && segment.id < toId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Deletes a sealed segment whose live records were appended again. Its mapping stays readable until no
+     * {@link Location} refers to it any more.
+     */
+    void delete(Segment segment) throws IOException {
+        segments.remove(segment);
+        segment.channel.close();
+        Files.deleteIfExists(segment.path);
+    }
+
+    void force() {
+        appendLock.lock();
+        try {
+            active.buffer.force();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        for (Segment segment : segments) {
+            segment.channel.close();
+        }
+    }
+
+    private void roll(int length) {
+        try {
+            active.buffer.force();
+            active = Segment.create(directory, active.id + 1, Math.max(segmentSize, length));
+            segments.add(active);
+            writePosition = 0;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to create a log segment", ex);
+        }
+    }
+
+    private static int scan(Segment segment, Consumer<Record> consumer) {
+        MappedByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position + HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length == 0) {
+                break;
+            }
+            if (length < HEADER_SIZE || position + length > buffer.capacity()
+                    || buffer.getInt(position + 4) != checksum(buffer, position, length)) {
+                log.warn("Ignoring the records of {} from offset {} on: checksum mismatch", segment.path, position);
+                break;
+            }
+            UUID id = new UUID(buffer.getLong(position + 9), buffer.getLong(position + 17));
+            consumer.accept(new Record(buffer.get(position + 8), id, new Location(segment, position, length)));
+            position += length;
+        }
+        return position;
+    }
+
+    // Covers the type, id and payload; the length is implied, since a wrong one fails the checksum.
+    private static int checksum(MappedByteBuffer buffer, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset + 8, length - 8));
+        return (int) crc.getValue();
+    }
+
+    record Location(Segment segment, int offset, int length) {
+    }
+
+    record Record(byte type, UUID id, Location location) {
+    }
+
+    static final class Segment {
+        private final long id;
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        // Bytes of the records that are the current version of a note or a tombstone still needed on replay; the rest
+        // can be compacted away.
+        final AtomicLong liveBytes = new AtomicLong();
+        volatile int end;
+
+        private Segment(long id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment open(Path path) throws IOException {
+            String name = path.getFileName().toString();
+            long id = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(id, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+        }
+
+        static Segment create(Path directory, long id, int size) throws IOException {
+            Path path = directory.resolve(String.format("%020d%s", id, SEGMENT_SUFFIX));
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            // Mapping past the end of the file extends it with zeros.
+            return new Segment(id, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        long id() {
+            return id;
+        }
+
+        @Override
+        public String toString() {
+            return path.toString();
+        }
+
+        /**
+         * @return the share of the written bytes that no longer holds the current version of a note
+         */
+        double garbageRatio() {
+            return end == 0 ? 0 : 1 - (double) liveBytes.get() / end;
+        }
+
+        // Zeroes a record a crash interrupted after the last intact one, so that once shorter records are appended
+        // over it, its remains cannot be read as the start of another record. Its length is always written first.
+        private void clearFrom(int position) {
+            if (position + 4 > buffer.capacity() || buffer.getInt(position) == 0) {
+                return;
+            }
+            int length = buffer.getInt(position);
+            int end = length < HEADER_SIZE || position + length > buffer.capacity() ? buffer.capacity() : position + length;
+            log.warn("Clearing an interrupted write of {} bytes at offset {} of {}", end - position, position, path);
+            for (int i = position; i < end; i++) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+    }
+}
@@ -2,14 +2,57 @@ package com.teletronics.notesapi.respository;
 
 import com.teletronics.notesapi.model.Constant;
 import com.teletronics.notesapi.model.store.Note;
+import com.teletronics.notesapi.model.store.NoteSummaryView;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
+import java.time.LocalDateTime;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 
-public interface NoteRepository extends MongoRepository<Note, UUID> {
-    Page<Note> findByTagsIn(Set<Constant.Tag> tags, Pageable pageable);
+/**
+ * Every query is scoped to one tenant, whose id leads both the compound indexes and the shard key, so a query is
+ * routed to the shards owning that tenant's notes rather than broadcast to all of them.
+ */
+public interface NoteRepository extends MongoRepository<Note, UUID>, NoteRepositoryCustom {
+    String SUMMARY_FIELDS = "{ 'title': 1, 'createdDate': 1 }";
+    String AFTER_CURSOR = "'tenantId': ?0, $or: [ { 'createdDate': { $lt: ?1 } }, { 'createdDate': ?1, '_id': { $lt: ?2 } } ]";
+    String TAGS_IN_AFTER_CURSOR = "'tenantId': ?0, 'tags': { $in: ?1 }, $or: [ { 'createdDate': { $lt: ?2 } }, { 'createdDate': ?2, '_id': { $lt: ?3 } } ]";
 
+    Optional<Note> findByTenantIdAndId(String tenantId, UUID id);
+
+    boolean existsByTenantIdAndId(String tenantId, UUID id);
+
+    Page<Note> findByTenantIdAndTagsIn(String tenantId, Set<Constant.Tag> tags, Pageable pageable);
+
+    Page<Note> findByTenantId(String tenantId, Pageable pageable);
+
+    Page<NoteSummaryView> findSummariesByTenantId(String tenantId, Pageable pageable);
+
+    Page<NoteSummaryView> findSummariesByTenantIdAndTagsIn(String tenantId, Set<Constant.Tag> tags, Pageable pageable);
+
+    // Keyset pagination: slices never issue a count and always seek from the (tenantId, createdDate, _id) index.
+    Slice<Note> findAllByTenantId(String tenantId, Pageable pageable);
+
+    Slice<Note> findAllByTenantIdAndTagsIn(String tenantId, Set<Constant.Tag> tags, Pageable pageable);
+
+    @Query("{ " + AFTER_CURSOR + " }")
+    Slice<Note> findAllAfter(String tenantId, LocalDateTime createdDate, UUID id, Pageable pageable);
+
+    @Query("{ " + TAGS_IN_AFTER_CURSOR + " }")
+    Slice<Note> findAllByTagsInAfter(String tenantId, Set<Constant.Tag> tags, LocalDateTime createdDate, UUID id, Pageable pageable);
+
+    Slice<NoteSummaryView> findSummarySliceByTenantId(String tenantId, Pageable pageable);
+
+    Slice<NoteSummaryView> findSummarySliceByTenantIdAndTagsIn(String tenantId, Set<Constant.Tag> tags, Pageable pageable);
+
+    @Query(value = "{ " + AFTER_CURSOR + " }", fields = SUMMARY_FIELDS)
+    Slice<NoteSummaryView> findSummariesAfter(String tenantId, LocalDateTime createdDate, UUID id, Pageable pageable);
+
+    @Query(value = "{ " + TAGS_IN_AFTER_CURSOR + " }", fields = SUMMARY_FIELDS)
+    Slice<NoteSummaryView> findSummariesByTagsInAfter(String tenantId, Set<Constant.Tag> tags, LocalDateTime createdDate, UUID id, Pageable pageable);
 }
@@ -0,0 +1,86 @@
+package com.teletronics.notesapi.respository;
+
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.store.Note;
+import com.teletronics.notesapi.model.store.ScoredNote;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Bulk write operations of {@link NoteRepository}. Writes are sent as unordered bulk operations of at most
+ * {@code chunkSize} documents, so one failing document does not stop the rest of its chunk. Like the derived
+ * queries, every operation taking a {@code tenantId} only sees that tenant's notes.
+ */
+public interface NoteRepositoryCustom {
+
+    /**
+     * Streams the notes matching the optional tags and {@code [from, to)} creation range, newest first, from a
+     * cursor fetching {@code batchSize} documents per round-trip. The stream must be closed to release the cursor.
+     */
+    Stream<Note> streamAll(String tenantId, Set<Constant.Tag> tags, LocalDateTime from, LocalDateTime to, int batchSize);
+
+    /**
+     * Searches title and text through the text index, most relevant first, optionally restricted to notes
+     * having any of the given tags.
+     */
+    List<ScoredNote> search(String tenantId, String terms, Set<Constant.Tag> tags, Pageable pageable);
+
+    /**
+     * Atomically sets the editable fields and last modified date of a note and increments its version.
+     *
+     * @param expectedVersion the version the note must still have, or {@code null} to update unconditionally
+     * @return the note as it was before the update, or empty when no note has that id and version
+     */
+    Optional<Note> findAndUpdateContent(String tenantId, UUID id, Long expectedVersion, String title, String text,
+                                        Set<Constant.Tag> tags, Instant lastModifiedDate);
+
+    /**
+     * Deletes a note in one round-trip.
+     *
+     * @return the id and tags of the deleted note, or empty when there was none
+     */
+    Optional<Note> findAndRemove(String tenantId, UUID id);
+
+    /**
+     * Counts notes per tenant and tag with an {@code $unwind}/{@code $group} aggregation. Tags without notes are
+     * absent.
+     */
+    Map<String, Map<Constant.Tag, Long>> countByTag();
+
+    /**
+     * @return the error message of every note that could not be inserted, keyed by its position in {@code notes}
+     */
+    Map<Integer, String> insertAllUnordered(List<Note> notes, int chunkSize);
+
+    /**
+     * Like {@link #insertAllUnordered}, but reports notes whose id already exists as duplicates rather than
+     * failures, so re-inserting notes with deterministic ids is safe.
+     */
+    BulkInsertResult insertAllIdempotent(List<Note> notes, int chunkSize);
+
+    /**
+     * Replaces the tags of the notes with one {@code findAndModify} per note rather than a bulk write, so the notes
+     * changed and their previous tags come from the writes themselves. A note retagged or deleted concurrently is
+     * then reported by exactly the writers that changed it.
+     *
+     * @return the previous tags of every note that was updated, keyed by its id; notes without tags map to an
+     * empty set
+     */
+    Map<UUID, Set<Constant.Tag>> setTags(String tenantId, Collection<UUID> ids, Set<Constant.Tag> tags);
+
+    /**
+     * Deletes the notes with one {@code findAndRemove} per note, for the same reason as {@link #setTags}.
+     *
+     * @return the tags of every note that was deleted, keyed by its id
+     */
+    Map<UUID, Set<Constant.Tag>> removeAllById(String tenantId, Collection<UUID> ids);
+}
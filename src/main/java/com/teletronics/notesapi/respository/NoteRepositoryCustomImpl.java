@@ -0,0 +1,184 @@
+package com.teletronics.notesapi.respository;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.store.Note;
+import com.teletronics.notesapi.model.store.ScoredNote;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+public class NoteRepositoryCustomImpl implements NoteRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public NoteRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Stream<Note> streamAll(String tenantId, Set<Constant.Tag> tags, LocalDateTime from, LocalDateTime to, int batchSize) {
+        Query query = Query.query(Criteria.where("tenantId").is(tenantId))
+                .with(Sort.by(Sort.Order.desc("createdDate"), Sort.Order.desc("id")))
+                .cursorBatchSize(batchSize);
+        if (tags != null && !tags.isEmpty()) {
+            query.addCriteria(Criteria.where("tags").in(tags));
+        }
+        if (from != null || to != null) {
+            Criteria createdDate = Criteria.where("createdDate");
+            if (from != null) {
+                createdDate.gte(from);
+            }
+            if (to != null) {
+                createdDate.lt(to);
+            }
+            query.addCriteria(createdDate);
+        }
+        return mongoTemplate.stream(query, Note.class);
+    }
+
+    @Override
+    public List<ScoredNote> search(String tenantId, String terms, Set<Constant.Tag> tags, Pageable pageable) {
+        Query query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(terms))
+                .sortByScore()
+                .with(Sort.by(Sort.Order.desc("createdDate")))
+                .with(pageable)
+                .addCriteria(Criteria.where("tenantId").is(tenantId));
+        if (tags != null && !tags.isEmpty()) {
+            query.addCriteria(Criteria.where("tags").in(tags));
+        }
+        query.fields().include("title", "tags", "createdDate");
+        return mongoTemplate.find(query, ScoredNote.class, mongoTemplate.getCollectionName(Note.class));
+    }
+
+    @Override
+    public Optional<Note> findAndUpdateContent(String tenantId, UUID id, Long expectedVersion, String title, String text,
+                                               Set<Constant.Tag> tags, Instant lastModifiedDate) {
+        Criteria criteria = Criteria.where("tenantId").is(tenantId).and("_id").is(id);
+        if (expectedVersion != null) {
+            criteria.and("version").is(expectedVersion);
+        }
+        Update update = new Update()
+                .set("title", title)
+                .set("text", text)
+                .set("tags", tags)
+                .set("lastModifiedDate", lastModifiedDate)
+                .inc("version", 1);
+        return Optional.ofNullable(mongoTemplate.findAndModify(Query.query(criteria), update, Note.class));
+    }
+
+    @Override
+    public Optional<Note> findAndRemove(String tenantId, UUID id) {
+        Query query = Query.query(Criteria.where("tenantId").is(tenantId).and("_id").is(id));
+        query.fields().include("tags");
+        return Optional.ofNullable(mongoTemplate.findAndRemove(query, Note.class));
+    }
+
+    @Override
+    public Map<String, Map<Constant.Tag, Long>> countByTag() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.unwind("tags"),
+                Aggregation.group("tenantId", "tags").count().as("count"));
+        Map<String, Map<Constant.Tag, Long>> counts = new HashMap<>();
+        mongoTemplate.aggregate(aggregation, Note.class, Document.class).forEach(result -> {
+            Document group = result.get("_id", Document.class);
+            counts.computeIfAbsent(group.getString("tenantId"), tenantId -> new EnumMap<>(Constant.Tag.class))
+                    .put(Constant.Tag.valueOf(group.getString("tags")), ((Number) result.get("count")).longValue());
+        });
+        return counts;
+    }
+
+    @Override
+    public Map<Integer, String> insertAllUnordered(List<Note> notes, int chunkSize) {
+        Map<Integer, String> failures = new HashMap<>();
+        bulkInsert(notes, chunkSize).forEach((index, error) -> failures.put(index, error.getMessage()));
+        return failures;
+    }
+
+    @Override
+    public BulkInsertResult insertAllIdempotent(List<Note> notes, int chunkSize) {
+        Set<Integer> duplicates = new HashSet<>();
+        Map<Integer, String> failures = new HashMap<>();
+        bulkInsert(notes, chunkSize).forEach((index, error) -> {
+            if (ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY) {
+                duplicates.add(index);
+            } else {
+                failures.put(index, error.getMessage());
+            }
+        });
+        return new BulkInsertResult(duplicates, failures);
+    }
+
+    @Override
+    public Map<UUID, Set<Constant.Tag>> setTags(String tenantId, Collection<UUID> ids, Set<Constant.Tag> tags) {
+        Update update = new Update()
+                .set("tags", tags)
+                .set("lastModifiedDate", Instant.now())
+                .inc("version", 1);
+        Map<UUID, Set<Constant.Tag>> previousTags = new HashMap<>();
+        for (UUID id : new LinkedHashSet<>(ids)) {
+            Note previous = mongoTemplate.findAndModify(tagsQuery(tenantId, id), update, Note.class);
+            if (previous != null) {
+                previousTags.put(id, previous.getTags() == null ? Set.of() : previous.getTags());
+            }
+        }
+        return previousTags;
+    }
+
+    @Override
+    public Map<UUID, Set<Constant.Tag>> removeAllById(String tenantId, Collection<UUID> ids) {
+        Map<UUID, Set<Constant.Tag>> removedTags = new HashMap<>();
+        for (UUID id : new LinkedHashSet<>(ids)) {
+            Note removed = mongoTemplate.findAndRemove(tagsQuery(tenantId, id), Note.class);
+            if (removed != null) {
+                removedTags.put(id, removed.getTags() == null ? Set.of() : removed.getTags());
+            }
+        }
+        return removedTags;
+    }
+
+    // Carries the shard key, so each write is routed to one shard; only the tags are returned.
+    private static Query tagsQuery(String tenantId, UUID id) {
+        Query query = Query.query(Criteria.where("tenantId").is(tenantId).and("_id").is(id));
+        query.fields().include("tags");
+        return query;
+    }
+
+    private Map<Integer, BulkWriteError> bulkInsert(List<Note> notes, int chunkSize) {
+        // Bulk inserts bypass the version initialization that MongoTemplate.insert performs.
+        notes.stream()
+                .filter(note -> note.getVersion() == null)
+                .forEach(note -> note.setVersion(0L));
+        Map<Integer, BulkWriteError> errors = new HashMap<>();
+        for (int from = 0; from < notes.size(); from += chunkSize) {
+            List<Note> chunk = notes.subList(from, Math.min(from + chunkSize, notes.size()));
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Note.class)
+                        .insert(chunk)
+                        .execute();
+            } catch (BulkOperationException ex) {
+                for (BulkWriteError error : ex.getErrors()) {
+                    errors.put(from + error.getIndex(), error);
+                }
+            }
+        }
+        return errors;
+    }
+}
@@ -0,0 +1,9 @@
+package com.teletronics.notesapi.respository;
+
+import com.teletronics.notesapi.model.store.NoteStats;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.UUID;
+
+public interface NoteStatsRepository extends MongoRepository<NoteStats, UUID> {
+}
@@ -0,0 +1,31 @@
+package com.teletronics.notesapi.respository;
+
+import com.teletronics.notesapi.model.store.NoteStats;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Storage of the word frequency tables of notes, selected by the same profile as the {@link NoteStore}.
+ */
+public interface NoteStatsStore {
+
+    Optional<NoteStats> findById(UUID noteId);
+
+    List<NoteStats> findAllById(Collection<UUID> noteIds);
+
+    void save(NoteStats noteStats);
+
+    void saveAll(List<NoteStats> noteStats);
+
+    /**
+     * Stores tables of notes that have none yet, in one round-trip where the engine allows it.
+     */
+    void insertAll(List<NoteStats> noteStats);
+
+    void deleteById(UUID noteId);
+
+    void deleteAllById(Collection<UUID> noteIds);
+}
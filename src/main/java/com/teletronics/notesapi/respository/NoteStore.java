@@ -0,0 +1,120 @@
+package com.teletronics.notesapi.respository;
+
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.NoteCursor;
+import com.teletronics.notesapi.model.store.Note;
+import com.teletronics.notesapi.model.store.NoteChanges;
+import com.teletronics.notesapi.model.store.NoteSummaryView;
+import com.teletronics.notesapi.model.store.ScoredNote;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Storage engine behind the note operations of the API, from single notes to batches and exports. {@link MongoNoteStore} is used by
+ * default; the {@code in-memory} profile selects {@link InMemoryNoteStore} and the {@code append-log} profile
+ * {@link AppendLogNoteStore} instead. Every operation is scoped to one tenant, listings are ordered newest first, and
+ * a {@code null} or empty set of tags matches every note.
+ */
+public interface NoteStore {
+
+    String IN_MEMORY_PROFILE = "in-memory";
+    String APPEND_LOG_PROFILE = "append-log";
+    // Selects the beans that only work with notes stored in Mongo.
+    String MONGO_PROFILE = "!" + IN_MEMORY_PROFILE + " & !" + APPEND_LOG_PROFILE;
+
+    /**
+     * Stores a new note, initializing its version.
+     *
+     * @throws org.springframework.dao.DuplicateKeyException when a note with that id already exists
+     */
+    Note insert(Note note);
+
+    Optional<Note> findById(String tenantId, UUID id);
+
+    boolean existsById(String tenantId, UUID id);
+
+    Page<Note> findPage(String tenantId, Set<Constant.Tag> tags, Pageable pageable);
+
+    Page<NoteSummaryView> findSummaryPage(String tenantId, Set<Constant.Tag> tags, Pageable pageable);
+
+    /**
+     * Returns up to {@code size} notes positioned strictly after {@code after} in {@code (createdDate, id)}
+     * descending order, or the first notes when {@code after} is {@code null}.
+     */
+    Slice<Note> findSlice(String tenantId, Set<Constant.Tag> tags, NoteCursor after, int size);
+
+    Slice<NoteSummaryView> findSummarySlice(String tenantId, Set<Constant.Tag> tags, NoteCursor after, int size);
+
+    /**
+     * Searches title and text, most relevant first; title matches rank above text matches.
+     */
+    List<ScoredNote> search(String tenantId, String terms, Set<Constant.Tag> tags, Pageable pageable);
+
+    /**
+     * @see NoteRepositoryCustom#findAndUpdateContent
+     */
+    Optional<Note> findAndUpdateContent(String tenantId, UUID id, Long expectedVersion, String title, String text,
+                                        Set<Constant.Tag> tags, Instant lastModifiedDate);
+
+    /**
+     * @see NoteRepositoryCustom#findAndRemove
+     */
+    Optional<Note> findAndRemove(String tenantId, UUID id);
+
+    /**
+     * @see NoteRepositoryCustom#insertAllUnordered
+     */
+    Map<Integer, String> insertAllUnordered(List<Note> notes, int chunkSize);
+
+    /**
+     * @see NoteRepositoryCustom#insertAllIdempotent
+     */
+    BulkInsertResult insertAllIdempotent(List<Note> notes, int chunkSize);
+
+    /**
+     * Replaces the tags of the notes, setting their last modified date and incrementing their version. Each note is
+     * read and written atomically, so only the notes this call changed are returned.
+     *
+     * @return the previous tags of every note updated, keyed by its id
+     * @see NoteRepositoryCustom#setTags
+     */
+    Map<UUID, Set<Constant.Tag>> setTags(String tenantId, Collection<UUID> ids, Set<Constant.Tag> tags);
+
+    /**
+     * @return the tags of every note this call removed, keyed by its id
+     * @see NoteRepositoryCustom#removeAllById
+     */
+    Map<UUID, Set<Constant.Tag>> removeAllById(String tenantId, Collection<UUID> ids);
+
+    /**
+     * @see NoteRepositoryCustom#streamAll
+     */
+    Stream<Note> streamAll(String tenantId, Set<Constant.Tag> tags, LocalDateTime from, LocalDateTime to, int batchSize);
+
+    /**
+     * @see NoteRepositoryCustom#countByTag
+     */
+    Map<String, Map<Constant.Tag, Long>> countByTag();
+
+    /**
+     * Increments the {@link NoteChanges} token of the tenant.
+     */
+    void recordChange(String tenantId);
+
+    /**
+     * @return the current token of the tenant, or a token with its initial sequence and no modified date when
+     * nothing was written yet
+     */
+    NoteChanges currentChanges(String tenantId);
+}
@@ -0,0 +1,48 @@
+package com.teletronics.notesapi.respository;
+
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.store.Note;
+import com.teletronics.notesapi.model.store.NoteSummaryView;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.teletronics.notesapi.respository.NoteRepository.AFTER_CURSOR;
+import static com.teletronics.notesapi.respository.NoteRepository.SUMMARY_FIELDS;
+import static com.teletronics.notesapi.respository.NoteRepository.TAGS_IN_AFTER_CURSOR;
+
+/**
+ * Reactive counterpart of {@link NoteRepository}, used by the {@code reactive} profile.
+ */
+public interface ReactiveNoteRepository extends ReactiveMongoRepository<Note, UUID>, ReactiveNoteRepositoryCustom {
+
+    Mono<Note> findByTenantIdAndId(String tenantId, UUID id);
+
+    Mono<Boolean> existsByTenantIdAndId(String tenantId, UUID id);
+
+    Flux<Note> findAllByTenantId(String tenantId, Pageable pageable);
+
+    Flux<Note> findByTenantIdAndTagsIn(String tenantId, Set<Constant.Tag> tags, Pageable pageable);
+
+    Flux<NoteSummaryView> findSummariesByTenantId(String tenantId, Pageable pageable);
+
+    Flux<NoteSummaryView> findSummariesByTenantIdAndTagsIn(String tenantId, Set<Constant.Tag> tags, Pageable pageable);
+
+    @Query("{ " + AFTER_CURSOR + " }")
+    Flux<Note> findAllAfter(String tenantId, LocalDateTime createdDate, UUID id, Pageable pageable);
+
+    @Query("{ " + TAGS_IN_AFTER_CURSOR + " }")
+    Flux<Note> findAllByTagsInAfter(String tenantId, Set<Constant.Tag> tags, LocalDateTime createdDate, UUID id, Pageable pageable);
+
+    @Query(value = "{ " + AFTER_CURSOR + " }", fields = SUMMARY_FIELDS)
+    Flux<NoteSummaryView> findSummariesAfter(String tenantId, LocalDateTime createdDate, UUID id, Pageable pageable);
+
+    @Query(value = "{ " + TAGS_IN_AFTER_CURSOR + " }", fields = SUMMARY_FIELDS)
+    Flux<NoteSummaryView> findSummariesByTagsInAfter(String tenantId, Set<Constant.Tag> tags, LocalDateTime createdDate, UUID id, Pageable pageable);
+}
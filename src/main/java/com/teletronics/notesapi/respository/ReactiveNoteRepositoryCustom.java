@@ -0,0 +1,27 @@
+package com.teletronics.notesapi.respository;
+
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.store.Note;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Single-round-trip writes of {@link ReactiveNoteRepository}, the reactive counterparts of those in
+ * {@link NoteRepositoryCustom}.
+ */
+public interface ReactiveNoteRepositoryCustom {
+
+    /**
+     * @see NoteRepositoryCustom#findAndUpdateContent
+     */
+    Mono<Note> findAndUpdateContent(String tenantId, UUID id, Long expectedVersion, String title, String text,
+                                    Set<Constant.Tag> tags, Instant lastModifiedDate);
+
+    /**
+     * @see NoteRepositoryCustom#findAndRemove
+     */
+    Mono<Note> findAndRemove(String tenantId, UUID id);
+}
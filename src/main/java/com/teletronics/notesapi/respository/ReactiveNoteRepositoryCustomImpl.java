@@ -0,0 +1,47 @@
+package com.teletronics.notesapi.respository;
+
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.store.Note;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+public class ReactiveNoteRepositoryCustomImpl implements ReactiveNoteRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Autowired
+    public ReactiveNoteRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Mono<Note> findAndUpdateContent(String tenantId, UUID id, Long expectedVersion, String title, String text,
+                                           Set<Constant.Tag> tags, Instant lastModifiedDate) {
+        Criteria criteria = Criteria.where("tenantId").is(tenantId).and("_id").is(id);
+        if (expectedVersion != null) {
+            criteria.and("version").is(expectedVersion);
+        }
+        Update update = new Update()
+                .set("title", title)
+                .set("text", text)
+                .set("tags", tags)
+                .set("lastModifiedDate", lastModifiedDate)
+                .inc("version", 1);
+        return mongoTemplate.findAndModify(Query.query(criteria), update, Note.class);
+    }
+
+    @Override
+    public Mono<Note> findAndRemove(String tenantId, UUID id) {
+        Query query = Query.query(Criteria.where("tenantId").is(tenantId).and("_id").is(id));
+        query.fields().include("tags");
+        return mongoTemplate.findAndRemove(query, Note.class);
+    }
+}
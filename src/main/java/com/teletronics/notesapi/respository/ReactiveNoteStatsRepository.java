@@ -0,0 +1,9 @@
+package com.teletronics.notesapi.respository;
+
+import com.teletronics.notesapi.model.store.NoteStats;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+import java.util.UUID;
+
+public interface ReactiveNoteStatsRepository extends ReactiveMongoRepository<NoteStats, UUID> {
+}
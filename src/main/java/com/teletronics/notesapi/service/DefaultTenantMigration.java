@@ -0,0 +1,64 @@
+package com.teletronics.notesapi.service;
+
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.store.ImportJob;
+import com.teletronics.notesapi.model.store.Note;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Assigns {@link Constant#DEFAULT_TENANT} to notes and import jobs stored before notes had a tenant, which every
+ * query now filters on. Enabled by {@code notes.tenancy.assign-default-tenant}; it runs on a background thread
+ * after startup and only touches documents without a tenant, so it is safe to re-run. It must have completed
+ * before the collection is sharded, since the tenant is part of the shard key.
+ */
+@Slf4j
+@Component
+public class DefaultTenantMigration {
+
+    private static final Query WITHOUT_TENANT = Query.query(Criteria.where("tenantId").exists(false));
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+
+    @Autowired
+    public DefaultTenantMigration(MongoTemplate mongoTemplate,
+                                  @Value("${notes.tenancy.assign-default-tenant:true}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateAfterStartup() {
+        if (!enabled) {
+            return;
+        }
+        Thread migration = new Thread(() -> {
+            try {
+                migrate();
+            } catch (RuntimeException ex) {
+                log.warn("Default tenant migration failed", ex);
+            }
+        }, "default-tenant-migration");
+        migration.setDaemon(true);
+        migration.start();
+    }
+
+    public long migrate() {
+        Update update = Update.update("tenantId", Constant.DEFAULT_TENANT);
+        long notes = mongoTemplate.updateMulti(WITHOUT_TENANT, update, Note.class).getModifiedCount();
+        long importJobs = mongoTemplate.updateMulti(WITHOUT_TENANT, update, ImportJob.class).getModifiedCount();
+        if (notes > 0 || importJobs > 0) {
+            log.info("Assigned the default tenant to {} notes and {} import jobs", notes, importJobs);
+        }
+        return notes;
+    }
+}
@@ -0,0 +1,197 @@
+package com.teletronics.notesapi.service;
+
+import com.teletronics.notesapi.config.CacheConfig;
+import com.teletronics.notesapi.config.MetricsConfig;
+import com.teletronics.notesapi.exception.BatchTooLargeException;
+import com.teletronics.notesapi.mapper.NoteMapper;
+import com.teletronics.notesapi.model.BatchItemResult;
+import com.teletronics.notesapi.model.BatchResponse;
+import com.teletronics.notesapi.model.BatchTagUpdateRequest;
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.NoteRequest;
+import com.teletronics.notesapi.model.store.Note;
+import com.teletronics.notesapi.respository.NoteStore;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Creates, retags and deletes many notes per request. Creates are unordered bulk writes; retags and deletes are one
+ * atomic write per note, which reports the notes it changed. Each item is validated and reported on its own, so one
+ * bad item never fails the whole batch. A request of more than {@code notes.batch.max-items} items is rejected as a
+ * whole.
+ */
+@Slf4j
+@Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+public class NoteBatchService {
+
+    private final NoteStore noteStore;
+    private final NoteStatsService noteStatsService;
+    private final TagCountService tagCountService;
+    private final NoteChangeService noteChangeService;
+    private final NoteChangeFeed noteChangeFeed;
+    private final NoteMapper noteMapper;
+    private final Validator validator;
+    private final CacheManager cacheManager;
+    private final int chunkSize;
+    private final int maxItems;
+
+    @Autowired
+    public NoteBatchService(NoteStore noteStore,
+                            NoteStatsService noteStatsService,
+                            TagCountService tagCountService,
+                            NoteChangeService noteChangeService,
+                            NoteChangeFeed noteChangeFeed,
+                            NoteMapper noteMapper,
+                            Validator validator,
+                            CacheManager cacheManager,
+                            @Value("${notes.batch.chunk-size:1000}") int chunkSize,
+                            @Value("${notes.batch.max-items:10000}") int maxItems) {
+        this.noteStore = noteStore;
+        this.noteStatsService = noteStatsService;
+        this.tagCountService = tagCountService;
+        this.noteChangeService = noteChangeService;
+        this.noteChangeFeed = noteChangeFeed;
+        this.noteMapper = noteMapper;
+        this.validator = validator;
+        this.cacheManager = cacheManager;
+        this.chunkSize = chunkSize;
+        this.maxItems = maxItems;
+    }
+
+    public BatchResponse createNotes(String tenantId, List<NoteRequest> noteRequests) {
+        checkSize(noteRequests);
+        BatchItemResult[] results = new BatchItemResult[noteRequests.size()];
+        List<Note> notes = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int index = 0; index < noteRequests.size(); index++) {
+            String violations = validate(noteRequests.get(index));
+            if (violations != null) {
+                results[index] = new BatchItemResult(index, null, BatchItemResult.Status.INVALID, violations);
+                continue;
+            }
+            Note note = noteMapper.toEntity(noteRequests.get(index));
+            note.setTenantId(tenantId);
+            notes.add(note);
+            positions.add(index);
+        }
+
+        Map<Integer, String> failures = noteStore.insertAllUnordered(notes, chunkSize);
+        List<Note> insertedNotes = new ArrayList<>(notes.size());
+        for (int i = 0; i < notes.size(); i++) {
+            int index = positions.get(i);
+            Note note = notes.get(i);
+            if (failures.containsKey(i)) {
+                results[index] = new BatchItemResult(index, note.getId(), BatchItemResult.Status.FAILED, failures.get(i));
+            } else {
+                results[index] = new BatchItemResult(index, note.getId(), BatchItemResult.Status.CREATED, null);
+                insertedNotes.add(note);
+                tagCountService.added(tenantId, note.getTags());
+                noteChangeFeed.added(tenantId, note.getId(), note.getTags());
+            }
+        }
+        if (!insertedNotes.isEmpty()) {
+            noteChangeService.recordChange(tenantId);
+            storeStats(insertedNotes);
+        }
+        return new BatchResponse(Arrays.asList(results));
+    }
+
+    public BatchResponse updateTags(String tenantId, BatchTagUpdateRequest request) {
+        List<UUID> ids = request.getIds();
+        checkSize(ids);
+        // Taken from the writes, so a note changed concurrently is only counted by the request that changed it.
+        Map<UUID, Set<Constant.Tag>> previousTags = noteStore.setTags(tenantId, ids, request.getTags());
+        Set<UUID> existingIds = previousTags.keySet();
+        previousTags.forEach((id, tags) -> {
+            tagCountService.changed(tenantId, tags, request.getTags());
+            noteChangeFeed.changed(tenantId, id, tags, request.getTags());
+        });
+        evict(CacheConfig.NOTES_CACHE, tenantId, existingIds);
+        recordChange(tenantId, existingIds);
+        return toResponse(ids, existingIds, BatchItemResult.Status.UPDATED);
+    }
+
+    public BatchResponse deleteNotes(String tenantId, List<UUID> ids) {
+        checkSize(ids);
+        Map<UUID, Set<Constant.Tag>> previousTags = noteStore.removeAllById(tenantId, ids);
+        Set<UUID> existingIds = previousTags.keySet();
+        previousTags.forEach((id, tags) -> {
+            tagCountService.removed(tenantId, tags);
+            noteChangeFeed.removed(tenantId, id, tags);
+        });
+        noteStatsService.deleteAll(existingIds);
+        evict(CacheConfig.NOTES_CACHE, tenantId, existingIds);
+        evict(CacheConfig.NOTE_STATS_CACHE, tenantId, existingIds);
+        recordChange(tenantId, existingIds);
+        return toResponse(ids, existingIds, BatchItemResult.Status.DELETED);
+    }
+
+    private void checkSize(List<?> items) {
+        if (items.size() > maxItems) {
+            throw new BatchTooLargeException(
+                    String.format("A batch holds at most %d items, got %d", maxItems, items.size()));
+        }
+    }
+
+    // The notes are stored by now, so a failure here must not fail the batch: a note without stats gets them
+    // computed on its first /stats read.
+    private void storeStats(List<Note> insertedNotes) {
+        try {
+            noteStatsService.storeNew(insertedNotes);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to store stats of {} new notes, they are computed on first read", insertedNotes.size(), ex);
+        }
+    }
+
+    private void recordChange(String tenantId, Set<UUID> changedIds) {
+        if (!changedIds.isEmpty()) {
+            noteChangeService.recordChange(tenantId);
+        }
+    }
+
+    private String validate(NoteRequest noteRequest) {
+        if (noteRequest == null) {
+            return "Note cannot be null";
+        }
+        Set<ConstraintViolation<NoteRequest>> violations = validator.validate(noteRequest);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private BatchResponse toResponse(List<UUID> ids, Set<UUID> existingIds, BatchItemResult.Status status) {
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        for (int index = 0; index < ids.size(); index++) {
+            UUID id = ids.get(index);
+            results.add(existingIds.contains(id)
+                    ? new BatchItemResult(index, id, status, null)
+                    : new BatchItemResult(index, id, BatchItemResult.Status.NOT_FOUND,
+                            String.format("Note with ID %s not found", id)));
+        }
+        return new BatchResponse(results);
+    }
+
+    // Matches CacheConfig.NOTE_KEY.
+    private void evict(String cacheName, String tenantId, Collection<UUID> ids) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            ids.forEach(id -> cache.evict(new SimpleKey(tenantId, id)));
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.teletronics.notesapi.service;
+
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.NoteChangeEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fans the note writes of this instance out to the subscribers of {@code GET /notes/changes}. Writers only enqueue
+ * their change; a single dispatcher thread numbers it, keeps it in a bounded history for resuming subscribers and
+ * offers it to the buffer of every subscriber it matches. A subscriber whose buffer is full is disconnected rather than
+ * slowing the others down, and resumes from its last event id when it reconnects. When writers outpace the dispatcher
+ * and fill its bounded queue, the queued changes are discarded and every subscriber gets a {@code RESET} event.
+ * <p>
+ * Event ids are only known to the instance that issued them, and only until it restarts; a subscriber resuming from
+ * an unknown or evicted id gets a {@code RESET} event instead. Once {@link NoteChangeStreamListener} follows the writes
+ * of every instance, it is the only source of changes, so each instance streams every write.
+ */
+@Slf4j
+@Service
+public class NoteChangeFeed {
+    static final String SUBSCRIBERS_GAUGE = "notes.feed.subscribers";
+    static final String DROPPED_COUNTER = "notes.feed.dropped";
+    static final String OVERFLOW_COUNTER = "notes.feed.overflows";
+    private static final String HEARTBEAT = "heartbeat";
+
+    private final int bufferSize;
+    private final int historySize;
+    private final Duration heartbeatInterval;
+    private final Counter droppedCounter;
+    private final Counter overflowCounter;
+    // Prefixes the ids of the events of this run, so ids issued by another instance or before a restart are told apart.
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final BlockingQueue<Change> upstream;
+    // Set by a writer whose change did not fit the queue; the queue is then full, so the dispatcher sees it promptly.
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // Guarded by this, as is sequence; subscribers register under the same lock, so they miss no change in between.
+    private final Deque<Entry> history = new ArrayDeque<>();
+    private long sequence;
+    private volatile boolean followingChangeStream;
+    private Thread dispatcher;
+
+    @Autowired
+    public NoteChangeFeed(@Value("${notes.feed.buffer-size:256}") int bufferSize,
+                          @Value("${notes.feed.history-size:10000}") int historySize,
+                          @Value("${notes.feed.heartbeat-interval:30s}") Duration heartbeatInterval,
+                          @Value("${notes.feed.queue-size:10000}") int queueSize,
+                          MeterRegistry meterRegistry) {
+        this.bufferSize = bufferSize;
+        this.historySize = historySize;
+        this.heartbeatInterval = heartbeatInterval;
+        this.upstream = new ArrayBlockingQueue<>(queueSize);
+        Gauge.builder(SUBSCRIBERS_GAUGE, subscribers, Set::size)
+                .description("Open note change streams")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder(DROPPED_COUNTER)
+                .description("Note change streams closed because their buffer was full")
+                .register(meterRegistry);
+        this.overflowCounter = Counter.builder(OVERFLOW_COUNTER)
+                .description("Note changes discarded because the feed's queue was full")
+                .register(meterRegistry);
+    }
+
+    public void added(String tenantId, UUID id, Set<Constant.Tag> tags) {
+        if (!followingChangeStream) {
+            publish(NoteChangeEvent.Type.CREATED, tenantId, id, null, tags);
+        }
+    }
+
+    public void changed(String tenantId, UUID id, Set<Constant.Tag> previousTags, Set<Constant.Tag> tags) {
+        if (!followingChangeStream) {
+            publish(NoteChangeEvent.Type.UPDATED, tenantId, id, previousTags, tags);
+        }
+    }
+
+    public void removed(String tenantId, UUID id, Set<Constant.Tag> tags) {
+        if (!followingChangeStream) {
+            publish(NoteChangeEvent.Type.DELETED, tenantId, id, tags, null);
+        }
+    }
+
+    /**
+     * Hands publishing over to the change stream: from now on only {@link #publish} adds changes.
+     */
+    void followChangeStream() {
+        followingChangeStream = true;
+    }
+
+    /**
+     * Takes publishing back while the change stream is down.
+     */
+    void unfollowChangeStream() {
+        followingChangeStream = false;
+    }
+
+    /**
+     * Sends a {@code RESET} event to every subscriber once the changes queued before it are dispatched, for when
+     * changes were lost.
+     */
+    void reset() {
+        publish(NoteChangeEvent.Type.RESET, null, null, null, null);
+    }
+
+    /**
+     * Enqueues a change for the dispatcher. Both tags are {@code null} when they are not known, in which case the
+     * change matches every tag filter.
+     */
+    void publish(NoteChangeEvent.Type type, String tenantId, UUID id, Set<Constant.Tag> previousTags, Set<Constant.Tag> tags) {
+        Change change = new Change(tenantId, previousTags, tags, new NoteChangeEvent(type, id,
+                type == NoteChangeEvent.Type.DELETED ? previousTags : tags, Instant.now()));
+        if (!upstream.offer(change)) {
+            overflowCounter.increment();
+            overflowed.set(true);
+        }
+    }
+
+    /**
+     * Streams the changes of the tenant's notes having one of the tags before or after the change, or of all its
+     * notes without tags. With {@code lastEventId}, the changes after that event are sent first.
+     */
+    public Flux<ServerSentEvent<NoteChangeEvent>> subscribe(String tenantId, Set<Constant.Tag> tags, String lastEventId) {
+        return Flux.defer(() -> {
+            Subscriber subscriber = new Subscriber(tenantId, tags == null ? Set.of() : tags);
+            register(subscriber, lastEventId);
+            // Heartbeats keep proxies from closing an idle stream and reveal disconnected clients.
+            Flux<ServerSentEvent<NoteChangeEvent>> heartbeats = Flux.interval(heartbeatInterval)
+                    .onBackpressureDrop()
+                    .map(tick -> ServerSentEvent.<NoteChangeEvent>builder().comment(HEARTBEAT).build());
+            // A prefetch of one keeps the events the client has not read in the subscriber's bounded buffer.
+            return Flux.merge(1, subscriber.events.asFlux(), heartbeats)
+                    .takeUntilOther(subscriber.dropped.asMono())
+                    .doFinally(signal -> subscribers.remove(subscriber));
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startDispatcher() {
+        dispatcher = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    Change change = upstream.take();
+                    try {
+                        if (overflowed.getAndSet(false)) {
+                            // Subscribers list the notes again anyway, so the changes still queued are not needed.
+                            upstream.clear();
+                            resetSubscribers("its queue overflowed");
+                        } else if (change.event().getType() == NoteChangeEvent.Type.RESET) {
+                            resetSubscribers("changes were lost");
+                        } else {
+                            dispatch(change);
+                        }
+                    } catch (RuntimeException ex) {
+                        log.error("Failed to dispatch note change {}", change.event(), ex);
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }, "note-change-feed");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    // Completes the open streams, so that clients reconnect to another instance instead of holding up the shutdown.
+    @PreDestroy
+    public void close() {
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+        }
+        synchronized (this) {
+            subscribers.forEach(subscriber -> subscriber.events.tryEmitComplete());
+        }
+    }
+
+    private synchronized void dispatch(Change change) {
+        sequence++;
+        Entry entry = new Entry(sequence, change, ServerSentEvent.builder(change.event())
+                .id(eventId(sequence))
+                .build());
+        history.addLast(entry);
+        if (history.size() > historySize) {
+            history.removeFirst();
+        }
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.accepts(change) && !subscriber.offer(entry.event())) {
+                subscriber.drop();
+            }
+        }
+    }
+
+    // Every subscriber lists the notes again. The history is cleared, since resuming across the gap would skip the
+    // lost changes.
+    private synchronized void resetSubscribers(String reason) {
+        history.clear();
+        sequence++;
+        log.warn("Resetting {} note change streams because {}", subscribers.size(), reason);
+        ServerSentEvent<NoteChangeEvent> event = resetEvent();
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.offer(event)) {
+                subscriber.drop();
+            }
+        }
+    }
+
+    private synchronized void register(Subscriber subscriber, String lastEventId) {
+        if (lastEventId != null) {
+            long after = position(lastEventId);
+            List<Entry> missed = after < sequence - history.size() || after > sequence ? null : history.stream()
+                    .filter(entry -> entry.sequence() > after && subscriber.accepts(entry.change()))
+                    .toList();
+            // A backlog that does not fit the buffer would disconnect the subscriber again on every reconnect.
+            if (missed == null || missed.size() >= bufferSize) {
+                subscriber.offer(resetEvent());
+            } else {
+                missed.forEach(entry -> subscriber.offer(entry.event()));
+            }
+        }
+        subscribers.add(subscriber);
+    }
+
+    private ServerSentEvent<NoteChangeEvent> resetEvent() {
+        return ServerSentEvent.builder(new NoteChangeEvent(NoteChangeEvent.Type.RESET, null, null, Instant.now()))
+                .id(eventId(sequence))
+                .build();
+    }
+
+    private String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    // Returns -1 for ids this run did not issue.
+    private long position(String eventId) {
+        int separator = eventId.lastIndexOf('-');
+        if (separator < 0 || !epoch.equals(eventId.substring(0, separator))) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(separator + 1));
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    private record Change(String tenantId, Set<Constant.Tag> previousTags, Set<Constant.Tag> tags, NoteChangeEvent event) {
+    }
+
+    private record Entry(long sequence, Change change, ServerSentEvent<NoteChangeEvent> event) {
+    }
+
+    private final class Subscriber {
+        private final String tenantId;
+        private final Set<Constant.Tag> tags;
+        // Only emitted to by the dispatcher thread or while registering, both under the feed's lock.
+        private final Sinks.Many<ServerSentEvent<NoteChangeEvent>> events =
+                Sinks.many().unicast().onBackpressureBuffer(new ArrayBlockingQueue<>(bufferSize));
+        private final Sinks.One<Boolean> dropped = Sinks.one();
+
+        Subscriber(String tenantId, Set<Constant.Tag> tags) {
+            this.tenantId = tenantId;
+            this.tags = tags;
+        }
+
+        boolean accepts(Change change) {
+            if (!tenantId.equals(change.tenantId())) {
+                return false;
+            }
+            if (tags.isEmpty() || change.previousTags() == null && change.tags() == null) {
+                return true;
+            }
+            return change.previousTags() != null && change.previousTags().stream().anyMatch(tags::contains)
+                    || change.tags() != null && change.tags().stream().anyMatch(tags::contains);
+        }
+
+        boolean offer(ServerSentEvent<NoteChangeEvent> event) {
+            return events.tryEmitNext(event).isSuccess();
+        }
+
+        void drop() {
+            if (subscribers.remove(this)) {
+                droppedCounter.increment();
+                log.debug("Closing a note change stream of tenant {} that fell {} events behind", tenantId, bufferSize);
+                dropped.tryEmitValue(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.teletronics.notesapi.service;
+
+import com.teletronics.notesapi.model.store.NoteChanges;
+import com.teletronics.notesapi.respository.NoteStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Maintains the {@link NoteChanges} token that validates conditional requests on the listings. Writers record a
+ * change only after their write is stored: a listing read after the token is then never older than the token, and
+ * a reader seeing the old token at worst refetches once more. Tokens are kept by the {@link NoteStore}, so listings
+ * are validated without leaving the storage engine that serves them.
+ */
+@Service
+public class NoteChangeService {
+
+    private final NoteStore noteStore;
+
+    @Autowired
+    public NoteChangeService(NoteStore noteStore) {
+        this.noteStore = noteStore;
+    }
+
+    public void recordChange(String tenantId) {
+        noteStore.recordChange(tenantId);
+    }
+
+    /**
+     * @return the current token of the tenant, or a token with sequence 0 and no modified date when nothing was
+     * written yet
+     */
+    public NoteChanges current(String tenantId) {
+        return noteStore.currentChanges(tenantId);
+    }
+}
@@ -0,0 +1,329 @@
+package com.teletronics.notesapi.service;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.FullDocumentBeforeChange;
+import com.mongodb.client.model.changestream.OperationType;
+import com.teletronics.notesapi.config.CacheConfig;
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.NoteChangeEvent;
+import com.teletronics.notesapi.model.store.Note;
+import com.teletronics.notesapi.respository.NoteStore;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the in-process state of this instance in step with the writes of every instance by following a change stream
+ * on the {@code notes} and {@code note_stats} collections: cached notes and stats are evicted when they change, tag
+ * counts are adjusted from the tags before and after each write and the write is published to the
+ * {@link NoteChangeFeed}. Enable it with {@code notes.change-stream.enabled}; change streams need a replica set or a
+ * sharded cluster.
+ * <p>
+ * Tag deltas need the pre- and post-images of each write, which are turned on for {@code notes} at startup unless
+ * {@code notes.change-stream.pre-and-post-images} is off. A change whose images are missing makes the counts reconcile
+ * on their next read instead. After an error the stream resumes from the last event applied; when that position has
+ * left the oplog, the caches are cleared and the counts reconciled, since the events in between are lost.
+ * <p>
+ * The tag counts and the feed stop following their own writes before the stream is opened, so no write is applied
+ * twice; the writes in between are picked up by reconciling. When the stream cannot be opened
+ * {@code notes.change-stream.max-open-failures} times in a row, they go back to following their own writes until a
+ * stream can be opened again.
+ */
+@Slf4j
+@Component
+@Profile(NoteStore.MONGO_PROFILE)
+public class NoteChangeStreamListener {
+    private static final String NOTES_COLLECTION = "notes";
+    private static final String NOTE_STATS_COLLECTION = "note_stats";
+    // ChangeStreamFatalError, ChangeStreamHistoryLost and InvalidResumeToken: the stream cannot resume from its token.
+    private static final Set<Integer> RESUME_FAILED_CODES = Set.of(280, 286, 260);
+
+    private final MongoTemplate mongoTemplate;
+    private final CacheManager cacheManager;
+    private final TagCountService tagCountService;
+    private final NoteChangeFeed noteChangeFeed;
+    private final boolean enabled;
+    private final boolean preAndPostImages;
+    private final Duration retryDelay;
+    private final int maxOpenFailures;
+    private volatile boolean running = true;
+    // Only read and written by the listener thread.
+    private BsonDocument resumeToken;
+    private boolean following;
+    private int openFailures;
+
+    @Autowired
+    public NoteChangeStreamListener(MongoTemplate mongoTemplate,
+                                    CacheManager cacheManager,
+                                    TagCountService tagCountService,
+                                    NoteChangeFeed noteChangeFeed,
+                                    @Value("${notes.change-stream.enabled:false}") boolean enabled,
+                                    @Value("${notes.change-stream.pre-and-post-images:true}") boolean preAndPostImages,
+                                    @Value("${notes.change-stream.retry-delay:5s}") Duration retryDelay,
+                                    @Value("${notes.change-stream.max-open-failures:3}") int maxOpenFailures) {
+        this.mongoTemplate = mongoTemplate;
+        this.cacheManager = cacheManager;
+        this.tagCountService = tagCountService;
+        this.noteChangeFeed = noteChangeFeed;
+        this.enabled = enabled;
+        this.preAndPostImages = preAndPostImages;
+        this.retryDelay = retryDelay;
+        this.maxOpenFailures = maxOpenFailures;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void listenAfterStartup() {
+        if (!enabled) {
+            return;
+        }
+        Thread listener = new Thread(this::listen, "note-change-stream");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+    }
+
+    private void listen() {
+        if (preAndPostImages) {
+            enablePreAndPostImages();
+        }
+        while (running) {
+            boolean opened = false;
+            try {
+                if (!following) {
+                    // Local writes keep being applied until a stream can be opened at all.
+                    open().close();
+                    followChangeStream();
+                }
+                try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = open()) {
+                    opened = true;
+                    openFailures = 0;
+                    log.info("Following changes to notes {}", resumeToken == null ? "from now on" : "from the last applied one");
+                    if (resumeToken == null) {
+                        // Writes made before the stream opened, while no one applied them, are only known to the collection.
+                        reset();
+                    }
+                    while (running && follow(cursor)) {
+                        // Waits for the next change.
+                    }
+                }
+            } catch (MongoException ex) {
+                if (RESUME_FAILED_CODES.contains(ex.getCode())) {
+                    log.warn("Note change stream cannot resume, clearing local state", ex);
+                    resumeToken = null;
+                    reset();
+                } else {
+                    log.warn("Note change stream failed, resuming in {}", retryDelay, ex);
+                }
+                if (!opened && ++openFailures >= maxOpenFailures) {
+                    unfollowChangeStream();
+                }
+                pause();
+            }
+        }
+    }
+
+    private void followChangeStream() {
+        if (!following) {
+            tagCountService.followChangeStream();
+            noteChangeFeed.followChangeStream();
+            following = true;
+        }
+    }
+
+    // Until the stream opens again, this instance applies its own writes as if it did not follow the stream. The
+    // stream then starts over, since resuming would apply those writes a second time.
+    private void unfollowChangeStream() {
+        if (following) {
+            log.warn("Note change stream failed to open {} times, applying local writes until it opens", openFailures);
+            tagCountService.unfollowChangeStream();
+            noteChangeFeed.unfollowChangeStream();
+            following = false;
+            resumeToken = null;
+            reset();
+        }
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> open() {
+        ChangeStreamIterable<Document> stream = mongoTemplate.getDb()
+                .watch(List.of(Aggregates.match(Filters.in("ns.coll", NOTES_COLLECTION, NOTE_STATS_COLLECTION))))
+                .fullDocument(preAndPostImages ? FullDocument.WHEN_AVAILABLE : FullDocument.DEFAULT)
+                .fullDocumentBeforeChange(preAndPostImages ? FullDocumentBeforeChange.WHEN_AVAILABLE : FullDocumentBeforeChange.OFF)
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+        // startAfter rather than resumeAfter, so the stream can also be reopened after an invalidate event.
+        return (resumeToken == null ? stream : stream.startAfter(resumeToken)).cursor();
+    }
+
+    /**
+     * Applies the next change, if one arrives within the await time.
+     *
+     * @return {@code false} when the stream was invalidated and must be reopened
+     */
+    private boolean follow(MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor) {
+        ChangeStreamDocument<Document> change = cursor.tryNext();
+        // Also advances while no change arrives, so resuming does not rescan the oplog entries of other collections.
+        resumeToken = cursor.getResumeToken();
+        if (change == null) {
+            return true;
+        }
+        try {
+            apply(change);
+        } catch (RuntimeException ex) {
+            // The change is skipped rather than retried forever; what it would have updated is rebuilt instead.
+            log.warn("Failed to apply a {} change, clearing local state", change.getOperationType(), ex);
+            reset();
+        }
+        return change.getOperationType() != OperationType.INVALIDATE;
+    }
+
+    void apply(ChangeStreamDocument<Document> change) {
+        OperationType operationType = change.getOperationType();
+        if (operationType != OperationType.INSERT && operationType != OperationType.UPDATE
+                && operationType != OperationType.REPLACE && operationType != OperationType.DELETE) {
+            // Collection or database drops and renames.
+            reset();
+        } else if (NOTES_COLLECTION.equals(change.getNamespace().getCollectionName())) {
+            noteChanged(change);
+        } else if (operationType != OperationType.DELETE) {
+            // Stats are inserted and replaced whole, so the tenant is in the full document; deletes follow the note's.
+            statsChanged(change);
+        }
+    }
+
+    private void statsChanged(ChangeStreamDocument<Document> change) {
+        UUID id = toNote(decode(change.getDocumentKey())).getId();
+        String tenantId = change.getFullDocument() == null ? null : change.getFullDocument().getString("tenantId");
+        if (tenantId != null) {
+            evict(CacheConfig.NOTE_STATS_CACHE, new SimpleKey(tenantId, id));
+        } else {
+            clear(CacheConfig.NOTE_STATS_CACHE);
+        }
+    }
+
+    private void noteChanged(ChangeStreamDocument<Document> change) {
+        OperationType operationType = change.getOperationType();
+        Note previousNote = toNote(change.getFullDocumentBeforeChange());
+        Note note = operationType == OperationType.DELETE ? null : toNote(change.getFullDocument());
+        // The key holds the shard key fields as well, so the tenant is known on a sharded collection without images.
+        Note key = toNote(decode(change.getDocumentKey()));
+        String tenantId = Stream.of(note, previousNote, key)
+                .filter(candidate -> candidate != null && candidate.getTenantId() != null)
+                .map(Note::getTenantId)
+                .findFirst()
+                .orElse(null);
+
+        // Matches CacheConfig.NOTE_KEY.
+        if (tenantId != null) {
+            evict(CacheConfig.NOTES_CACHE, new SimpleKey(tenantId, key.getId()));
+        } else {
+            clear(CacheConfig.NOTES_CACHE);
+        }
+        if (operationType == OperationType.DELETE) {
+            if (tenantId != null) {
+                evict(CacheConfig.NOTE_STATS_CACHE, new SimpleKey(tenantId, key.getId()));
+            } else {
+                clear(CacheConfig.NOTE_STATS_CACHE);
+            }
+        }
+
+        boolean imagesComplete = switch (operationType) {
+            case INSERT -> note != null;
+            case DELETE -> previousNote != null;
+            default -> previousNote != null && note != null;
+        };
+        Set<Constant.Tag> previousTags = previousNote == null ? null : previousNote.getTags();
+        Set<Constant.Tag> tags = note == null ? null : note.getTags();
+        if (imagesComplete) {
+            tagCountService.applyChange(tenantId, previousTags, tags);
+        } else {
+            tagCountService.invalidate();
+        }
+        // Without images the tenant is unknown on an unsharded collection, so there is no stream to publish to.
+        if (tenantId != null) {
+            noteChangeFeed.publish(switch (operationType) {
+                case INSERT -> NoteChangeEvent.Type.CREATED;
+                case DELETE -> NoteChangeEvent.Type.DELETED;
+                default -> NoteChangeEvent.Type.UPDATED;
+            }, tenantId, key.getId(), previousTags, tags);
+        }
+    }
+
+    private void reset() {
+        clear(CacheConfig.NOTES_CACHE);
+        clear(CacheConfig.NOTE_STATS_CACHE);
+        tagCountService.invalidate();
+        noteChangeFeed.reset();
+    }
+
+    private void enablePreAndPostImages() {
+        try {
+            mongoTemplate.executeCommand(new Document("collMod", NOTES_COLLECTION)
+                    .append("changeStreamPreAndPostImages", new Document("enabled", true)));
+        } catch (RuntimeException ex) {
+            log.warn("Failed to enable pre- and post-images on {}; tag counts will reconcile after each update",
+                    NOTES_COLLECTION, ex);
+        }
+    }
+
+    private Note toNote(Document document) {
+        return document == null ? null : mongoTemplate.getConverter().read(Note.class, document);
+    }
+
+    // Document keys are left as raw BSON by the driver; decoding them with the database codecs applies the configured
+    // UUID representation.
+    private Document decode(BsonDocument document) {
+        return mongoTemplate.getDb().getCodecRegistry().get(Document.class)
+                .decode(document.asBsonReader(), DecoderContext.builder().build());
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(retryDelay.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
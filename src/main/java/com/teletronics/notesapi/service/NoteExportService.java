@@ -0,0 +1,105 @@
+package com.teletronics.notesapi.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.teletronics.notesapi.config.MetricsConfig;
+import com.teletronics.notesapi.mapper.NoteMapper;
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.NoteResponse;
+import com.teletronics.notesapi.model.store.Note;
+import com.teletronics.notesapi.respository.NoteStore;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Writes notes as newline-delimited JSON straight from the note store, a Mongo cursor by default. Only one cursor
+ * batch is held in memory at a time, so heap use does not depend on the size of the export.
+ * <p>
+ * Exports run on an executor of their own with {@code notes.export.max-concurrent} threads and no queue, so a long
+ * export never holds a thread other async requests need; an export beyond that limit is rejected with 429.
+ */
+@Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+public class NoteExportService {
+
+    private final NoteStore noteStore;
+    private final NoteMapper noteMapper;
+    private final ObjectWriter noteWriter;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    // Applies to the export request only; other async requests keep the servlet default.
+    @Getter
+    private final Duration timeout;
+    private final ThreadPoolTaskExecutor executor;
+
+    @Autowired
+    public NoteExportService(NoteStore noteStore,
+                             NoteMapper noteMapper,
+                             ObjectMapper objectMapper,
+                             @Value("${notes.export.batch-size:500}") int batchSize,
+                             @Value("${notes.export.timeout:1h}") Duration timeout,
+                             @Value("${notes.export.max-concurrent:8}") int maxConcurrent) {
+        this.noteStore = noteStore;
+        this.noteMapper = noteMapper;
+        this.objectMapper = objectMapper;
+        // Flushing is left to the servlet buffer instead of one flush per note.
+        this.noteWriter = objectMapper.writerFor(NoteResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.batchSize = batchSize;
+        this.timeout = timeout;
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrent);
+        executor.setMaxPoolSize(maxConcurrent);
+        executor.setQueueCapacity(0);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("notes-export-");
+        executor.setDaemon(true);
+        executor.initialize();
+    }
+
+    public AsyncTaskExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * @return the number of notes written
+     */
+    public long exportNotes(String tenantId, Set<Constant.Tag> tags, LocalDateTime from, LocalDateTime to,
+                            OutputStream outputStream) throws IOException {
+        long exported = 0;
+        try (Stream<Note> notes = noteStore.streamAll(tenantId, tags, from, to, batchSize)) {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            Iterator<Note> iterator = notes.iterator();
+            while (iterator.hasNext()) {
+                noteWriter.writeValue(generator, noteMapper.toResponseDTO(iterator.next()));
+                generator.writeRaw('\n');
+                exported++;
+            }
+            generator.flush();
+        }
+        return exported;
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdown();
+    }
+}
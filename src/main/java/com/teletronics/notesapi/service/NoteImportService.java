@@ -0,0 +1,306 @@
+package com.teletronics.notesapi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.teletronics.notesapi.config.MetricsConfig;
+import com.teletronics.notesapi.exception.ConflictException;
+import com.teletronics.notesapi.exception.ResourceNotFoundException;
+import com.teletronics.notesapi.mapper.ImportJobMapper;
+import com.teletronics.notesapi.mapper.NoteMapper;
+import com.teletronics.notesapi.model.ImportJobResponse;
+import com.teletronics.notesapi.model.NoteRequest;
+import com.teletronics.notesapi.model.store.ImportJob;
+import com.teletronics.notesapi.model.store.Note;
+import com.teletronics.notesapi.respository.BulkInsertResult;
+import com.teletronics.notesapi.respository.ImportJobRepository;
+import com.teletronics.notesapi.respository.NoteRepository;
+import com.teletronics.notesapi.respository.NoteStore;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Imports NDJSON uploads of {@link NoteRequest}s. Lines are parsed one at a time and written in bulk batches, so
+ * memory is bounded by one batch and a slow database slows down the upload instead of buffering it.
+ * <p>
+ * After each batch the job records the last line whose note is stored. Uploading the same data again resumes
+ * after that line, and notes get an id derived from the job id and line number, so a batch interrupted before
+ * its checkpoint is inserted again without duplicates.
+ * <p>
+ * Jobs and their checkpoints live in Mongo next to the notes, so imports are only available with the Mongo store.
+ */
+@Slf4j
+@Service
+@Profile(NoteStore.MONGO_PROFILE)
+@Timed(MetricsConfig.SERVICE_TIMER)
+public class NoteImportService {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ImportJobRepository importJobRepository;
+    private final NoteRepository noteRepository;
+    private final NoteStatsService noteStatsService;
+    private final TagCountService tagCountService;
+    private final NoteChangeService noteChangeService;
+    private final NoteChangeFeed noteChangeFeed;
+    private final MongoTemplate mongoTemplate;
+    private final NoteMapper noteMapper;
+    private final ImportJobMapper importJobMapper;
+    private final ObjectReader noteReader;
+    private final Validator validator;
+    private final int batchSize;
+    private final int maxErrors;
+    private final Duration staleAfter;
+
+    @Autowired
+    public NoteImportService(ImportJobRepository importJobRepository,
+                             NoteRepository noteRepository,
+                             NoteStatsService noteStatsService,
+                             TagCountService tagCountService,
+                             NoteChangeService noteChangeService,
+                             NoteChangeFeed noteChangeFeed,
+                             MongoTemplate mongoTemplate,
+                             NoteMapper noteMapper,
+                             ImportJobMapper importJobMapper,
+                             ObjectMapper objectMapper,
+                             Validator validator,
+                             @Value("${notes.import.batch-size:1000}") int batchSize,
+                             @Value("${notes.import.max-errors:100}") int maxErrors,
+                             @Value("${notes.import.stale-after:5m}") Duration staleAfter) {
+        this.importJobRepository = importJobRepository;
+        this.noteRepository = noteRepository;
+        this.noteStatsService = noteStatsService;
+        this.tagCountService = tagCountService;
+        this.noteChangeService = noteChangeService;
+        this.noteChangeFeed = noteChangeFeed;
+        this.mongoTemplate = mongoTemplate;
+        this.noteMapper = noteMapper;
+        this.importJobMapper = importJobMapper;
+        this.noteReader = objectMapper.readerFor(NoteRequest.class);
+        this.validator = validator;
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+        this.staleAfter = staleAfter;
+    }
+
+    public ImportJobResponse createJob(String tenantId) {
+        ImportJob job = importJobRepository.insert(new ImportJob(UUID.randomUUID(), tenantId, LocalDateTime.now()));
+        return importJobMapper.toResponseDTO(job);
+    }
+
+    public ImportJobResponse getJob(String tenantId, UUID id) {
+        return importJobRepository.findById(id)
+                .filter(job -> tenantId.equals(job.getTenantId()))
+                .map(importJobMapper::toResponseDTO)
+                .orElseThrow(() -> importJobNotFoundException(id));
+    }
+
+    /**
+     * Reads the upload to its end in the calling thread and returns the final state of the job. The notes are
+     * created in the tenant of the job.
+     */
+    public ImportJobResponse importNotes(String tenantId, UUID id, InputStream data) {
+        ImportJob job = claim(tenantId, id);
+        long line = job.getCommittedOffset();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(data, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            skipLines(reader, job.getCommittedOffset());
+            List<Note> batch = new ArrayList<>(batchSize);
+            List<Long> batchLines = new ArrayList<>(batchSize);
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                Note note = parse(job, line, text);
+                if (note == null) {
+                    continue;
+                }
+                batch.add(note);
+                batchLines.add(line);
+                if (batch.size() == batchSize) {
+                    write(job, batch, batchLines);
+                    checkpoint(job, line, ImportJob.Status.RUNNING);
+                    batch.clear();
+                    batchLines.clear();
+                }
+            }
+            write(job, batch, batchLines);
+            checkpoint(job, line, ImportJob.Status.COMPLETED);
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Import job {} failed after line {}", id, line, ex);
+            fail(job, ex);
+        }
+        return getJob(tenantId, id);
+    }
+
+    static UUID noteId(UUID jobId, long line) {
+        return UUID.nameUUIDFromBytes((jobId + ":" + line).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Marks the job as running unless another upload of it is in progress. A running job whose last checkpoint is
+     * older than {@code notes.import.stale-after} is taken over, since its upload died without failing the job.
+     */
+    private ImportJob claim(String tenantId, UUID id) {
+        LocalDateTime now = LocalDateTime.now();
+        Criteria claimable = new Criteria().orOperator(
+                Criteria.where("status").in(ImportJob.Status.CREATED, ImportJob.Status.FAILED),
+                Criteria.where("status").is(ImportJob.Status.RUNNING).and("updatedDate").lt(now.minus(staleAfter)));
+        ImportJob job = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(id).and("tenantId").is(tenantId).andOperator(claimable)),
+                new Update().set("status", ImportJob.Status.RUNNING).set("updatedDate", now).unset("lastError"),
+                FindAndModifyOptions.options().returnNew(true),
+                ImportJob.class);
+        if (job != null) {
+            return job;
+        }
+        ImportJob existing = importJobRepository.findById(id)
+                .filter(found -> tenantId.equals(found.getTenantId()))
+                .orElseThrow(() -> importJobNotFoundException(id));
+        throw new ConflictException(String.format("Import job %s is %s", id, existing.getStatus()));
+    }
+
+    private void skipLines(BufferedReader reader, long lines) throws IOException {
+        for (long skipped = 0; skipped < lines; skipped++) {
+            if (reader.readLine() == null) {
+                return;
+            }
+        }
+    }
+
+    private Note parse(ImportJob job, long line, String text) {
+        if (text.isBlank()) {
+            return null;
+        }
+        NoteRequest noteRequest;
+        try {
+            noteRequest = noteReader.readValue(text);
+        } catch (JsonProcessingException ex) {
+            job.setInvalid(job.getInvalid() + 1);
+            addError(job, line, "Malformed JSON: " + ex.getOriginalMessage());
+            return null;
+        }
+        Set<ConstraintViolation<NoteRequest>> violations = validator.validate(noteRequest);
+        if (!violations.isEmpty()) {
+            job.setInvalid(job.getInvalid() + 1);
+            addError(job, line, violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+            return null;
+        }
+        Note note = noteMapper.toEntity(noteRequest);
+        note.setId(noteId(job.getId(), line));
+        note.setTenantId(job.getTenantId());
+        return note;
+    }
+
+    private void write(ImportJob job, List<Note> batch, List<Long> batchLines) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        BulkInsertResult result = noteRepository.insertAllIdempotent(batch, batchSize);
+        List<Note> inserted = new ArrayList<>(batch.size());
+        List<Note> duplicates = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            if (result.getDuplicates().contains(i)) {
+                duplicates.add(batch.get(i));
+            } else if (result.getFailures().containsKey(i)) {
+                addError(job, batchLines.get(i), result.getFailures().get(i));
+            } else {
+                inserted.add(batch.get(i));
+            }
+        }
+        storeStats(inserted, duplicates);
+        // Ids are derived from the job and the line, so a duplicate was left by an interrupted attempt of this job,
+        // which may have stopped before anything below was applied for it.
+        List<Note> stored = new ArrayList<>(inserted);
+        stored.addAll(duplicates);
+        stored.forEach(note -> {
+            tagCountService.added(job.getTenantId(), note.getTags());
+            noteChangeFeed.added(job.getTenantId(), note.getId(), note.getTags());
+        });
+        if (!stored.isEmpty()) {
+            noteChangeService.recordChange(job.getTenantId());
+        }
+        job.setImported(job.getImported() + inserted.size());
+        job.setDuplicates(job.getDuplicates() + duplicates.size());
+        job.setFailed(job.getFailed() + result.getFailures().size());
+    }
+
+    // The notes are stored by now, so a failure here must not fail the job: a note without stats gets them computed
+    // on its first /stats read.
+    private void storeStats(List<Note> inserted, List<Note> duplicates) {
+        try {
+            if (!inserted.isEmpty()) {
+                noteStatsService.storeNew(inserted);
+            }
+            if (!duplicates.isEmpty()) {
+                // Possibly stored before their stats were.
+                noteStatsService.refreshMissing(duplicates);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Failed to store stats of {} imported notes, they are computed on first read",
+                    inserted.size() + duplicates.size(), ex);
+        }
+    }
+
+    private void addError(ImportJob job, long line, String message) {
+        if (job.getErrors().size() < maxErrors) {
+            job.getErrors().add(new ImportJob.LineError(line, message));
+        }
+    }
+
+    private void checkpoint(ImportJob job, long line, ImportJob.Status status) {
+        job.setCommittedOffset(line);
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(job.getId())),
+                new Update()
+                        .set("status", status)
+                        .set("committedOffset", line)
+                        .set("imported", job.getImported())
+                        .set("duplicates", job.getDuplicates())
+                        .set("invalid", job.getInvalid())
+                        .set("failed", job.getFailed())
+                        .set("errors", job.getErrors())
+                        .set("updatedDate", LocalDateTime.now()),
+                ImportJob.class);
+    }
+
+    private void fail(ImportJob job, Exception cause) {
+        try {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(job.getId())),
+                    new Update()
+                            .set("status", ImportJob.Status.FAILED)
+                            .set("lastError", cause.getMessage())
+                            .set("updatedDate", LocalDateTime.now()),
+                    ImportJob.class);
+        } catch (RuntimeException ex) {
+            log.warn("Could not mark import job {} as failed", job.getId(), ex);
+        }
+    }
+
+    private ResourceNotFoundException importJobNotFoundException(UUID id) {
+        return new ResourceNotFoundException(String.format("Import job with ID %s not found", id));
+    }
+}
@@ -1,118 +1,155 @@
 package com.teletronics.notesapi.service;
 
+import com.teletronics.notesapi.config.CacheConfig;
+import com.teletronics.notesapi.config.MetricsConfig;
+import com.teletronics.notesapi.exception.PreconditionFailedException;
 import com.teletronics.notesapi.exception.ResourceNotFoundException;
 import com.teletronics.notesapi.mapper.NoteMapper;
 import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.CursorPage;
+import com.teletronics.notesapi.model.NoteCursor;
 import com.teletronics.notesapi.model.NoteRequest;
 import com.teletronics.notesapi.model.NoteResponse;
+import com.teletronics.notesapi.model.NoteSearchResult;
 import com.teletronics.notesapi.model.NoteSummary;
 import com.teletronics.notesapi.model.store.Note;
-import com.teletronics.notesapi.respository.NoteRepository;
+import com.teletronics.notesapi.model.store.NoteSummaryView;
+import com.teletronics.notesapi.respository.NoteStore;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.*;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 public class NoteService {
-    private static final Pattern WORD_SPLIT_PATTERN = Pattern.compile("[\\s.,!?;:]+");
-
-    private final NoteRepository noteRepository;
+    private final NoteStore noteStore;
+    private final NoteStatsService noteStatsService;
+    private final TagCountService tagCountService;
+    private final NoteChangeService noteChangeService;
+    private final NoteChangeFeed noteChangeFeed;
     private final NoteMapper noteMapper;
 
     @Autowired
-    public NoteService(NoteRepository noteRepository, NoteMapper noteMapper) {
-        this.noteRepository = noteRepository;
+    public NoteService(NoteStore noteStore, NoteStatsService noteStatsService,
+                       TagCountService tagCountService, NoteChangeService noteChangeService, NoteChangeFeed noteChangeFeed,
+                       NoteMapper noteMapper) {
+        this.noteStore = noteStore;
+        this.noteStatsService = noteStatsService;
+        this.tagCountService = tagCountService;
+        this.noteChangeService = noteChangeService;
+        this.noteChangeFeed = noteChangeFeed;
         this.noteMapper = noteMapper;
     }
 
-    public List<NoteResponse> fetchNotes(Set<Constant.Tag> tags, int page, int size) {
-        Page<Note> notesPage = getNotesPage(tags, page, size);
-
+    public List<NoteResponse> fetchNotes(String tenantId, Set<Constant.Tag> tags, int page, int size) {
+        Page<Note> notesPage = noteStore.findPage(tenantId, tags, PageRequest.of(page, size));
         return noteMapper.toResponseDTOList(notesPage.getContent());
     }
 
-    public List<NoteSummary> fetchNoteSummaries(Set<Constant.Tag> tags, int page, int size) {
-        Page<Note> notesPage = getNotesPage(tags, page, size);
-        return noteMapper.toSummaryDTOList(notesPage.getContent());
+    public List<NoteSummary> fetchNoteSummaries(String tenantId, Set<Constant.Tag> tags, int page, int size) {
+        Page<NoteSummaryView> summariesPage = noteStore.findSummaryPage(tenantId, tags, PageRequest.of(page, size));
+        return noteMapper.toSummaryDTOListFromView(summariesPage.getContent());
     }
 
-    public NoteResponse createNote(NoteRequest noteRequest) {
-        return noteMapper.toResponseDTO(noteRepository.save(noteMapper.toEntity(noteRequest)));
+    public CursorPage<NoteResponse> fetchNotesByCursor(String tenantId, Set<Constant.Tag> tags, String cursor, int size) {
+        Slice<Note> notesSlice = noteStore.findSlice(tenantId, tags, NoteCursor.decode(cursor).orElse(null), size);
+        return new CursorPage<>(noteMapper.toResponseDTOList(notesSlice.getContent()),
+                nextCursor(notesSlice, note -> NoteCursor.of(note.getCreatedDate(), note.getId())));
     }
 
-    public NoteResponse getNote(UUID id) {
-        return noteRepository.findById(id)
-                .map(noteMapper::toResponseDTO)
-                .orElseThrow(() -> throwResourceNotFoundException(id));
+    public CursorPage<NoteSummary> fetchNoteSummariesByCursor(String tenantId, Set<Constant.Tag> tags, String cursor, int size) {
+        Slice<NoteSummaryView> summariesSlice = noteStore.findSummarySlice(tenantId, tags, NoteCursor.decode(cursor).orElse(null), size);
+        return new CursorPage<>(noteMapper.toSummaryDTOListFromView(summariesSlice.getContent()),
+                nextCursor(summariesSlice, summary -> NoteCursor.of(summary.getCreatedDate(), summary.getId())));
     }
 
-    public NoteResponse updateNote(UUID id, NoteRequest noteRequest) {
-        Note existingNote = noteRepository.findById(id)
-                .orElseThrow(() -> throwResourceNotFoundException(id));
-        existingNote.setTitle(noteRequest.getTitle());
-        existingNote.setText(noteRequest.getText());
-        existingNote.setTags(noteRequest.getTags());
-
-        Note updatedNote = noteRepository.save(existingNote);
-        return noteMapper.toResponseDTO(updatedNote);
+    public List<NoteSearchResult> searchNotes(String tenantId, String query, Set<Constant.Tag> tags, int page, int size) {
+        return noteMapper.toSearchResultDTOList(noteStore.search(tenantId, query, tags, PageRequest.of(page, size)));
     }
 
-    public void deleteNote(UUID id) {
-        if (!noteRepository.existsById(id)) {
-            throw throwResourceNotFoundException(id);
-        }
-        noteRepository.deleteById(id);
+    public NoteResponse createNote(String tenantId, NoteRequest noteRequest) {
+        Note note = noteMapper.toEntity(noteRequest);
+        note.setTenantId(tenantId);
+        Note createdNote = noteStore.insert(note);
+        noteStatsService.refresh(createdNote);
+        tagCountService.added(tenantId, createdNote.getTags());
+        noteChangeService.recordChange(tenantId);
+        noteChangeFeed.added(tenantId, createdNote.getId(), createdNote.getTags());
+        return noteMapper.toResponseDTO(createdNote);
     }
 
-    public Map<String, Integer> getNoteTextStats(UUID id) {
-        Note note = noteRepository.findById(id)
+    @Cacheable(cacheNames = CacheConfig.NOTES_CACHE, key = CacheConfig.NOTE_KEY)
+    public NoteResponse getNote(String tenantId, UUID id) {
+        return noteStore.findById(tenantId, id)
+                .map(noteMapper::toResponseDTO)
                 .orElseThrow(() -> throwResourceNotFoundException(id));
-        return calculateWordFrequency(note.getText());
     }
 
-    private ResourceNotFoundException throwResourceNotFoundException(UUID id) {
-        return new ResourceNotFoundException(String.format("Note with ID %s not found", id));
+    /**
+     * Updates the note in a single {@code findAndModify}. When {@code expectedVersion} is given the update only
+     * applies if the note still has that version; the existence check needed to tell a stale version from a
+     * missing note is only made when the update does not apply.
+     */
+    @CacheEvict(cacheNames = CacheConfig.NOTES_CACHE, key = CacheConfig.NOTE_KEY)
+    public NoteResponse updateNote(String tenantId, UUID id, NoteRequest noteRequest, Long expectedVersion) {
+        Instant lastModifiedDate = Instant.now();
+        Note previousNote = noteStore.findAndUpdateContent(tenantId, id, expectedVersion,
+                        noteRequest.getTitle(), noteRequest.getText(), noteRequest.getTags(), lastModifiedDate)
+                .orElseThrow(() -> expectedVersion != null && noteStore.existsById(tenantId, id)
+                        ? new PreconditionFailedException(String.format("Note with ID %s has been modified", id))
+                        : throwResourceNotFoundException(id));
+        // The previous version is returned so tag counts can be adjusted; the update is applied to it locally.
+        Note updatedNote = new Note(id, noteRequest.getTitle(), noteRequest.getText(), noteRequest.getTags(),
+                previousNote.getCreatedDate());
+        updatedNote.setTenantId(tenantId);
+        updatedNote.setVersion(previousNote.getVersion() == null ? 1 : previousNote.getVersion() + 1);
+        updatedNote.setLastModifiedDate(lastModifiedDate);
+        noteStatsService.refresh(updatedNote);
+        tagCountService.changed(tenantId, previousNote.getTags(), updatedNote.getTags());
+        noteChangeService.recordChange(tenantId);
+        noteChangeFeed.changed(tenantId, id, previousNote.getTags(), updatedNote.getTags());
+        return noteMapper.toResponseDTO(updatedNote);
     }
 
-    private Page<Note> getNotesPage(Set<Constant.Tag> tags, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdDate").descending());
-
-        return Optional.ofNullable(tags)
-                .filter(__ -> !tags.isEmpty())
-                .map(__ -> noteRepository.findByTagsIn(tags, pageable))
-                .orElseGet(() -> noteRepository.findAll(pageable));
+    @CacheEvict(cacheNames = CacheConfig.NOTES_CACHE, key = CacheConfig.NOTE_KEY)
+    public void deleteNote(String tenantId, UUID id) {
+        Note deletedNote = noteStore.findAndRemove(tenantId, id)
+                .orElseThrow(() -> throwResourceNotFoundException(id));
+        noteStatsService.delete(tenantId, id);
+        tagCountService.removed(tenantId, deletedNote.getTags());
+        noteChangeService.recordChange(tenantId);
+        noteChangeFeed.removed(tenantId, id, deletedNote.getTags());
     }
 
-    private Map<String, Integer> calculateWordFrequency(String text) {
-        String[] words = WORD_SPLIT_PATTERN.split(text);
-        Map<String, Integer> wordFrequencyMap = countWordOccurrences(words);
-        return sortWordFrequencyMap(wordFrequencyMap);
+    /**
+     * Stats carry the tenant of their note, so a cached or stored table is served without reading the note. The note
+     * is only read to compute a missing table.
+     */
+    public Map<String, Integer> getNoteTextStats(String tenantId, UUID id, Integer top) {
+        Map<String, Integer> wordFrequency = noteStatsService.findWordFrequency(tenantId, id)
+                .orElseGet(() -> noteStatsService.refresh(noteStore.findById(tenantId, id)
+                        .orElseThrow(() -> throwResourceNotFoundException(id))));
+        return top == null ? wordFrequency : NoteStatsService.topWords(wordFrequency, top);
     }
 
-    private Map<String, Integer> countWordOccurrences(String[] words) {
-        Map<String, Integer> wordFrequencyMap = new LinkedHashMap<>();
-        Arrays.stream(words)
-                .map(String::toLowerCase)
-                .forEach(word -> wordFrequencyMap.put(word, wordFrequencyMap.getOrDefault(word, 0) + 1));
-        return wordFrequencyMap;
+    private ResourceNotFoundException throwResourceNotFoundException(UUID id) {
+        return new ResourceNotFoundException(String.format("Note with ID %s not found", id));
     }
 
-    private Map<String, Integer> sortWordFrequencyMap(Map<String, Integer> wordFrequencyMap) {
-        return wordFrequencyMap.entrySet()
-                .stream()
-                .sorted((entry1, entry2) -> entry2.getValue().compareTo(entry1.getValue()))
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        Map.Entry::getValue,
-                        (e1, e2) -> e1,
-                        LinkedHashMap::new
-                ));
+    private <T> String nextCursor(Slice<T> slice, Function<T, NoteCursor> cursorOf) {
+        if (!slice.hasNext() || slice.getContent().isEmpty()) {
+            return null;
+        }
+        List<T> content = slice.getContent();
+        return cursorOf.apply(content.get(content.size() - 1)).encode();
     }
 }
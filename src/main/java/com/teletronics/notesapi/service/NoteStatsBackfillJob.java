@@ -0,0 +1,79 @@
+package com.teletronics.notesapi.service;
+
+import com.teletronics.notesapi.model.store.Note;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * One-off job that writes stats for notes created before stats were precomputed. Enable it with
+ * {@code notes.stats.backfill.enabled}; it runs on a background thread after startup and is safe to re-run.
+ */
+@Slf4j
+@Component
+public class NoteStatsBackfillJob {
+
+    private final MongoTemplate mongoTemplate;
+    private final NoteStatsService noteStatsService;
+    private final boolean enabled;
+    private final int batchSize;
+
+    @Autowired
+    public NoteStatsBackfillJob(MongoTemplate mongoTemplate,
+                                NoteStatsService noteStatsService,
+                                @Value("${notes.stats.backfill.enabled:false}") boolean enabled,
+                                @Value("${notes.stats.backfill.batch-size:500}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.noteStatsService = noteStatsService;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillAfterStartup() {
+        if (!enabled) {
+            return;
+        }
+        Thread backfill = new Thread(() -> {
+            try {
+                backfill();
+            } catch (RuntimeException ex) {
+                log.warn("Note stats backfill failed", ex);
+            }
+        }, "note-stats-backfill");
+        backfill.setDaemon(true);
+        backfill.start();
+    }
+
+    public int backfill() {
+        Query query = new Query();
+        query.fields().include("text");
+        query.cursorBatchSize(batchSize);
+
+        int written = 0;
+        List<Note> batch = new ArrayList<>(batchSize);
+        try (Stream<Note> notes = mongoTemplate.stream(query, Note.class)) {
+            for (Note note : (Iterable<Note>) notes::iterator) {
+                batch.add(note);
+                if (batch.size() == batchSize) {
+                    written += noteStatsService.refreshMissing(batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            written += noteStatsService.refreshMissing(batch);
+        }
+        log.info("Note stats backfill finished, {} notes updated", written);
+        return written;
+    }
+}
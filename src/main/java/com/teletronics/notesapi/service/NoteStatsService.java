@@ -0,0 +1,118 @@
+package com.teletronics.notesapi.service;
+
+import com.teletronics.notesapi.config.CacheConfig;
+import com.teletronics.notesapi.config.MetricsConfig;
+import com.teletronics.notesapi.model.store.Note;
+import com.teletronics.notesapi.model.store.NoteStats;
+import com.teletronics.notesapi.respository.NoteStatsStore;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Maintains the precomputed word frequency table of every note, so {@code /stats} reads never tokenize text.
+ */
+@Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+public class NoteStatsService {
+
+    private final NoteStatsStore noteStatsStore;
+
+    @Autowired
+    public NoteStatsService(NoteStatsStore noteStatsStore) {
+        this.noteStatsStore = noteStatsStore;
+    }
+
+    /**
+     * Returns the full stored table. It is cached, so {@code top} reads of hot notes are served by truncating the
+     * cached table instead of querying a {@code $slice} per limit, which could not be invalidated per note.
+     *
+     * @return the table, or empty when the note has none or belongs to another tenant
+     */
+    @Cacheable(cacheNames = CacheConfig.NOTE_STATS_CACHE, key = CacheConfig.NOTE_KEY, unless = "#result == null")
+    public Optional<Map<String, Integer>> findWordFrequency(String tenantId, UUID id) {
+        return noteStatsStore.findById(id)
+                .filter(noteStats -> tenantId.equals(noteStats.getTenantId()))
+                .map(NoteStatsService::toWordFrequencyMap);
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.NOTE_STATS_CACHE,
+            key = "new org.springframework.cache.interceptor.SimpleKey(#note.tenantId, #note.id)")
+    public Map<String, Integer> refresh(Note note) {
+        Map<String, Integer> wordFrequency = WordFrequencyCalculator.calculateWordFrequency(note.getText());
+        noteStatsStore.save(toNoteStats(note, wordFrequency));
+        return wordFrequency;
+    }
+
+    /**
+     * Returns the first {@code limit} entries of a table already ordered by descending count.
+     */
+    public static Map<String, Integer> topWords(Map<String, Integer> wordFrequency, int limit) {
+        if (limit >= wordFrequency.size()) {
+            return wordFrequency;
+        }
+        Map<String, Integer> topWords = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : wordFrequency.entrySet()) {
+            if (topWords.size() == limit) {
+                break;
+            }
+            topWords.put(entry.getKey(), entry.getValue());
+        }
+        return topWords;
+    }
+
+    /**
+     * Computes and stores stats for the given notes that do not have any yet.
+     *
+     * @return the number of notes whose stats were written
+     */
+    public int refreshMissing(List<Note> notes) {
+        Set<UUID> existingIds = new HashSet<>();
+        noteStatsStore.findAllById(notes.stream().map(Note::getId).toList())
+                .forEach(stats -> existingIds.add(stats.getId()));
+
+        List<NoteStats> missingStats = notes.stream()
+                .filter(note -> !existingIds.contains(note.getId()))
+                .map(note -> toNoteStats(note, WordFrequencyCalculator.calculateWordFrequency(note.getText())))
+                .toList();
+        noteStatsStore.saveAll(missingStats);
+        return missingStats.size();
+    }
+
+    /**
+     * Stores stats of notes that were just inserted with a single {@code insertMany}.
+     */
+    public void storeNew(List<Note> notes) {
+        noteStatsStore.insertAll(notes.stream()
+                .map(note -> toNoteStats(note, WordFrequencyCalculator.calculateWordFrequency(note.getText())))
+                .toList());
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.NOTE_STATS_CACHE, key = CacheConfig.NOTE_KEY)
+    public void delete(String tenantId, UUID id) {
+        noteStatsStore.deleteById(id);
+    }
+
+    /**
+     * Deletes the stats of many notes at once. Callers evict the affected {@code noteStats} cache entries.
+     */
+    public void deleteAll(Collection<UUID> noteIds) {
+        noteStatsStore.deleteAllById(noteIds);
+    }
+
+    static NoteStats toNoteStats(Note note, Map<String, Integer> wordFrequency) {
+        List<NoteStats.WordCount> words = new ArrayList<>(wordFrequency.size());
+        wordFrequency.forEach((word, count) -> words.add(new NoteStats.WordCount(word, count)));
+        return new NoteStats(note.getId(), note.getTenantId(), words);
+    }
+
+    static Map<String, Integer> toWordFrequencyMap(NoteStats noteStats) {
+        Map<String, Integer> wordFrequency = new LinkedHashMap<>();
+        noteStats.getWords().forEach(wordCount -> wordFrequency.put(wordCount.getWord(), wordCount.getCount()));
+        return wordFrequency;
+    }
+}
@@ -0,0 +1,277 @@
+package com.teletronics.notesapi.service;
+
+import com.teletronics.notesapi.exception.TooManyRequestsException;
+import com.teletronics.notesapi.mapper.NoteMapper;
+import com.teletronics.notesapi.model.NoteRequest;
+import com.teletronics.notesapi.model.NoteResponse;
+import com.teletronics.notesapi.model.store.Note;
+import com.teletronics.notesapi.respository.BulkInsertResult;
+import com.teletronics.notesapi.respository.NoteStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Accepts new notes into a bounded queue and stores them from a single writer thread in unordered bulk inserts, so a
+ * burst of {@code POST /notes} reaches the note store as a few bulk writes instead of one insert per request. Enable it with
+ * {@code notes.write-behind.enabled}. A queued note is answered before it is stored and is lost if the instance dies
+ * before the writer reaches it; a full queue rejects new notes rather than growing.
+ * <p>
+ * Inserts are idempotent by note id, so a bulk write that fails part-way on a transient error is retried as a whole
+ * until the store is back; any other failure drops the batch and counts its notes as failed.
+ * On shutdown new notes are rejected and the writer gets {@code notes.write-behind.drain-timeout} to empty the queue.
+ */
+@Slf4j
+@Service
+public class NoteWriteBehindService {
+    static final String QUEUE_DEPTH_GAUGE = "notes.write-behind.queue.depth";
+    static final String BATCH_SIZE_SUMMARY = "notes.write-behind.batch.size";
+    static final String REJECTED_COUNTER = "notes.write-behind.rejected";
+    static final String FAILED_COUNTER = "notes.write-behind.failed";
+    private static final long POLL_TIMEOUT_MILLIS = 500;
+
+    private final NoteStore noteStore;
+    private final NoteStatsService noteStatsService;
+    private final TagCountService tagCountService;
+    private final NoteChangeService noteChangeService;
+    private final NoteChangeFeed noteChangeFeed;
+    private final NoteMapper noteMapper;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration maxDelay;
+    private final Duration retryDelay;
+    private final Duration drainTimeout;
+    private final BlockingQueue<Note> queue;
+    private final DistributionSummary batchSizeSummary;
+    private final Counter rejectedCounter;
+    private final Counter failedCounter;
+    // Held for reading while a note is queued and for writing to stop accepting, so no note is queued after the
+    // writer saw the last one.
+    private final ReadWriteLock acceptingLock = new ReentrantReadWriteLock();
+    private volatile boolean accepting = true;
+    private Thread writer;
+
+    @Autowired
+    public NoteWriteBehindService(NoteStore noteStore,
+                                  NoteStatsService noteStatsService,
+                                  TagCountService tagCountService,
+                                  NoteChangeService noteChangeService,
+                                  NoteChangeFeed noteChangeFeed,
+                                  NoteMapper noteMapper,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${notes.write-behind.enabled:false}") boolean enabled,
+                                  @Value("${notes.write-behind.capacity:10000}") int capacity,
+                                  @Value("${notes.write-behind.batch-size:1000}") int batchSize,
+                                  @Value("${notes.write-behind.max-delay:20ms}") Duration maxDelay,
+                                  @Value("${notes.write-behind.retry-delay:1s}") Duration retryDelay,
+                                  @Value("${notes.write-behind.drain-timeout:30s}") Duration drainTimeout) {
+        this.noteStore = noteStore;
+        this.noteStatsService = noteStatsService;
+        this.tagCountService = tagCountService;
+        this.noteChangeService = noteChangeService;
+        this.noteChangeFeed = noteChangeFeed;
+        this.noteMapper = noteMapper;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxDelay = maxDelay;
+        this.retryDelay = retryDelay;
+        this.drainTimeout = drainTimeout;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        Gauge.builder(QUEUE_DEPTH_GAUGE, queue, BlockingQueue::size)
+                .description("Notes accepted but not stored yet")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder(BATCH_SIZE_SUMMARY)
+                .description("Notes per bulk insert of the write-behind writer")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder(REJECTED_COUNTER)
+                .description("Notes rejected because the write-behind queue was full")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder(FAILED_COUNTER)
+                .description("Accepted notes that the note store refused to store")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a new note for the writer.
+     *
+     * @return the note as it will be stored, with its generated id
+     * @throws TooManyRequestsException when the queue is full or the instance is shutting down
+     */
+    public NoteResponse enqueue(String tenantId, NoteRequest noteRequest) {
+        acceptingLock.readLock().lock();
+        try {
+            if (accepting) {
+                Note note = noteMapper.toEntity(noteRequest);
+                note.setTenantId(tenantId);
+                if (queue.offer(note)) {
+                    return noteMapper.toResponseDTO(note);
+                }
+            }
+        } finally {
+            acceptingLock.readLock().unlock();
+        }
+        rejectedCounter.increment();
+        throw new TooManyRequestsException("Too many notes are waiting to be stored, retry later");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startWriter() {
+        if (!enabled) {
+            return;
+        }
+        writer = new Thread(this::write, "note-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void close() {
+        acceptingLock.writeLock().lock();
+        try {
+            accepting = false;
+        } finally {
+            acceptingLock.writeLock().unlock();
+        }
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.join(drainTimeout.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            writer.interrupt();
+            log.warn("Stopped writing queued notes after {} with {} notes still queued", drainTimeout, queue.size());
+        }
+    }
+
+    private void write() {
+        try {
+            while (accepting || !queue.isEmpty()) {
+                Note first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<Note> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                collect(batch);
+                try {
+                    flush(batch);
+                } catch (RuntimeException ex) {
+                    log.error("Failed to store {} queued notes", batch.size(), ex);
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Waits up to max-delay for the batch to fill, so a steady trickle of notes is still written in bulk.
+    private void collect(List<Note> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + maxDelay.toNanos();
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            Note next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<Note> batch) throws InterruptedException {
+        batchSizeSummary.record(batch.size());
+        BulkInsertResult result = insert(batch);
+        List<Note> inserted = new ArrayList<>(batch.size());
+        List<Note> duplicates = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            Note note = batch.get(i);
+            if (result.getDuplicates().contains(i)) {
+                duplicates.add(note);
+            } else if (result.getFailures().containsKey(i)) {
+                failedCounter.increment();
+                log.warn("Dropped queued note {} of tenant {}: {}", note.getId(), note.getTenantId(), result.getFailures().get(i));
+            } else {
+                inserted.add(note);
+            }
+        }
+        storeStats(inserted, duplicates);
+        // Ids are generated per note, so a duplicate was stored by an earlier attempt of this batch that failed
+        // part-way, before anything below was applied for it.
+        List<Note> stored = new ArrayList<>(inserted);
+        stored.addAll(duplicates);
+        stored.forEach(note -> {
+            tagCountService.added(note.getTenantId(), note.getTags());
+            noteChangeFeed.added(note.getTenantId(), note.getId(), note.getTags());
+        });
+        stored.stream().map(Note::getTenantId).distinct().forEach(noteChangeService::recordChange);
+    }
+
+    // The notes are stored by now, so a failure here must not skip the rest: a note without stats gets them
+    // computed on its first /stats read.
+    private void storeStats(List<Note> inserted, List<Note> duplicates) {
+        try {
+            if (!inserted.isEmpty()) {
+                noteStatsService.storeNew(inserted);
+            }
+            if (!duplicates.isEmpty()) {
+                // Possibly stored before their stats were.
+                noteStatsService.refreshMissing(duplicates);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Failed to store stats of {} queued notes, they are computed on first read",
+                    inserted.size() + duplicates.size(), ex);
+        }
+    }
+
+    private BulkInsertResult insert(List<Note> batch) throws InterruptedException {
+        while (true) {
+            try {
+                return noteStore.insertAllIdempotent(batch, batchSize);
+            } catch (TransientDataAccessException | DataAccessResourceFailureException ex) {
+                // The queue fills up meanwhile, so clients get 429 until the store is back.
+                log.warn("Failed to store {} queued notes, retrying in {}", batch.size(), retryDelay, ex);
+                Thread.sleep(retryDelay.toMillis());
+            } catch (DataAccessException ex) {
+                log.error("Failed to store {} queued notes, dropping them", batch.size(), ex);
+                Map<Integer, String> failures = new HashMap<>();
+                for (int i = 0; i < batch.size(); i++) {
+                    failures.put(i, ex.getMessage());
+                }
+                return new BulkInsertResult(Set.of(), failures);
+            }
+        }
+    }
+}
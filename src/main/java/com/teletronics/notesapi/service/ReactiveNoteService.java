@@ -0,0 +1,241 @@
+package com.teletronics.notesapi.service;
+
+import com.teletronics.notesapi.config.CacheConfig;
+import com.teletronics.notesapi.exception.PreconditionFailedException;
+import com.teletronics.notesapi.exception.ResourceNotFoundException;
+import com.teletronics.notesapi.mapper.NoteMapper;
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.CursorPage;
+import com.teletronics.notesapi.model.NoteCursor;
+import com.teletronics.notesapi.model.NoteRequest;
+import com.teletronics.notesapi.model.NoteResponse;
+import com.teletronics.notesapi.model.NoteSummary;
+import com.teletronics.notesapi.model.store.Note;
+import com.teletronics.notesapi.model.store.NoteSummaryView;
+import com.teletronics.notesapi.respository.ReactiveNoteRepository;
+import com.teletronics.notesapi.respository.ReactiveNoteStatsRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Non-blocking variant of {@link NoteService} for the {@code reactive} profile. Listings are returned as a
+ * {@link Flux} that emits notes as the Mongo cursor delivers them.
+ * <p>
+ * Writes have the side effects of their {@link NoteService} counterparts: tag counts, the change token, the change
+ * feed and the note caches are maintained by the same services. Recording the change token is a blocking store call,
+ * so the side effects run on the bounded elastic scheduler, off the event loop.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveNoteService {
+    private static final Sort KEYSET_SORT = Sort.by(Sort.Order.desc("createdDate"), Sort.Order.desc("id"));
+
+    private final ReactiveNoteRepository noteRepository;
+    private final ReactiveNoteStatsRepository noteStatsRepository;
+    private final NoteMapper noteMapper;
+    private final TagCountService tagCountService;
+    private final NoteChangeService noteChangeService;
+    private final NoteChangeFeed noteChangeFeed;
+    private final CacheManager cacheManager;
+
+    @Autowired
+    public ReactiveNoteService(ReactiveNoteRepository noteRepository,
+                               ReactiveNoteStatsRepository noteStatsRepository,
+                               NoteMapper noteMapper,
+                               TagCountService tagCountService,
+                               NoteChangeService noteChangeService,
+                               NoteChangeFeed noteChangeFeed,
+                               CacheManager cacheManager) {
+        this.noteRepository = noteRepository;
+        this.noteStatsRepository = noteStatsRepository;
+        this.noteMapper = noteMapper;
+        this.tagCountService = tagCountService;
+        this.noteChangeService = noteChangeService;
+        this.noteChangeFeed = noteChangeFeed;
+        this.cacheManager = cacheManager;
+    }
+
+    public Flux<NoteResponse> fetchNotes(String tenantId, Set<Constant.Tag> tags, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by("createdDate").descending());
+        Flux<Note> notes = hasTags(tags)
+                ? noteRepository.findByTenantIdAndTagsIn(tenantId, tags, pageable)
+                : noteRepository.findAllByTenantId(tenantId, pageable);
+        return notes.map(noteMapper::toResponseDTO);
+    }
+
+    public Flux<NoteSummary> fetchNoteSummaries(String tenantId, Set<Constant.Tag> tags, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by("createdDate").descending());
+        Flux<NoteSummaryView> summaries = hasTags(tags)
+                ? noteRepository.findSummariesByTenantIdAndTagsIn(tenantId, tags, pageable)
+                : noteRepository.findSummariesByTenantId(tenantId, pageable);
+        return summaries.map(noteMapper::toSummaryDTO);
+    }
+
+    public Mono<CursorPage<NoteResponse>> fetchNotesByCursor(String tenantId, Set<Constant.Tag> tags, String cursor, int size) {
+        // One extra note is read to tell whether another slice follows.
+        Pageable pageable = PageRequest.of(0, size + 1, KEYSET_SORT);
+        Flux<Note> notes = NoteCursor.decode(cursor)
+                .map(position -> hasTags(tags)
+                        ? noteRepository.findAllByTagsInAfter(tenantId, tags, position.getCreatedDate(), position.getId(), pageable)
+                        : noteRepository.findAllAfter(tenantId, position.getCreatedDate(), position.getId(), pageable))
+                .orElseGet(() -> hasTags(tags)
+                        ? noteRepository.findByTenantIdAndTagsIn(tenantId, tags, pageable)
+                        : noteRepository.findAllByTenantId(tenantId, pageable));
+        return toCursorPage(notes, size, note -> NoteCursor.of(note.getCreatedDate(), note.getId()),
+                noteMapper::toResponseDTOList);
+    }
+
+    public Mono<CursorPage<NoteSummary>> fetchNoteSummariesByCursor(String tenantId, Set<Constant.Tag> tags, String cursor, int size) {
+        Pageable pageable = PageRequest.of(0, size + 1, KEYSET_SORT);
+        Flux<NoteSummaryView> summaries = NoteCursor.decode(cursor)
+                .map(position -> hasTags(tags)
+                        ? noteRepository.findSummariesByTagsInAfter(tenantId, tags, position.getCreatedDate(), position.getId(), pageable)
+                        : noteRepository.findSummariesAfter(tenantId, position.getCreatedDate(), position.getId(), pageable))
+                .orElseGet(() -> hasTags(tags)
+                        ? noteRepository.findSummariesByTenantIdAndTagsIn(tenantId, tags, pageable)
+                        : noteRepository.findSummariesByTenantId(tenantId, pageable));
+        return toCursorPage(summaries, size, summary -> NoteCursor.of(summary.getCreatedDate(), summary.getId()),
+                noteMapper::toSummaryDTOListFromView);
+    }
+
+    public Mono<NoteResponse> createNote(String tenantId, NoteRequest noteRequest) {
+        Note newNote = noteMapper.toEntity(noteRequest);
+        newNote.setTenantId(tenantId);
+        return noteRepository.save(newNote)
+                .flatMap(note -> refreshStats(note).thenReturn(note))
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(note -> {
+                    tagCountService.added(tenantId, note.getTags());
+                    noteChangeService.recordChange(tenantId);
+                    noteChangeFeed.added(tenantId, note.getId(), note.getTags());
+                })
+                .map(noteMapper::toResponseDTO);
+    }
+
+    public Mono<NoteResponse> getNote(String tenantId, UUID id) {
+        return findNote(tenantId, id).map(noteMapper::toResponseDTO);
+    }
+
+    /**
+     * Updates the note in a single {@code findAndModify} carrying its shard key, like
+     * {@link NoteService#updateNote}. When {@code expectedVersion} is given the update only applies if the note still
+     * has that version; the existence check telling a stale version from a missing note is only made when it does not.
+     */
+    public Mono<NoteResponse> updateNote(String tenantId, UUID id, NoteRequest noteRequest, Long expectedVersion) {
+        Instant lastModifiedDate = Instant.now();
+        return noteRepository.findAndUpdateContent(tenantId, id, expectedVersion,
+                        noteRequest.getTitle(), noteRequest.getText(), noteRequest.getTags(), lastModifiedDate)
+                .switchIfEmpty(Mono.defer(() -> notUpdated(tenantId, id, expectedVersion)))
+                .flatMap(previousNote -> {
+                    // The previous version is returned so tag counts can be adjusted; the update is applied to it.
+                    Note updatedNote = new Note(id, noteRequest.getTitle(), noteRequest.getText(),
+                            noteRequest.getTags(), previousNote.getCreatedDate());
+                    updatedNote.setTenantId(tenantId);
+                    updatedNote.setVersion(previousNote.getVersion() == null ? 1L : previousNote.getVersion() + 1);
+                    updatedNote.setLastModifiedDate(lastModifiedDate);
+                    return refreshStats(updatedNote)
+                            .publishOn(Schedulers.boundedElastic())
+                            .doOnNext(wordFrequency -> {
+                                evictCaches(tenantId, id);
+                                tagCountService.changed(tenantId, previousNote.getTags(), updatedNote.getTags());
+                                noteChangeService.recordChange(tenantId);
+                                noteChangeFeed.changed(tenantId, id, previousNote.getTags(), updatedNote.getTags());
+                            })
+                            .thenReturn(updatedNote);
+                })
+                .map(noteMapper::toResponseDTO);
+    }
+
+    // A single findAndRemove, so a note deleted concurrently is reported as not found instead of deleted twice.
+    public Mono<Void> deleteNote(String tenantId, UUID id) {
+        return noteRepository.findAndRemove(tenantId, id)
+                .switchIfEmpty(Mono.error(() -> resourceNotFoundException(id)))
+                .flatMap(deletedNote -> noteStatsRepository.deleteById(id)
+                        .publishOn(Schedulers.boundedElastic())
+                        .then(Mono.fromRunnable(() -> {
+                            evictCaches(tenantId, id);
+                            tagCountService.removed(tenantId, deletedNote.getTags());
+                            noteChangeService.recordChange(tenantId);
+                            noteChangeFeed.removed(tenantId, id, deletedNote.getTags());
+                        })));
+    }
+
+    // Stats carry the tenant of their note, so the note is only read to compute a missing table.
+    public Mono<Map<String, Integer>> getNoteTextStats(String tenantId, UUID id, Integer top) {
+        return noteStatsRepository.findById(id)
+                .filter(noteStats -> tenantId.equals(noteStats.getTenantId()))
+                .map(NoteStatsService::toWordFrequencyMap)
+                .switchIfEmpty(Mono.defer(() -> findNote(tenantId, id).flatMap(this::refreshStats)))
+                .map(wordFrequency -> top == null ? wordFrequency : NoteStatsService.topWords(wordFrequency, top));
+    }
+
+    private Mono<Note> notUpdated(String tenantId, UUID id, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return Mono.error(resourceNotFoundException(id));
+        }
+        return noteRepository.existsByTenantIdAndId(tenantId, id)
+                .flatMap(exists -> Mono.error(exists
+                        ? new PreconditionFailedException(String.format("Note with ID %s has been modified", id))
+                        : resourceNotFoundException(id)));
+    }
+
+    private Mono<Note> findNote(String tenantId, UUID id) {
+        return noteRepository.findByTenantIdAndId(tenantId, id)
+                .switchIfEmpty(Mono.error(() -> resourceNotFoundException(id)));
+    }
+
+    private Mono<Map<String, Integer>> refreshStats(Note note) {
+        // Tokenizing is CPU-bound, so it is kept off the event loop.
+        return Mono.fromCallable(() -> WordFrequencyCalculator.calculateWordFrequency(note.getText()))
+                .subscribeOn(Schedulers.parallel())
+                .flatMap(wordFrequency -> noteStatsRepository.save(NoteStatsService.toNoteStats(note, wordFrequency))
+                        .thenReturn(wordFrequency));
+    }
+
+    // NoteService stays a bean under this profile, so its cached notes and stats are evicted as its own writes do.
+    private void evictCaches(String tenantId, UUID id) {
+        SimpleKey key = new SimpleKey(tenantId, id);
+        for (String cacheName : new String[]{CacheConfig.NOTES_CACHE, CacheConfig.NOTE_STATS_CACHE}) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.evict(key);
+            }
+        }
+    }
+
+    private <T, R> Mono<CursorPage<R>> toCursorPage(Flux<T> results, int size, Function<T, NoteCursor> cursorOf,
+                                                    Function<List<T>, List<R>> mapper) {
+        return results.collectList().map(items -> {
+            if (items.size() <= size) {
+                return new CursorPage<>(mapper.apply(items), null);
+            }
+            List<T> content = items.subList(0, size);
+            return new CursorPage<>(mapper.apply(content), cursorOf.apply(content.get(size - 1)).encode());
+        });
+    }
+
+    private boolean hasTags(Set<Constant.Tag> tags) {
+        return tags != null && !tags.isEmpty();
+    }
+
+    private ResourceNotFoundException resourceNotFoundException(UUID id) {
+        return new ResourceNotFoundException(String.format("Note with ID %s not found", id));
+    }
+}
@@ -0,0 +1,186 @@
+package com.teletronics.notesapi.service;
+
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.respository.NoteStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory number of notes per tenant and tag, adjusted by every write of this instance and periodically replaced
+ * by the counts of the {@link NoteStore}. Between reconciliations the counts can drift by writes of other instances
+ * or writes racing a reconciliation. Once {@link NoteChangeStreamListener} follows the writes of every instance,
+ * counts are adjusted by it alone, so writes of this instance are not counted twice.
+ * <p>
+ * Only the very first read waits for a reconciliation. Once the counts are invalidated, reads keep serving them while
+ * a single background reconciliation replaces them.
+ */
+@Slf4j
+@Service
+public class TagCountService {
+
+    private final NoteStore noteStore;
+    private final Map<String, Map<Constant.Tag, AtomicLong>> counts = new ConcurrentHashMap<>();
+    private volatile boolean reconciled;
+    // Set once a reconciliation succeeded, so reads no longer need to wait for one.
+    private volatile boolean initialized;
+    private final AtomicBoolean reconciling = new AtomicBoolean();
+    private volatile boolean followingChangeStream;
+
+    @Autowired
+    public TagCountService(NoteStore noteStore) {
+        this.noteStore = noteStore;
+    }
+
+    /**
+     * Returns the count of every tag of the tenant, reconciling first if that has never happened yet.
+     */
+    public Map<Constant.Tag, Long> getCounts(String tenantId) {
+        if (!reconciled) {
+            if (initialized) {
+                reconcileInBackground();
+            } else {
+                reconcileIfStale();
+            }
+        }
+        Map<Constant.Tag, AtomicLong> tenantCounts = counts.get(tenantId);
+        Map<Constant.Tag, Long> snapshot = new EnumMap<>(Constant.Tag.class);
+        for (Constant.Tag tag : Constant.Tag.values()) {
+            snapshot.put(tag, tenantCounts == null ? 0L : tenantCounts.get(tag).get());
+        }
+        return snapshot;
+    }
+
+    public void added(String tenantId, Set<Constant.Tag> tags) {
+        if (!followingChangeStream) {
+            adjust(tenantId, tags, 1);
+        }
+    }
+
+    public void removed(String tenantId, Set<Constant.Tag> tags) {
+        if (!followingChangeStream) {
+            adjust(tenantId, tags, -1);
+        }
+    }
+
+    public void changed(String tenantId, Set<Constant.Tag> previousTags, Set<Constant.Tag> tags) {
+        removed(tenantId, previousTags);
+        added(tenantId, tags);
+    }
+
+    /**
+     * Hands the adjustments over to the change stream: from now on only {@link #applyChange} moves the counts.
+     */
+    void followChangeStream() {
+        followingChangeStream = true;
+    }
+
+    /**
+     * Takes the adjustments back while the change stream is down. The caller invalidates the counts, since the writes
+     * of other instances were missed meanwhile.
+     */
+    void unfollowChangeStream() {
+        followingChangeStream = false;
+    }
+
+    /**
+     * Applies a write observed on the change stream; {@code null} tags stand for a note that did not exist before
+     * or no longer exists after it.
+     */
+    void applyChange(String tenantId, Set<Constant.Tag> previousTags, Set<Constant.Tag> tags) {
+        adjust(tenantId, previousTags, -1);
+        adjust(tenantId, tags, 1);
+    }
+
+    /**
+     * Makes the next read reconcile, for changes whose effect on the counts is unknown.
+     */
+    void invalidate() {
+        reconciled = false;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileAfterStartup() {
+        Thread reconciler = new Thread(() -> {
+            try {
+                reconcile();
+            } catch (RuntimeException ex) {
+                log.warn("Initial tag count reconciliation failed", ex);
+            }
+        }, "tag-count-reconciler");
+        reconciler.setDaemon(true);
+        reconciler.start();
+    }
+
+    @Scheduled(initialDelayString = "${notes.tags.reconcile-interval:PT5M}",
+            fixedDelayString = "${notes.tags.reconcile-interval:PT5M}")
+    public synchronized void reconcile() {
+        // Set before counting, so an invalidation during the aggregation makes the next read reconcile again.
+        reconciled = true;
+        Map<String, Map<Constant.Tag, Long>> actual;
+        try {
+            actual = noteStore.countByTag();
+        } catch (RuntimeException ex) {
+            reconciled = false;
+            throw ex;
+        }
+        actual.keySet().forEach(this::tenantCounts);
+        counts.forEach((tenantId, tenantCounts) -> {
+            Map<Constant.Tag, Long> actualCounts = actual.getOrDefault(tenantId, Map.of());
+            tenantCounts.forEach((tag, count) -> count.set(actualCounts.getOrDefault(tag, 0L)));
+        });
+        initialized = true;
+    }
+
+    // Readers queued on the lock behind a reconciliation find it done and do not count again.
+    private synchronized void reconcileIfStale() {
+        if (!reconciled) {
+            reconcile();
+        }
+    }
+
+    private void reconcileInBackground() {
+        if (!reconciling.compareAndSet(false, true)) {
+            return;
+        }
+        Thread reconciler = new Thread(() -> {
+            try {
+                reconcileIfStale();
+            } catch (RuntimeException ex) {
+                log.warn("Tag count reconciliation failed", ex);
+            } finally {
+                reconciling.set(false);
+            }
+        }, "tag-count-reconciler");
+        reconciler.setDaemon(true);
+        reconciler.start();
+    }
+
+    private void adjust(String tenantId, Set<Constant.Tag> tags, int delta) {
+        if (tags != null && !tags.isEmpty()) {
+            Map<Constant.Tag, AtomicLong> tenantCounts = tenantCounts(tenantId);
+            tags.forEach(tag -> tenantCounts.get(tag).addAndGet(delta));
+        }
+    }
+
+    // The map of a tenant is never modified after it is created, so concurrent reads and increments need no locking.
+    private Map<Constant.Tag, AtomicLong> tenantCounts(String tenantId) {
+        return counts.computeIfAbsent(tenantId, __ -> {
+            Map<Constant.Tag, AtomicLong> tenantCounts = new EnumMap<>(Constant.Tag.class);
+            for (Constant.Tag tag : Constant.Tag.values()) {
+                tenantCounts.put(tag, new AtomicLong());
+            }
+            return tenantCounts;
+        });
+    }
+}
@@ -0,0 +1,153 @@
+package com.teletronics.notesapi.service;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Computes the case-insensitive word frequency table of a note text, ordered by descending count and then by
+ * first occurrence. Words are separated by whitespace and {@code . , ! ? ; :}.
+ * <p>
+ * The text is scanned once, folding case inline and counting into an open-addressing table, so a repeated word
+ * costs no allocation; a {@code String} is only created the first time a word is seen.
+ */
+public final class WordFrequencyCalculator {
+
+    private WordFrequencyCalculator() {
+    }
+
+    public static Map<String, Integer> calculateWordFrequency(String text) {
+        WordCounter counter = count(text);
+        long[] keys = new long[counter.size()];
+        for (int entry = 0; entry < keys.length; entry++) {
+            keys[entry] = counter.sortKey(entry);
+        }
+        Arrays.sort(keys);
+        return counter.toMap(keys);
+    }
+
+    private static boolean isDelimiter(char c) {
+        return switch (c) {
+            case ' ', '\t', '\n', '\u000B', '\f', '\r', '.', ',', '!', '?', ';', ':' -> true;
+            default -> false;
+        };
+    }
+
+    private static WordCounter count(String text) {
+        WordCounter counter = new WordCounter();
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i < length; i++) {
+            if (isDelimiter(text.charAt(i))) {
+                if (start >= 0) {
+                    counter.increment(text, start, i);
+                    start = -1;
+                }
+            } else if (start < 0) {
+                start = i;
+            }
+        }
+        if (start >= 0) {
+            counter.increment(text, start, length);
+        }
+        return counter;
+    }
+
+    /**
+     * String to int counter with linear probing. Entries are stored in first-occurrence order in parallel arrays;
+     * the probe table holds {@code entry + 1}, with 0 marking a free slot.
+     */
+    static final class WordCounter {
+        private static final int INITIAL_CAPACITY = 64;
+
+        private int[] table = new int[INITIAL_CAPACITY];
+        private String[] words = new String[INITIAL_CAPACITY / 2];
+        private int[] hashes = new int[INITIAL_CAPACITY / 2];
+        private int[] counts = new int[INITIAL_CAPACITY / 2];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        void increment(String text, int start, int end) {
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + Character.toLowerCase(text.charAt(i));
+            }
+            int mask = table.length - 1;
+            int slot = mix(hash) & mask;
+            while (table[slot] != 0) {
+                int entry = table[slot] - 1;
+                if (hashes[entry] == hash && matches(words[entry], text, start, end)) {
+                    counts[entry]++;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            add(slot, hash, text, start, end);
+        }
+
+        /**
+         * Ascending order of this key is descending count, then first occurrence.
+         */
+        long sortKey(int entry) {
+            return ((long) (Integer.MAX_VALUE - counts[entry]) << 32) | entry;
+        }
+
+        Map<String, Integer> toMap(long[] sortedKeys) {
+            Map<String, Integer> wordFrequencyMap = new LinkedHashMap<>((int) (sortedKeys.length / 0.75f) + 1);
+            for (long sortedKey : sortedKeys) {
+                int entry = (int) sortedKey;
+                wordFrequencyMap.put(words[entry], counts[entry]);
+            }
+            return wordFrequencyMap;
+        }
+
+        private void add(int slot, int hash, String text, int start, int end) {
+            char[] folded = new char[end - start];
+            for (int i = start; i < end; i++) {
+                folded[i - start] = Character.toLowerCase(text.charAt(i));
+            }
+            words[size] = new String(folded);
+            hashes[size] = hash;
+            counts[size] = 1;
+            table[slot] = ++size;
+            if (size == words.length) {
+                grow();
+            }
+        }
+
+        private void grow() {
+            int capacity = words.length * 2;
+            words = Arrays.copyOf(words, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            table = new int[capacity * 2];
+            int mask = table.length - 1;
+            for (int entry = 0; entry < size; entry++) {
+                int slot = mix(hashes[entry]) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = entry + 1;
+            }
+        }
+
+        private static boolean matches(String word, String text, int start, int end) {
+            if (word.length() != end - start) {
+                return false;
+            }
+            for (int i = start; i < end; i++) {
+                if (word.charAt(i - start) != Character.toLowerCase(text.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int mix(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
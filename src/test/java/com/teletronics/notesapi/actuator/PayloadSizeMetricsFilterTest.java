@@ -0,0 +1,65 @@
+package com.teletronics.notesapi.actuator;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PayloadSizeMetricsFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PayloadSizeMetricsFilter filter = new PayloadSizeMetricsFilter(meterRegistry);
+
+    @Test
+    void shouldRecordRequestAndResponseSizesByUriPattern() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/api/v1/notes/42");
+        request.setContent("{\"title\":\"x\"}".getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res)
+                    throws IOException {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/notes/{id}");
+                res.getOutputStream().write(new byte[100], 0, 100);
+                res.getOutputStream().write('\n');
+            }
+        });
+
+        // When
+        filter.doFilter(request, response, chain);
+
+        // Then
+        DistributionSummary responseSize = meterRegistry.get(PayloadSizeMetricsFilter.RESPONSE_SIZE)
+                .tag("uri", "/api/v1/notes/{id}").tag("method", "PUT").summary();
+        assertEquals(101, responseSize.totalAmount());
+        assertEquals(13, meterRegistry.get(PayloadSizeMetricsFilter.REQUEST_SIZE).summary().totalAmount());
+        assertEquals(101, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void shouldNotRecordRequestSizeWithoutBody() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/unmapped");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request, response, new MockFilterChain());
+
+        // Then
+        assertEquals(1, meterRegistry.get(PayloadSizeMetricsFilter.RESPONSE_SIZE).tag("uri", "UNKNOWN").summary().count());
+        assertNull(meterRegistry.find(PayloadSizeMetricsFilter.REQUEST_SIZE).summary());
+    }
+}
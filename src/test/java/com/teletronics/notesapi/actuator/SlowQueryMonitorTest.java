@@ -0,0 +1,162 @@
+package com.teletronics.notesapi.actuator;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlowQueryMonitorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Document> explainCommands = new ArrayList<>();
+
+    @Test
+    void shouldGroupSlowQueriesByShapeAndFlagCollectionScans() {
+        // Given
+        Document explain = Document.parse("""
+                {"queryPlanner": {
+                  "winningPlan": {"stage": "SORT", "inputStage": {"stage": "COLLSCAN"}},
+                  "rejectedPlans": [{"stage": "FETCH", "inputStage": {"stage": "IXSCAN", "indexName": "tags_createdDate"}}]
+                }}""");
+        SlowQueryMonitor monitor = monitor(explain);
+
+        // When
+        monitor.record("notesdb", "find", find("PERSONAL"), 150);
+        monitor.record("notesdb", "find", find("BUSINESS"), 250);
+        monitor.record("notesdb", "find", find("BUSINESS"), 5);
+
+        // Then
+        List<SlowQuery> slowQueries = monitor.getSlowQueries();
+        assertEquals(1, slowQueries.size());
+        SlowQuery slowQuery = slowQueries.get(0);
+        assertEquals("notes", slowQuery.getCollection());
+        assertEquals("{\"filter\": {\"tags\": {\"$in\": \"?\"}}, \"sort\": {\"createdDate\": -1}}", slowQuery.getShape());
+        assertEquals(2, slowQuery.getCount());
+        assertEquals(250, slowQuery.getMaxMillis());
+        assertEquals(List.of("SORT", "COLLSCAN"), slowQuery.getPlan());
+        assertEquals(Set.of(SlowQuery.Problem.COLLECTION_SCAN, SlowQuery.Problem.IN_MEMORY_SORT), slowQuery.getProblems());
+        assertEquals(2, meterRegistry.get(SlowQueryMonitor.SLOW_QUERY_COUNTER).counter().count());
+
+        // Explained once per interval, without session fields
+        assertEquals(1, explainCommands.size());
+        BsonDocument explained = (BsonDocument) explainCommands.get(0).get("explain");
+        assertFalse(explained.containsKey("lsid"));
+        assertFalse(explained.containsKey("$db"));
+        assertEquals("notes", explained.getString("find").getValue());
+    }
+
+    @Test
+    void shouldReportIndexedPlansWithoutProblems() {
+        // Given
+        Document explain = Document.parse("""
+                {"queryPlanner": {"winningPlan": {"queryPlan": {"stage": "FETCH",
+                  "inputStage": {"stage": "IXSCAN", "indexName": "tags_createdDate"}}}}}""");
+        SlowQueryMonitor monitor = monitor(explain);
+
+        // When
+        monitor.record("notesdb", "find", find("PERSONAL"), 150);
+
+        // Then
+        SlowQuery slowQuery = monitor.getSlowQueries().get(0);
+        assertEquals(List.of("FETCH", "IXSCAN(tags_createdDate)"), slowQuery.getPlan());
+        assertTrue(slowQuery.getProblems().isEmpty());
+    }
+
+    @Test
+    void shouldFlagSortStageLeftInAggregationPipeline() {
+        // Given
+        Document explain = Document.parse("""
+                {"stages": [
+                  {"$cursor": {"queryPlanner": {"winningPlan": {"stage": "PROJECTION_SIMPLE", "inputStage": {"stage": "COLLSCAN"}}}}},
+                  {"$unwind": {"path": "$tags"}},
+                  {"$sort": {"sortKey": {"count": -1}}}
+                ]}""");
+        SlowQueryMonitor monitor = monitor(explain);
+        BsonDocument aggregate = BsonDocument.parse("""
+                {"aggregate": "notes", "pipeline": [{"$unwind": "$tags"}, {"$sort": {"count": -1}}], "cursor": {}}""");
+
+        // When
+        monitor.record("notesdb", "aggregate", aggregate, 500);
+
+        // Then
+        SlowQuery slowQuery = monitor.getSlowQueries().get(0);
+        assertEquals("{\"pipeline\": [{\"$unwind\": \"?\"}, {\"$sort\": {\"count\": -1}}]}", slowQuery.getShape());
+        assertEquals(Set.of(SlowQuery.Problem.COLLECTION_SCAN, SlowQuery.Problem.IN_MEMORY_SORT), slowQuery.getProblems());
+    }
+
+    @Test
+    void shouldNotFlagSortPushedDownToIndexedPlan() {
+        // Given: a MongoDB 7.0 explain of an aggregation run entirely by the query layer
+        Document explain = Document.parse("""
+                {"explainVersion": "2",
+                 "queryPlanner": {
+                   "namespace": "notesdb.notes",
+                   "indexFilterSet": false,
+                   "parsedQuery": {"$and": [{"tenantId": {"$eq": "tenant-a"}}, {"tags": {"$in": ["PERSONAL"]}}]},
+                   "queryHash": "0F5E4C21",
+                   "planCacheKey": "8BA1C7D3",
+                   "optimizationTimeMillis": 0,
+                   "maxIndexedOrSolutionsReached": false,
+                   "maxIndexedAndSolutionsReached": false,
+                   "maxScansToExplodeReached": false,
+                   "winningPlan": {
+                     "queryPlan": {"stage": "LIMIT", "planNodeId": 3, "limitAmount": 10,
+                       "inputStage": {"stage": "FETCH", "planNodeId": 2,
+                         "inputStage": {"stage": "IXSCAN", "planNodeId": 1,
+                           "keyPattern": {"tenantId": 1, "tags": 1, "createdDate": -1, "_id": -1},
+                           "indexName": "tenantId_tags_createdDate_id", "isMultiKey": true,
+                           "multiKeyPaths": {"tenantId": [], "tags": ["tags"], "createdDate": [], "_id": []},
+                           "isUnique": false, "isSparse": false, "isPartial": false, "indexVersion": 2,
+                           "direction": "forward",
+                           "indexBounds": {"tenantId": ["[\\\"tenant-a\\\", \\\"tenant-a\\\"]"],
+                             "tags": ["[\\\"PERSONAL\\\", \\\"PERSONAL\\\"]"], "createdDate": ["[MaxKey, MinKey]"],
+                             "_id": ["[MaxKey, MinKey]"]}}}},
+                     "slotBasedPlan": {"slots": "$$RESULT=s11 env: { s1 = Nothing (SEARCH_META) }",
+                       "stages": "[3] limit 10\\n[2] nlj inner [] [s2, s3, s4, s5, s6]\\n[1] ixseek s7 s8 s10 s4"}},
+                   "rejectedPlans": [{"queryPlan": {"stage": "SORT", "inputStage": {"stage": "COLLSCAN"}}}]},
+                 "command": {"aggregate": "notes",
+                   "pipeline": [{"$match": {"tenantId": "tenant-a", "tags": {"$in": ["PERSONAL"]}}},
+                     {"$sort": {"createdDate": -1, "_id": -1}}, {"$limit": 10}],
+                   "cursor": {}, "$db": "notesdb"},
+                 "serverInfo": {"host": "mongo", "port": 27017, "version": "7.0.12",
+                   "gitVersion": "b6513ce0781db6818e24619e8a461eae90bc94fc"},
+                 "serverParameters": {"internalQueryFacetBufferSizeBytes": 104857600,
+                   "internalQueryProhibitBlockingMergeOnMongoS": 0, "internalQueryFrameworkControl": "trySbeEngine"},
+                 "ok": 1.0}""");
+        SlowQueryMonitor monitor = monitor(explain);
+        BsonDocument aggregate = BsonDocument.parse("""
+                {"aggregate": "notes", "pipeline": [{"$match": {"tenantId": "tenant-a", "tags": {"$in": ["PERSONAL"]}}},
+                 {"$sort": {"createdDate": -1, "_id": -1}}, {"$limit": 10}], "cursor": {}}""");
+
+        // When
+        monitor.record("notesdb", "aggregate", aggregate, 150);
+
+        // Then
+        SlowQuery slowQuery = monitor.getSlowQueries().get(0);
+        assertEquals(List.of("LIMIT", "FETCH", "IXSCAN(tenantId_tags_createdDate_id)"), slowQuery.getPlan());
+        assertTrue(slowQuery.getProblems().isEmpty());
+    }
+
+    private SlowQueryMonitor monitor(Document explainResult) {
+        return new SlowQueryMonitor(true, Duration.ofMillis(100), Duration.ofMinutes(10), 10, meterRegistry,
+                (database, command) -> {
+                    explainCommands.add(command);
+                    return explainResult;
+                }, Runnable::run);
+    }
+
+    private static BsonDocument find(String tag) {
+        return BsonDocument.parse("""
+                {"find": "notes", "filter": {"tags": {"$in": ["%s"]}}, "sort": {"createdDate": -1}, "limit": 10,
+                 "lsid": {"id": "x"}, "$db": "notesdb"}""".formatted(tag));
+    }
+}
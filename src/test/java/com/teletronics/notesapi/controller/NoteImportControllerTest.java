@@ -0,0 +1,96 @@
+package com.teletronics.notesapi.controller;
+
+import com.teletronics.notesapi.exception.handler.GlobalExceptionHandler;
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.ImportJobResponse;
+import com.teletronics.notesapi.model.store.ImportJob;
+import com.teletronics.notesapi.service.NoteImportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class NoteImportControllerTest {
+
+    @Mock
+    private NoteImportService noteImportService;
+
+    @Mock
+    private ObjectProvider<NoteImportService> noteImportServiceProvider;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new NoteImportController(noteImportServiceProvider))
+                .setCustomArgumentResolvers(new TenantIdArgumentResolver())
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void shouldAnswerNotFoundWithoutMongoStore() throws Exception {
+        when(noteImportServiceProvider.getIfAvailable()).thenReturn(null);
+
+        mockMvc.perform(post("/api/v1/notes/imports"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldCreateImportJob() throws Exception {
+        when(noteImportServiceProvider.getIfAvailable()).thenReturn(noteImportService);
+        ImportJobResponse job = new ImportJobResponse();
+        job.setId(UUID.randomUUID());
+        job.setStatus(ImportJob.Status.CREATED);
+        when(noteImportService.createJob(Constant.DEFAULT_TENANT)).thenReturn(job);
+
+        mockMvc.perform(post("/api/v1/notes/imports"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(job.getId().toString()))
+                .andExpect(jsonPath("$.status").value("CREATED"));
+    }
+
+    @Test
+    void shouldDecompressGzipUploads() throws Exception {
+        when(noteImportServiceProvider.getIfAvailable()).thenReturn(noteImportService);
+        UUID id = UUID.randomUUID();
+        String line = "{\"title\":\"First\"}\n";
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(line.getBytes(StandardCharsets.UTF_8));
+        }
+        when(noteImportService.importNotes(eq(Constant.DEFAULT_TENANT), eq(id), any(InputStream.class))).thenAnswer(invocation -> {
+            InputStream data = invocation.getArgument(2);
+            ImportJobResponse job = new ImportJobResponse();
+            job.setCommittedOffset(new String(data.readAllBytes(), StandardCharsets.UTF_8).equals(line) ? 1 : 0);
+            return job;
+        });
+
+        mockMvc.perform(put("/api/v1/notes/imports/{id}/data", id)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .header("Content-Encoding", "gzip")
+                        .content(compressed.toByteArray()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.committedOffset").value(1));
+    }
+}
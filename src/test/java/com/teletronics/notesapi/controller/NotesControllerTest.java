@@ -1,32 +1,72 @@
 package com.teletronics.notesapi.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.teletronics.notesapi.exception.BatchTooLargeException;
+import com.teletronics.notesapi.exception.handler.GlobalExceptionHandler;
+import com.teletronics.notesapi.model.BatchItemResult;
+import com.teletronics.notesapi.model.BatchResponse;
 import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.CursorPage;
+import com.teletronics.notesapi.model.NoteChangeEvent;
 import com.teletronics.notesapi.model.NoteRequest;
 import com.teletronics.notesapi.model.NoteResponse;
+import com.teletronics.notesapi.model.NoteSearchResult;
 import com.teletronics.notesapi.model.NoteSummary;
+import com.teletronics.notesapi.model.store.NoteChanges;
+import com.teletronics.notesapi.service.NoteBatchService;
+import com.teletronics.notesapi.service.NoteChangeFeed;
+import com.teletronics.notesapi.service.NoteChangeService;
+import com.teletronics.notesapi.service.NoteExportService;
 import com.teletronics.notesapi.service.NoteService;
+import com.teletronics.notesapi.service.NoteWriteBehindService;
+import com.teletronics.notesapi.service.TagCountService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import reactor.core.publisher.Flux;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,6 +75,24 @@ class NotesControllerTest {
     @Mock
     private NoteService noteService;
 
+    @Mock
+    private NoteBatchService noteBatchService;
+
+    @Mock
+    private NoteExportService noteExportService;
+
+    @Mock
+    private TagCountService tagCountService;
+
+    @Mock
+    private NoteChangeService noteChangeService;
+
+    @Mock
+    private NoteChangeFeed noteChangeFeed;
+
+    @Mock
+    private NoteWriteBehindService noteWriteBehindService;
+
     @InjectMocks
     private NotesController notesController;
 
@@ -45,8 +103,12 @@ class NotesControllerTest {
 
     @BeforeEach
     void setUp() {
-        mockMvc = MockMvcBuilders.standaloneSetup(notesController).build();
+        mockMvc = MockMvcBuilders.standaloneSetup(notesController)
+                .setCustomArgumentResolvers(new TenantIdArgumentResolver())
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
         objectMapper.registerModule(new JavaTimeModule());
+        lenient().when(noteChangeService.current(Constant.DEFAULT_TENANT)).thenReturn(new NoteChanges());
     }
 
     @Test
@@ -54,7 +116,7 @@ class NotesControllerTest {
         NoteSummary summary = new NoteSummary();
         summary.setTitle("Test Note");
         summary.setCreatedDate(LocalDateTime.now());
-        when(noteService.fetchNoteSummaries(any(Set.class), any(Integer.class), any(Integer.class)))
+        when(noteService.fetchNoteSummaries(eq(Constant.DEFAULT_TENANT), any(Set.class), any(Integer.class), any(Integer.class)))
                 .thenReturn(Collections.singletonList(summary));
 
         mockMvc.perform(get("/api/v1/notes")
@@ -67,6 +129,150 @@ class NotesControllerTest {
                 .andExpect(jsonPath("$[0].createdDate").isNotEmpty());
     }
 
+    @Test
+    void shouldNegotiateCborForNoteSummaries() throws Exception {
+        NoteSummary summary = new NoteSummary("Test Note", LocalDateTime.of(2024, 7, 2, 10, 36));
+        when(noteService.fetchNoteSummaries(eq(Constant.DEFAULT_TENANT), any(), eq(0), eq(10)))
+                .thenReturn(Collections.singletonList(summary));
+
+        byte[] body = mockMvc.perform(get("/api/v1/notes")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", MediaType.APPLICATION_CBOR_VALUE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode summaries = new ObjectMapper(new CBORFactory()).readTree(body);
+        assertEquals("Test Note", summaries.get(0).get("title").asText());
+    }
+
+    @Test
+    void shouldFetchNoteSummariesByCursor() throws Exception {
+        NoteSummary summary = new NoteSummary("Test Note", LocalDateTime.now());
+        when(noteService.fetchNoteSummariesByCursor(eq(Constant.DEFAULT_TENANT), any(), eq("abc"), eq(5)))
+                .thenReturn(new CursorPage<>(Collections.singletonList(summary), "next"));
+
+        mockMvc.perform(get("/api/v1/notes")
+                        .param("cursor", "abc")
+                        .param("size", "5")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").value("Test Note"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void shouldFetchNoteDetailsByCursorWithoutNextCursorOnLastSlice() throws Exception {
+        NoteResponse response = new NoteResponse();
+        response.setTitle("Test Note");
+        when(noteService.fetchNotesByCursor(eq(Constant.DEFAULT_TENANT), any(), eq(""), eq(10)))
+                .thenReturn(new CursorPage<>(Collections.singletonList(response), null));
+
+        mockMvc.perform(get("/api/v1/notes/details")
+                        .param("cursor", "")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").value("Test Note"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void shouldStreamExportAsNdjson() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        when(noteExportService.getTimeout()).thenReturn(Duration.ofMinutes(5));
+        when(noteExportService.getExecutor()).thenReturn(new SimpleAsyncTaskExecutor());
+        when(noteExportService.exportNotes(eq(Constant.DEFAULT_TENANT), eq(Set.of(Constant.Tag.BUSINESS)), eq(from), isNull(), any()))
+                .thenAnswer(invocation -> {
+                    OutputStream outputStream = invocation.getArgument(4);
+                    outputStream.write("{\"title\":\"First\"}\n".getBytes(StandardCharsets.UTF_8));
+                    return 1L;
+                });
+
+        MvcResult result = mockMvc.perform(get("/api/v1/notes/export")
+                        .param("tags", Constant.Tag.BUSINESS.name())
+                        .param("from", "2024-01-01T00:00:00"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(Duration.ofMinutes(5).toMillis(), result.getRequest().getAsyncContext().getTimeout());
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", MediaType.APPLICATION_NDJSON_VALUE))
+                .andExpect(content().string("{\"title\":\"First\"}\n"));
+    }
+
+    @Test
+    void shouldRejectExportWhenExportExecutorIsSaturated() throws Exception {
+        SimpleAsyncTaskExecutor saturated = new SimpleAsyncTaskExecutor() {
+            @Override
+            public Future<?> submit(Runnable task) {
+                throw new TaskRejectedException("saturated");
+            }
+
+            @Override
+            public <T> Future<T> submit(Callable<T> task) {
+                throw new TaskRejectedException("saturated");
+            }
+        };
+        when(noteExportService.getTimeout()).thenReturn(Duration.ofMinutes(5));
+        when(noteExportService.getExecutor()).thenReturn(saturated);
+
+        MvcResult result = mockMvc.perform(get("/api/v1/notes/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Dispatched with the rejection as its result, which GlobalExceptionHandler answers with 429
+        assertInstanceOf(TaskRejectedException.class,
+                WebAsyncUtils.getAsyncManager(result.getRequest()).getConcurrentResult());
+        verify(noteExportService, never()).exportNotes(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldStreamChangesAfterLastEventId() throws Exception {
+        UUID id = UUID.randomUUID();
+        NoteChangeEvent event = new NoteChangeEvent(NoteChangeEvent.Type.CREATED, id, Set.of(Constant.Tag.BUSINESS),
+                Instant.parse("2024-07-02T10:36:00Z"));
+        when(noteChangeFeed.subscribe(Constant.DEFAULT_TENANT, Set.of(Constant.Tag.BUSINESS), "e-1"))
+                .thenReturn(Flux.just(ServerSentEvent.builder(event).id("e-2").build()));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/notes/changes")
+                        .param("tags", Constant.Tag.BUSINESS.name())
+                        .header("Last-Event-ID", "e-1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string(containsString("id:e-2")))
+                .andExpect(content().string(containsString("\"id\":\"" + id + "\"")));
+    }
+
+    @Test
+    void shouldGetTagCounts() throws Exception {
+        when(tagCountService.getCounts(Constant.DEFAULT_TENANT)).thenReturn(Map.of(Constant.Tag.BUSINESS, 3L, Constant.Tag.PERSONAL, 0L));
+
+        mockMvc.perform(get("/api/v1/notes/tags/counts"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.BUSINESS").value(3))
+                .andExpect(jsonPath("$.PERSONAL").value(0));
+    }
+
+    @Test
+    void shouldSearchNotesForGivenQuery() throws Exception {
+        NoteSearchResult result = new NoteSearchResult();
+        result.setTitle("Groceries");
+        result.setScore(1.5f);
+        when(noteService.searchNotes(eq(Constant.DEFAULT_TENANT), eq("milk"), eq(Set.of(Constant.Tag.PERSONAL)), eq(0), eq(10)))
+                .thenReturn(List.of(result));
+
+        mockMvc.perform(get("/api/v1/notes/search")
+                        .param("q", "milk")
+                        .param("tags", Constant.Tag.PERSONAL.name()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("Groceries"))
+                .andExpect(jsonPath("$[0].score").value(1.5));
+    }
+
     @Test
     void shouldCreateNoteForGivenRequest() throws Exception {
         NoteRequest noteRequest = new NoteRequest();
@@ -78,7 +284,7 @@ class NotesControllerTest {
         NoteResponse createdNoteResponse = new NoteResponse();
         createdNoteResponse.setTitle("Test Note");
         createdNoteResponse.setText("This is a test note.");
-        when(noteService.createNote(any(NoteRequest.class)))
+        when(noteService.createNote(eq(Constant.DEFAULT_TENANT), any(NoteRequest.class)))
                 .thenReturn(createdNoteResponse);
 
         mockMvc.perform(post("/api/v1/notes")
@@ -89,6 +295,29 @@ class NotesControllerTest {
                 .andExpect(jsonPath("$.text").value("This is a test note."));
     }
 
+    @Test
+    void shouldAcceptNoteWhenWritingBehind() throws Exception {
+        NoteRequest noteRequest = new NoteRequest();
+        noteRequest.setTitle("Test Note");
+        noteRequest.setText("This is a test note.");
+        noteRequest.setCreatedDate(LocalDateTime.now());
+
+        UUID id = UUID.randomUUID();
+        NoteResponse acceptedNoteResponse = new NoteResponse();
+        acceptedNoteResponse.setId(id);
+        when(noteWriteBehindService.isEnabled()).thenReturn(true);
+        when(noteWriteBehindService.enqueue(eq(Constant.DEFAULT_TENANT), any(NoteRequest.class)))
+                .thenReturn(acceptedNoteResponse);
+
+        mockMvc.perform(post("/api/v1/notes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(noteRequest)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value(id.toString()));
+
+        verify(noteService, never()).createNote(any(), any());
+    }
+
     @Test
     void shouldReturnBadRequestWhenTextIsNull() throws Exception {
         NoteRequest noteRequest = new NoteRequest();
@@ -103,6 +332,21 @@ class NotesControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void shouldReturnBadRequestWhenUpdatedTextIsNull() throws Exception {
+        NoteRequest noteRequest = new NoteRequest();
+        noteRequest.setTitle("Test Note");
+        noteRequest.setText(null);
+        noteRequest.setCreatedDate(LocalDateTime.now());
+
+        mockMvc.perform(put("/api/v1/notes/{id}", UUID.randomUUID())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(noteRequest)))
+                .andExpect(status().isBadRequest());
+
+        verify(noteService, never()).updateNote(any(), any(), any(), any());
+    }
+
     @Test
     void shouldReturnBadRequestWhenTitleIsBlank() throws Exception {
         NoteRequest noteRequest = new NoteRequest();
@@ -123,7 +367,7 @@ class NotesControllerTest {
         NoteResponse expectedResponse = new NoteResponse();
         expectedResponse.setTitle("Test Note");
         expectedResponse.setText("This is a test note.");
-        when(noteService.getNote(id)).thenReturn(expectedResponse);
+        when(noteService.getNote(Constant.DEFAULT_TENANT, id)).thenReturn(expectedResponse);
 
         mockMvc.perform(get("/api/v1//notes/{id}", id)
                         .contentType(MediaType.APPLICATION_JSON))
@@ -131,6 +375,100 @@ class NotesControllerTest {
                 .andExpect(jsonPath("$.title").value("Test Note"));
     }
 
+    @Test
+    void shouldScopeRequestsToTenantHeader() throws Exception {
+        UUID id = UUID.randomUUID();
+        NoteResponse expectedResponse = new NoteResponse();
+        expectedResponse.setTitle("Tenant Note");
+        when(noteService.getNote("tenant-b", id)).thenReturn(expectedResponse);
+
+        mockMvc.perform(get("/api/v1/notes/{id}", id)
+                        .header(Constant.TENANT_HEADER, "tenant-b"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Tenant Note"));
+
+        verify(noteService, never()).getNote(eq(Constant.DEFAULT_TENANT), any(UUID.class));
+    }
+
+    @Test
+    void shouldRejectMalformedTenantHeader() throws Exception {
+        mockMvc.perform(get("/api/v1/notes/{id}", UUID.randomUUID())
+                        .header(Constant.TENANT_HEADER, "tenant/b"))
+                .andExpect(status().isBadRequest());
+
+        verify(noteService, never()).getNote(any(), any(UUID.class));
+    }
+
+    @Test
+    void shouldAnswerNotModifiedWhenNoteVersionMatches() throws Exception {
+        UUID id = UUID.randomUUID();
+        NoteResponse note = new NoteResponse();
+        note.setTitle("Test Note");
+        note.setVersion(3L);
+        note.setLastModifiedDate(Instant.parse("2024-07-02T10:36:00Z"));
+        when(noteService.getNote(Constant.DEFAULT_TENANT, id)).thenReturn(note);
+
+        mockMvc.perform(get("/api/v1/notes/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(header().string("Last-Modified", "Tue, 02 Jul 2024 10:36:00 GMT"));
+
+        mockMvc.perform(get("/api/v1/notes/{id}", id)
+                        .header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/api/v1/notes/{id}", id)
+                        .header("If-Modified-Since", "Tue, 02 Jul 2024 10:36:00 GMT"))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void shouldAnswerNotModifiedWithoutReadingListingWhenChangeTokenMatches() throws Exception {
+        NoteChanges changes = new NoteChanges();
+        changes.setSequence(42);
+        changes.setModifiedDate(Instant.parse("2024-07-02T10:36:00Z"));
+        when(noteChangeService.current(Constant.DEFAULT_TENANT)).thenReturn(changes);
+
+        mockMvc.perform(get("/api/v1/notes/details")
+                        .header("If-None-Match", "W/\"42\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "W/\"42\""))
+                .andExpect(content().string(""));
+
+        verify(noteService, never()).fetchNotes(any(), any(), any(Integer.class), any(Integer.class));
+    }
+
+    @Test
+    void shouldReturnListingWithChangeTokenWhenChanged() throws Exception {
+        NoteChanges changes = new NoteChanges();
+        changes.setSequence(43);
+        changes.setModifiedDate(Instant.parse("2024-07-02T10:36:00Z"));
+        when(noteChangeService.current(Constant.DEFAULT_TENANT)).thenReturn(changes);
+        when(noteService.fetchNoteSummaries(eq(Constant.DEFAULT_TENANT), any(), eq(0), eq(10))).thenReturn(Collections.emptyList());
+
+        mockMvc.perform(get("/api/v1/notes")
+                        .header("If-None-Match", "W/\"42\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"43\""))
+                .andExpect(header().doesNotExist("Last-Modified"));
+    }
+
+    @Test
+    void shouldReturnListingChangedInTheSameSecondAsThePreviousPoll() throws Exception {
+        // The previous poll was answered at 10:36:00.200 with token 42; a note was then created at 10:36:00.700.
+        NoteChanges changes = new NoteChanges();
+        changes.setSequence(43);
+        changes.setModifiedDate(Instant.parse("2024-07-02T10:36:00.700Z"));
+        when(noteChangeService.current(Constant.DEFAULT_TENANT)).thenReturn(changes);
+        when(noteService.fetchNoteSummaries(eq(Constant.DEFAULT_TENANT), any(), eq(0), eq(10))).thenReturn(Collections.emptyList());
+
+        mockMvc.perform(get("/api/v1/notes")
+                        .header("If-Modified-Since", "Tue, 02 Jul 2024 10:36:00 GMT"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"43\""));
+    }
+
     @Test
     void shouldUpdateNoteById() throws Exception {
         UUID id = UUID.randomUUID();
@@ -142,7 +480,7 @@ class NotesControllerTest {
         NoteResponse noteResponse = new NoteResponse();
         noteResponse.setTitle("Updated Note");
         noteResponse.setText("This is an updated note.");
-        when(noteService.updateNote(any(UUID.class), any(NoteRequest.class)))
+        when(noteService.updateNote(eq(Constant.DEFAULT_TENANT), any(UUID.class), any(NoteRequest.class), isNull()))
                 .thenReturn(noteResponse);
 
         mockMvc.perform(put("/api/v1/notes/{id}", id)
@@ -152,6 +490,28 @@ class NotesControllerTest {
                 .andExpect(jsonPath("$.title").value("Updated Note"));
     }
 
+    @Test
+    void shouldPassIfMatchVersionAndReturnNewETag() throws Exception {
+        UUID id = UUID.randomUUID();
+        NoteRequest noteRequest = new NoteRequest();
+        noteRequest.setTitle("Updated Note");
+        noteRequest.setText("This is an updated note.");
+
+        NoteResponse noteResponse = new NoteResponse();
+        noteResponse.setTitle("Updated Note");
+        noteResponse.setVersion(4L);
+        when(noteService.updateNote(eq(Constant.DEFAULT_TENANT), eq(id), any(NoteRequest.class), eq(3L)))
+                .thenReturn(noteResponse);
+
+        mockMvc.perform(put("/api/v1/notes/{id}", id)
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(noteRequest)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("$.version").doesNotExist());
+    }
+
     @Test
     void shouldDeleteNoteById() throws Exception {
         UUID id = UUID.randomUUID();
@@ -170,7 +530,7 @@ class NotesControllerTest {
                 "a", 1
         );
         
-        when(noteService.getNoteTextStats(id)).thenReturn(expectedStats);
+        when(noteService.getNoteTextStats(Constant.DEFAULT_TENANT, id, null)).thenReturn(expectedStats);
 
         mockMvc.perform(get("/api/v1/notes/{id}/stats", id)
                         .contentType(MediaType.APPLICATION_JSON))
@@ -180,4 +540,64 @@ class NotesControllerTest {
                 .andExpect(jsonPath("$.just").value(1))
                 .andExpect(jsonPath("$.a").value(1));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldGetTopStatsByNoteId() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(noteService.getNoteTextStats(Constant.DEFAULT_TENANT, id, 1)).thenReturn(Map.of("note", 2));
+
+        mockMvc.perform(get("/api/v1/notes/{id}/stats", id)
+                        .param("top", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.note").value(2))
+                .andExpect(jsonPath("$.is").doesNotExist());
+    }
+
+    @Test
+    void shouldReportPerItemResultsOfBatchCreate() throws Exception {
+        NoteRequest noteRequest = new NoteRequest();
+        noteRequest.setTitle("Test Note");
+        noteRequest.setText("This is a test note.");
+        noteRequest.setCreatedDate(LocalDateTime.now());
+        UUID id = UUID.randomUUID();
+        when(noteBatchService.createNotes(eq(Constant.DEFAULT_TENANT), any())).thenReturn(new BatchResponse(List.of(
+                new BatchItemResult(0, id, BatchItemResult.Status.CREATED, null),
+                new BatchItemResult(1, null, BatchItemResult.Status.INVALID, "Title cannot be blank"))));
+
+        mockMvc.perform(post("/api/v1/notes/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(noteRequest, new NoteRequest()))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.items[0].id").value(id.toString()))
+                .andExpect(jsonPath("$.items[1].status").value("INVALID"))
+                .andExpect(jsonPath("$.items[1].message").value("Title cannot be blank"));
+    }
+
+    @Test
+    void shouldDeleteNotesInBatch() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(noteBatchService.deleteNotes(Constant.DEFAULT_TENANT, List.of(id))).thenReturn(new BatchResponse(List.of(
+                new BatchItemResult(0, id, BatchItemResult.Status.DELETED, null))));
+
+        mockMvc.perform(post("/api/v1/notes/batch/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(id))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].status").value("DELETED"));
+    }
+
+    @Test
+    void shouldReturnBadRequestWhenBatchIsTooLarge() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(noteBatchService.deleteNotes(Constant.DEFAULT_TENANT, List.of(id)))
+                .thenThrow(new BatchTooLargeException("A batch holds at most 0 items, got 1"));
+
+        mockMvc.perform(post("/api/v1/notes/batch/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(id))))
+                .andExpect(status().isBadRequest());
+    }
+}
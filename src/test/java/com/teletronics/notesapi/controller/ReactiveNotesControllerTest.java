@@ -0,0 +1,134 @@
+package com.teletronics.notesapi.controller;
+
+import com.teletronics.notesapi.exception.PreconditionFailedException;
+import com.teletronics.notesapi.exception.ResourceNotFoundException;
+import com.teletronics.notesapi.exception.handler.GlobalExceptionHandler;
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.NoteRequest;
+import com.teletronics.notesapi.model.NoteResponse;
+import com.teletronics.notesapi.model.NoteSummary;
+import com.teletronics.notesapi.service.ReactiveNoteService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveNotesControllerTest {
+
+    @Mock
+    private ReactiveNoteService noteService;
+
+    @InjectMocks
+    private ReactiveNotesController notesController;
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        webTestClient = WebTestClient.bindToController(notesController)
+                .argumentResolvers(configurer -> configurer.addCustomResolver(new ReactiveTenantIdArgumentResolver()))
+                .controllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void shouldStreamNoteSummariesAsNdjson() {
+        when(noteService.fetchNoteSummaries(eq(Constant.DEFAULT_TENANT), any(), eq(0), eq(10))).thenReturn(Flux.just(
+                new NoteSummary("First", LocalDateTime.now()),
+                new NoteSummary("Second", LocalDateTime.now())));
+
+        webTestClient.get().uri("/api/v1/notes")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(NoteSummary.class)
+                .getResponseBody()
+                .as(StepVerifier::create)
+                .expectNextMatches(summary -> summary.getTitle().equals("First"))
+                .expectNextMatches(summary -> summary.getTitle().equals("Second"))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldReturnNoteSummariesAsJsonArray() {
+        when(noteService.fetchNoteSummaries(eq(Constant.DEFAULT_TENANT), any(), eq(0), eq(10)))
+                .thenReturn(Flux.just(new NoteSummary("First", LocalDateTime.now())));
+
+        webTestClient.get().uri("/api/v1/notes")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].title").isEqualTo("First");
+    }
+
+    @Test
+    void shouldReturnNotFoundWhenNoteDoesNotExist() {
+        UUID id = UUID.randomUUID();
+        when(noteService.getNote(Constant.DEFAULT_TENANT, id)).thenReturn(Mono.error(new ResourceNotFoundException("Note not found")));
+
+        webTestClient.get().uri("/api/v1/notes/{id}", id)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Resource not found");
+    }
+
+    @Test
+    void shouldPassIfMatchVersionAndReturnNewETag() {
+        UUID id = UUID.randomUUID();
+        NoteRequest noteRequest = new NoteRequest();
+        noteRequest.setTitle("Updated Note");
+        noteRequest.setText("This is an updated note.");
+        NoteResponse noteResponse = new NoteResponse();
+        noteResponse.setTitle("Updated Note");
+        noteResponse.setVersion(4L);
+        when(noteService.updateNote(eq(Constant.DEFAULT_TENANT), eq(id), any(NoteRequest.class), eq(3L)))
+                .thenReturn(Mono.just(noteResponse));
+
+        webTestClient.put().uri("/api/v1/notes/{id}", id)
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(noteRequest)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"4\"")
+                .expectBody()
+                .jsonPath("$.title").isEqualTo("Updated Note")
+                .jsonPath("$.version").doesNotExist();
+    }
+
+    @Test
+    void shouldAnswerPreconditionFailedWhenVersionIsStale() {
+        UUID id = UUID.randomUUID();
+        NoteRequest noteRequest = new NoteRequest();
+        noteRequest.setTitle("Updated Note");
+        noteRequest.setText("This is an updated note.");
+        when(noteService.updateNote(eq(Constant.DEFAULT_TENANT), eq(id), any(NoteRequest.class), eq(3L)))
+                .thenReturn(Mono.error(new PreconditionFailedException("Note has been modified")));
+
+        webTestClient.put().uri("/api/v1/notes/{id}", id)
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(noteRequest)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+}
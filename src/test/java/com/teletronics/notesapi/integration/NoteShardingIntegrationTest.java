@@ -0,0 +1,282 @@
+package com.teletronics.notesapi.integration;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.NoteResponse;
+import com.teletronics.notesapi.respository.NoteIndexManager;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the API against a two-shard cluster with the notes collection sharded on the recommended key and checks,
+ * through {@code explain} on mongos, that every command the API sends to the notes is routed to a single shard.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Testcontainers
+public class NoteShardingIntegrationTest {
+    private static final String DATABASE = "notesdb";
+    private static final Set<String> ROUTED_COMMANDS = Set.of("find", "aggregate", "findAndModify", "update", "delete");
+    // Config server, two single-member shard replica sets and a mongos, all in one container.
+    private static final String CLUSTER_SCRIPT = """
+            set -e
+            mkdir -p /data/cfg /data/s1 /data/s2
+            mongod --configsvr --replSet cfg --port 27019 --dbpath /data/cfg --bind_ip_all --fork --logpath /data/cfg.log
+            mongod --shardsvr --replSet s1 --port 27018 --dbpath /data/s1 --bind_ip_all --fork --logpath /data/s1.log
+            mongod --shardsvr --replSet s2 --port 27020 --dbpath /data/s2 --bind_ip_all --fork --logpath /data/s2.log
+            mongosh --quiet --port 27019 --eval 'rs.initiate({_id: "cfg", configsvr: true, members: [{_id: 0, host: "localhost:27019"}]})'
+            mongosh --quiet --port 27018 --eval 'rs.initiate({_id: "s1", members: [{_id: 0, host: "localhost:27018"}]})'
+            mongosh --quiet --port 27020 --eval 'rs.initiate({_id: "s2", members: [{_id: 0, host: "localhost:27020"}]})'
+            for port in 27019 27018 27020; do
+              until mongosh --quiet --port $port --eval 'db.hello().isWritablePrimary' | grep -q true; do sleep 1; done
+            done
+            mongos --configdb cfg/localhost:27019 --port 27017 --bind_ip_all --fork --logpath /data/mongos.log
+            mongosh --quiet --port 27017 --eval 'sh.addShard("s1/localhost:27018"); sh.addShard("s2/localhost:27020")'
+            echo "sharded cluster ready"
+            tail -f /dev/null
+            """;
+
+    @Container
+    private static final GenericContainer<?> cluster = new GenericContainer<>("mongo:7.0.12")
+            .withCreateContainerCmdModifier(cmd -> cmd.withEntrypoint("bash", "-c", CLUSTER_SCRIPT))
+            .withExposedPorts(27017)
+            .waitingFor(Wait.forLogMessage(".*sharded cluster ready.*", 1).withStartupTimeout(Duration.ofMinutes(3)));
+
+    private static final Queue<BsonDocument> commands = new ConcurrentLinkedQueue<>();
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private NoteIndexManager noteIndexManager;
+
+    @TestConfiguration
+    static class CommandCaptureConfig {
+
+        @Bean
+        MongoClientSettingsBuilderCustomizer commandCaptureCustomizer() {
+            return settings -> settings.addCommandListener(new CommandListener() {
+                @Override
+                public void commandStarted(CommandStartedEvent event) {
+                    BsonValue collection = event.getCommand().get(event.getCommandName());
+                    if (ROUTED_COMMANDS.contains(event.getCommandName())
+                            && collection != null && collection.isString() && collection.asString().getValue().equals("notes")) {
+                        commands.add(event.getCommand().clone());
+                    }
+                }
+            });
+        }
+    }
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", NoteShardingIntegrationTest::connectionString);
+        // Both scan the whole collection by design and would be captured among the request commands.
+        registry.add("notes.tenancy.assign-default-tenant", () -> "false");
+        registry.add("notes.indexes.reconcile-on-startup", () -> "false");
+    }
+
+    @BeforeAll
+    static void beforeAll() {
+        cluster.start();
+        try (MongoClient client = MongoClients.create(connectionString())) {
+            client.getDatabase("admin").runCommand(new Document("enableSharding", DATABASE));
+            client.getDatabase("admin").runCommand(new Document("shardCollection", DATABASE + ".notes")
+                    .append("key", new Document("tenantId", "hashed").append("createdDate", 1)));
+        }
+    }
+
+    @AfterAll
+    static void afterAll() {
+        cluster.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        noteIndexManager.reconcile();
+    }
+
+    @Test
+    public void shouldRouteEveryNotesCommandToASingleShard() {
+        List<String> tenants = List.of("alpha", "beta", "gamma", "delta");
+        commands.clear();
+        for (String tenant : tenants) {
+            exerciseApi(tenant);
+        }
+
+        // The tag count reconciliation groups by tenant over the whole collection on purpose.
+        List<BsonDocument> routed = commands.stream()
+                .filter(command -> !isTagCountAggregation(command))
+                .toList();
+        assertThat(routed).isNotEmpty();
+        try (MongoClient client = MongoClients.create(connectionString())) {
+            for (BsonDocument command : routed) {
+                for (BsonDocument explainable : explainable(command)) {
+                    Document explain = client.getDatabase(DATABASE).runCommand(new BsonDocument("explain", explainable)
+                            .append("verbosity", new BsonString("queryPlanner")));
+                    assertThat(targetedShards(explain)).as("shards targeted by %s", explainable.toJson()).isEqualTo(1);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shouldNotExposeNotesOfAnotherTenant() {
+        NoteResponse note = createNote("owner", "Private", "only for the owner");
+
+        webTestClient.get().uri("/api/v1/notes/" + note.getId())
+                .header(Constant.TENANT_HEADER, "intruder")
+                .exchange()
+                .expectStatus().isNotFound();
+        webTestClient.get().uri("/api/v1/notes/" + note.getId())
+                .header(Constant.TENANT_HEADER, "owner")
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    private void exerciseApi(String tenant) {
+        NoteResponse first = createNote(tenant, "Groceries", "milk and bread for " + tenant);
+        NoteResponse second = createNote(tenant, "Meeting", "quarterly numbers for " + tenant);
+
+        webTestClient.get().uri("/api/v1/notes?page=0&size=10")
+                .header(Constant.TENANT_HEADER, tenant)
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.get().uri("/api/v1/notes/details?tags=PERSONAL&page=0&size=10")
+                .header(Constant.TENANT_HEADER, tenant)
+                .exchange()
+                .expectStatus().isOk();
+        Map<?, ?> slice = webTestClient.get().uri("/api/v1/notes/details?cursor=&size=1")
+                .header(Constant.TENANT_HEADER, tenant)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Map.class)
+                .returnResult().getResponseBody();
+        webTestClient.get().uri("/api/v1/notes?cursor=" + slice.get("nextCursor") + "&size=1")
+                .header(Constant.TENANT_HEADER, tenant)
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.get().uri("/api/v1/notes/search?q=milk")
+                .header(Constant.TENANT_HEADER, tenant)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1);
+        webTestClient.get().uri("/api/v1/notes/export")
+                .header(Constant.TENANT_HEADER, tenant)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.get().uri("/api/v1/notes/" + first.getId())
+                .header(Constant.TENANT_HEADER, tenant)
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.get().uri("/api/v1/notes/" + first.getId() + "/stats")
+                .header(Constant.TENANT_HEADER, tenant)
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.put().uri("/api/v1/notes/" + first.getId())
+                .header(Constant.TENANT_HEADER, tenant)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("title", "Groceries", "text", "milk, bread and eggs", "tags", List.of("PERSONAL")))
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.patch().uri("/api/v1/notes/batch/tags")
+                .header(Constant.TENANT_HEADER, tenant)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("ids", List.of(first.getId(), second.getId()), "tags", List.of("IMPORTANT")))
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.post().uri("/api/v1/notes/batch/delete")
+                .header(Constant.TENANT_HEADER, tenant)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(second.getId()))
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.delete().uri("/api/v1/notes/" + first.getId())
+                .header(Constant.TENANT_HEADER, tenant)
+                .exchange()
+                .expectStatus().isNoContent();
+    }
+
+    private NoteResponse createNote(String tenant, String title, String text) {
+        return webTestClient.post().uri("/api/v1/notes")
+                .header(Constant.TENANT_HEADER, tenant)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("title", title, "text", text, "tags", List.of("PERSONAL"),
+                        "createdDate", "2024-07-02T10:36:00"))
+                .exchange()
+                .expectStatus().isCreated()
+                .returnResult(NoteResponse.class).getResponseBody().blockFirst();
+    }
+
+    private static String connectionString() {
+        return "mongodb://" + cluster.getHost() + ":" + cluster.getMappedPort(27017) + "/" + DATABASE;
+    }
+
+    private static boolean isTagCountAggregation(BsonDocument command) {
+        return command.containsKey("aggregate")
+                && command.getArray("pipeline").stream().anyMatch(stage -> stage.asDocument().containsKey("$unwind"));
+    }
+
+    // explain takes a single write statement and no session or generic arguments.
+    private static List<BsonDocument> explainable(BsonDocument command) {
+        BsonDocument stripped = new BsonDocument();
+        command.forEach((key, value) -> {
+            if (!key.startsWith("$") && !Set.of("lsid", "txnNumber", "writeConcern", "readConcern").contains(key)) {
+                stripped.put(key, value);
+            }
+        });
+        String statements = stripped.containsKey("update") ? "updates" : stripped.containsKey("delete") ? "deletes" : null;
+        if (statements == null) {
+            return List.of(stripped);
+        }
+        List<BsonDocument> explainable = new ArrayList<>();
+        for (BsonValue statement : stripped.getArray(statements)) {
+            BsonDocument single = stripped.clone();
+            single.put(statements, new BsonArray(List.of(statement)));
+            explainable.add(single);
+        }
+        return explainable;
+    }
+
+    private static int targetedShards(Document explain) {
+        Document queryPlanner = explain.get("queryPlanner", Document.class);
+        if (queryPlanner != null) {
+            return queryPlanner.get("winningPlan", Document.class).getList("shards", Document.class).size();
+        }
+        return explain.get("shards", Document.class).size();
+    }
+}
@@ -5,10 +5,13 @@ import com.teletronics.notesapi.model.NoteRequest;
 import com.teletronics.notesapi.model.NoteResponse;
 import com.teletronics.notesapi.model.NoteSummary;
 import com.teletronics.notesapi.model.store.Note;
+import com.teletronics.notesapi.model.store.NoteSummaryView;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mapstruct.factory.Mappers;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -99,4 +102,19 @@ public class NoteMapperTest {
         assertEquals(note.getTitle(), resultList.get(0).getTitle());
         assertEquals(note.getCreatedDate(), resultList.get(0).getCreatedDate());
     }
+
+    @Test
+    public void shouldMapSummaryViewsToSummaryDTOList() {
+        // Given
+        Note note = new Note(UUID.randomUUID(), "Test Note", "This is a test note.", Set.of(Constant.Tag.PERSONAL), LocalDateTime.now());
+        NoteSummaryView summaryView = new SpelAwareProxyProjectionFactory().createProjection(NoteSummaryView.class, note);
+
+        // When
+        List<NoteSummary> resultList = noteMapper.toSummaryDTOListFromView(Collections.singletonList(summaryView));
+
+        // Then
+        assertEquals(1, resultList.size());
+        assertEquals(note.getTitle(), resultList.get(0).getTitle());
+        assertEquals(note.getCreatedDate(), resultList.get(0).getCreatedDate());
+    }
 }
@@ -0,0 +1,42 @@
+package com.teletronics.notesapi.model;
+
+import com.teletronics.notesapi.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NoteCursorTest {
+
+    @Test
+    public void shouldRoundTripEncodedCursor() {
+        // Given
+        LocalDateTime createdDate = LocalDateTime.of(2024, 7, 2, 10, 36, 0, 123_000_000);
+        UUID id = UUID.randomUUID();
+
+        // When
+        Optional<NoteCursor> decoded = NoteCursor.decode(NoteCursor.of(createdDate, id).encode());
+
+        // Then
+        assertTrue(decoded.isPresent());
+        assertEquals(createdDate, decoded.get().getCreatedDate());
+        assertEquals(id, decoded.get().getId());
+    }
+
+    @Test
+    public void shouldTreatBlankCursorAsFirstPage() {
+        assertTrue(NoteCursor.decode("").isEmpty());
+        assertTrue(NoteCursor.decode(null).isEmpty());
+    }
+
+    @Test
+    public void shouldRejectMalformedCursor() {
+        assertThrows(InvalidCursorException.class, () -> NoteCursor.decode("not-a-cursor"));
+        assertThrows(InvalidCursorException.class, () -> NoteCursor.decode("%%%"));
+    }
+}
@@ -0,0 +1,298 @@
+package com.teletronics.notesapi.respository;
+
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.store.Note;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AppendLogNoteStoreTest {
+    private static final String TENANT = "tenant-a";
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 7, 2, 10, 36);
+    private static final int SEGMENT_SIZE = 4096;
+    private static final String ACKNOWLEDGED = "acknowledged ";
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void shouldRecoverLatestVersionsWhenReopenedWithoutClose() throws IOException {
+        // Given
+        AppendLogNoteStore noteStore = open();
+        Note kept = insert(noteStore, "Kept", Set.of(Constant.Tag.BUSINESS), NOW);
+        Note updated = insert(noteStore, "Title", Set.of(Constant.Tag.BUSINESS), NOW.minusDays(1));
+        Note removed = insert(noteStore, "Removed", Set.of(Constant.Tag.PERSONAL), NOW.minusDays(2));
+        noteStore.findAndUpdateContent(TENANT, updated.getId(), 0L, "Updated", "Text", Set.of(Constant.Tag.IMPORTANT),
+                Instant.now());
+        noteStore.findAndRemove(TENANT, removed.getId());
+
+        // When
+        AppendLogNoteStore reopened = open();
+
+        // Then
+        Note recovered = reopened.findById(TENANT, updated.getId()).orElseThrow();
+        assertEquals("Updated", recovered.getTitle());
+        assertEquals(1L, recovered.getVersion());
+        assertTrue(reopened.findById(TENANT, removed.getId()).isEmpty());
+        assertEquals(List.of(kept.getId(), updated.getId()), reopened.findPage(TENANT, null, PageRequest.of(0, 10))
+                .getContent().stream().map(Note::getId).toList());
+        assertEquals(Map.of(TENANT, Map.of(Constant.Tag.BUSINESS, 1L, Constant.Tag.IMPORTANT, 1L)), reopened.countByTag());
+    }
+
+    @Test
+    void shouldRecoverBatchWritesWhenReopened() throws IOException {
+        // Given
+        AppendLogNoteStore noteStore = open();
+        List<Note> notes = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Note note = new Note(UUID.randomUUID(), "Note " + i, null, Set.of(Constant.Tag.BUSINESS), NOW.minusDays(i));
+            note.setTenantId(TENANT);
+            notes.add(note);
+        }
+        noteStore.insertAllUnordered(notes, 100);
+        noteStore.setTags(TENANT, List.of(notes.get(0).getId(), notes.get(1).getId()), Set.of(Constant.Tag.PERSONAL));
+        noteStore.removeAllById(TENANT, List.of(notes.get(1).getId()));
+
+        // When
+        AppendLogNoteStore reopened = open();
+
+        // Then
+        List<Note> recovered;
+        try (Stream<Note> stream = reopened.streamAll(TENANT, null, null, null, 100)) {
+            recovered = stream.toList();
+        }
+        assertEquals(List.of(notes.get(0).getId(), notes.get(2).getId()), recovered.stream().map(Note::getId).toList());
+        assertEquals(Set.of(Constant.Tag.PERSONAL), recovered.get(0).getTags());
+        assertEquals(Map.of(TENANT, Map.of(Constant.Tag.BUSINESS, 1L, Constant.Tag.PERSONAL, 1L)), reopened.countByTag());
+    }
+
+    @Test
+    void shouldDiscardInterruptedWriteAndAppendOverIt() throws IOException {
+        // Given: a crash left the length and part of the body of a record, but not its checksum
+        AppendLogNoteStore noteStore = open();
+        Note first = insert(noteStore, "First", Set.of(), NOW);
+        try (FileChannel channel = FileChannel.open(segments().get(0), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int end = 0;
+            while (buffer.getInt(end) != 0) {
+                end += buffer.getInt(end);
+            }
+            buffer.putInt(end, 1000);
+            buffer.put(end + 8, "x".repeat(900).getBytes(StandardCharsets.UTF_8));
+        }
+
+        // When
+        AppendLogNoteStore recovered = open();
+        Note second = insert(recovered, "Second", Set.of(), NOW.minusDays(1));
+
+        // Then
+        AppendLogNoteStore reopened = open();
+        assertEquals("First", reopened.findById(TENANT, first.getId()).orElseThrow().getTitle());
+        assertEquals("Second", reopened.findById(TENANT, second.getId()).orElseThrow().getTitle());
+    }
+
+    @Test
+    void shouldCompactSupersededRecordsAndKeepDeletes() throws IOException {
+        // Given: every note is rewritten several times and every third one removed, over many small segments
+        AppendLogNoteStore noteStore = open();
+        List<Note> notes = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            notes.add(insert(noteStore, "Note " + i, Set.of(Constant.Tag.values()[i % 3]), NOW.minusMinutes(i)));
+        }
+        for (int round = 1; round <= 3; round++) {
+            for (Note note : notes) {
+                noteStore.findAndUpdateContent(TENANT, note.getId(), null, note.getTitle(), "Round " + round,
+                        note.getTags(), Instant.now());
+            }
+        }
+        for (int i = 0; i < notes.size(); i += 3) {
+            noteStore.findAndRemove(TENANT, notes.get(i).getId());
+        }
+        int segmentsBefore = segments().size();
+
+        // When
+        noteStore.compact();
+
+        // Then
+        assertThat(segments().size()).isLessThan(segmentsBefore);
+        AppendLogNoteStore reopened = open();
+        for (int i = 0; i < notes.size(); i++) {
+            UUID id = notes.get(i).getId();
+            if (i % 3 == 0) {
+                assertTrue(reopened.findById(TENANT, id).isEmpty());
+            } else {
+                assertEquals("Round 3", reopened.findById(TENANT, id).orElseThrow().getText());
+                assertEquals("Round 3", noteStore.findById(TENANT, id).orElseThrow().getText());
+            }
+        }
+        assertEquals(40, reopened.findPage(TENANT, null, PageRequest.of(0, 1)).getTotalElements());
+    }
+
+    @Test
+    void shouldDropTombstonesOnceNoSegmentHoldsTheirNotes() throws IOException {
+        // Given: behind a segment of notes that stay, every other note is removed again, leaving segments of
+        // superseded inserts and segments of tombstones
+        AppendLogNoteStore noteStore = open();
+        while (segments().size() < 2) {
+            insert(noteStore, "Kept", Set.of(Constant.Tag.PERSONAL), NOW);
+        }
+        long kept = noteStore.findPage(TENANT, null, PageRequest.of(0, 1)).getTotalElements();
+        List<Note> notes = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            notes.add(insert(noteStore, "Note " + i, Set.of(Constant.Tag.values()[i % 3]), NOW.minusMinutes(i)));
+        }
+        for (Note note : notes) {
+            noteStore.findAndRemove(TENANT, note.getId());
+        }
+        Note rewritten = insert(noteStore, "Rewritten", Set.of(Constant.Tag.BUSINESS), NOW);
+
+        // When: compacting repeatedly, as the schedule does, with enough writes in between to seal the segment the
+        // previous compaction appended to
+        for (int round = 0; round < 3; round++) {
+            noteStore.compact();
+            int segments = segments().size();
+            while (segments().size() == segments) {
+                noteStore.findAndUpdateContent(TENANT, rewritten.getId(), null, rewritten.getTitle(), "Round " + round,
+                        rewritten.getTags(), Instant.now());
+            }
+        }
+        noteStore.compact();
+
+        // Then: the tombstones went once the inserts they deleted were gone, instead of being appended again forever
+        noteStore.close();
+        assertEquals(0, countRecords(NoteLog.DELETE));
+        AppendLogNoteStore reopened = open();
+        for (Note note : notes) {
+            assertTrue(reopened.findById(TENANT, note.getId()).isEmpty());
+        }
+        assertEquals(kept + 1, reopened.findPage(TENANT, null, PageRequest.of(0, 1)).getTotalElements());
+    }
+
+    @Test
+    void shouldKeepTombstoneWhileAnOlderSegmentHoldsTheNote() throws IOException {
+        // Given: a note removed long after its insert, in a segment compacted while the insert's segment is still live
+        AppendLogNoteStore noteStore = open();
+        Note removed = insert(noteStore, "Removed", Set.of(Constant.Tag.IMPORTANT), NOW);
+        while (segments().size() < 2) {
+            insert(noteStore, "Kept", Set.of(Constant.Tag.PERSONAL), NOW);
+        }
+        List<Note> rewritten = new ArrayList<>();
+        while (segments().size() < 3) {
+            rewritten.add(insert(noteStore, "Rewritten", Set.of(Constant.Tag.BUSINESS), NOW));
+        }
+        noteStore.findAndRemove(TENANT, removed.getId());
+        while (segments().size() < 4) {
+            rewritten.add(insert(noteStore, "Rewritten", Set.of(Constant.Tag.BUSINESS), NOW));
+        }
+        for (Note note : rewritten) {
+            noteStore.findAndUpdateContent(TENANT, note.getId(), null, note.getTitle(), "Again", note.getTags(),
+                    Instant.now());
+        }
+        Path first = segments().get(0);
+
+        // When
+        noteStore.compact();
+        noteStore.compact();
+
+        // Then
+        assertThat(segments()).contains(first);
+        assertTrue(noteStore.findById(TENANT, removed.getId()).isEmpty());
+        assertTrue(open().findById(TENANT, removed.getId()).isEmpty());
+    }
+
+    @Test
+    void shouldKeepEveryAcknowledgedWriteWhenProcessIsKilled() throws Exception {
+        // Given: a separate JVM writing notes, printing each id once its insert returned
+        Process writer = new ProcessBuilder(ProcessHandle.current().info().command().orElse("java"),
+                "-cp", System.getProperty("java.class.path"), Writer.class.getName(), directory.toString())
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        List<UUID> acknowledged = new ArrayList<>();
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(writer.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while (acknowledged.size() < 500 && (line = output.readLine()) != null) {
+                // Log lines go to the same output.
+                if (line.startsWith(ACKNOWLEDGED)) {
+                    acknowledged.add(UUID.fromString(line.substring(ACKNOWLEDGED.length())));
+                }
+            }
+
+            // When
+            writer.destroyForcibly().waitFor();
+        }
+
+        // Then
+        assertEquals(500, acknowledged.size());
+        AppendLogNoteStore recovered = open();
+        for (UUID id : acknowledged) {
+            assertTrue(recovered.findById(TENANT, id).isPresent(), "Lost acknowledged note " + id);
+        }
+    }
+
+    private AppendLogNoteStore open() throws IOException {
+        return new AppendLogNoteStore(directory, SEGMENT_SIZE, false, 0.5);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private long countRecords(byte type) throws IOException {
+        NoteLog noteLog = new NoteLog(directory, SEGMENT_SIZE, false);
+        try {
+            long[] count = {0};
+            noteLog.replay(record -> {
+                if (record.type() == type) {
+                    count[0]++;
+                }
+            });
+            return count[0];
+        } finally {
+            noteLog.close();
+        }
+    }
+
+    private static Note insert(AppendLogNoteStore noteStore, String title, Set<Constant.Tag> tags, LocalDateTime createdDate) {
+        Note note = new Note(UUID.randomUUID(), title, null, tags, createdDate);
+        note.setTenantId(TENANT);
+        return noteStore.insert(note);
+    }
+
+    /**
+     * Inserts notes until it is killed.
+     */
+    static final class Writer {
+
+        public static void main(String[] args) throws IOException {
+            AppendLogNoteStore noteStore = new AppendLogNoteStore(Path.of(args[0]), SEGMENT_SIZE, false, 0.5);
+            for (int i = 0; ; i++) {
+                Note note = insert(noteStore, "Note " + i, Set.of(Constant.Tag.PERSONAL), NOW.minusSeconds(i));
+                System.out.println(ACKNOWLEDGED + note.getId());
+            }
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.teletronics.notesapi.respository;
+
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.NoteCursor;
+import com.teletronics.notesapi.model.store.Note;
+import com.teletronics.notesapi.model.store.NoteSummaryView;
+import com.teletronics.notesapi.model.store.ScoredNote;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryNoteStoreTest {
+    private static final String TENANT = "tenant-a";
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 7, 2, 10, 36);
+
+    private final InMemoryNoteStore noteStore = new InMemoryNoteStore();
+
+    @Test
+    void shouldWalkTagIndexesNewestFirstFromCursor() {
+        // Given
+        Note oldest = insert(TENANT, "Oldest", Set.of(Constant.Tag.BUSINESS), NOW.minusDays(3));
+        Note both = insert(TENANT, "Both", Set.of(Constant.Tag.BUSINESS, Constant.Tag.PERSONAL), NOW.minusDays(2));
+        insert(TENANT, "Important", Set.of(Constant.Tag.IMPORTANT), NOW.minusDays(1));
+        Note newest = insert(TENANT, "Newest", Set.of(Constant.Tag.PERSONAL), NOW);
+        Set<Constant.Tag> tags = Set.of(Constant.Tag.BUSINESS, Constant.Tag.PERSONAL);
+
+        // When
+        Slice<Note> first = noteStore.findSlice(TENANT, tags, null, 2);
+        Slice<Note> second = noteStore.findSlice(TENANT, tags, NoteCursor.of(both.getCreatedDate(), both.getId()), 2);
+
+        // Then
+        assertEquals(List.of(newest.getId(), both.getId()), first.getContent().stream().map(Note::getId).toList());
+        assertTrue(first.hasNext());
+        assertEquals(List.of(oldest.getId()), second.getContent().stream().map(Note::getId).toList());
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    void shouldCountPagesOfTheTenantOnly() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            insert(TENANT, "Note " + i, Set.of(Constant.Tag.PERSONAL), NOW.minusMinutes(i));
+        }
+        insert("tenant-b", "Other", Set.of(Constant.Tag.PERSONAL), NOW);
+
+        // When
+        Page<NoteSummaryView> page = noteStore.findSummaryPage(TENANT, Set.of(Constant.Tag.PERSONAL), PageRequest.of(1, 2));
+
+        // Then
+        assertEquals(5, page.getTotalElements());
+        assertEquals(List.of("Note 2", "Note 3"), page.getContent().stream().map(NoteSummaryView::getTitle).toList());
+        assertEquals(Map.of(TENANT, Map.of(Constant.Tag.PERSONAL, 5L), "tenant-b", Map.of(Constant.Tag.PERSONAL, 1L)),
+                noteStore.countByTag());
+    }
+
+    @Test
+    void shouldLoadOnlyTheNotesOfTheRequestedPage() {
+        // Given
+        AtomicInteger loaded = new AtomicInteger();
+        InMemoryNoteStore countingStore = new InMemoryNoteStore() {
+            @Override
+            protected Note load(UUID id) {
+                loaded.incrementAndGet();
+                return super.load(id);
+            }
+        };
+        for (int i = 0; i < 100; i++) {
+            Note note = new Note(UUID.randomUUID(), "Note " + i, null, Set.of(Constant.Tag.PERSONAL), NOW.minusMinutes(i));
+            note.setTenantId(TENANT);
+            countingStore.insert(note);
+        }
+        loaded.set(0);
+
+        // When
+        Page<Note> page = countingStore.findPage(TENANT, Set.of(Constant.Tag.PERSONAL), PageRequest.of(40, 2));
+
+        // Then
+        assertEquals(List.of("Note 80", "Note 81"), page.getContent().stream().map(Note::getTitle).toList());
+        assertEquals(100, page.getTotalElements());
+        assertEquals(2, loaded.get());
+    }
+
+    @Test
+    void shouldNotExposeNotesOfAnotherTenant() {
+        // Given
+        Note note = insert(TENANT, "Private", Set.of(), NOW);
+
+        // When, Then
+        assertTrue(noteStore.findById("tenant-b", note.getId()).isEmpty());
+        assertTrue(noteStore.findAndRemove("tenant-b", note.getId()).isEmpty());
+        assertTrue(noteStore.findAndUpdateContent("tenant-b", note.getId(), null, "Taken", null, null, Instant.now()).isEmpty());
+        assertEquals("Private", noteStore.findById(TENANT, note.getId()).orElseThrow().getTitle());
+    }
+
+    @Test
+    void shouldUpdateExpectedVersionAndMoveTagEntries() {
+        // Given
+        Note note = insert(TENANT, "Title", Set.of(Constant.Tag.BUSINESS), NOW);
+
+        // When
+        boolean staleUpdated = noteStore.findAndUpdateContent(TENANT, note.getId(), 5L, "Stale", null, null, Instant.now()).isPresent();
+        Note previousNote = noteStore.findAndUpdateContent(TENANT, note.getId(), 0L, "Updated", "Text",
+                Set.of(Constant.Tag.IMPORTANT), Instant.now()).orElseThrow();
+
+        // Then
+        assertFalse(staleUpdated);
+        assertEquals("Title", previousNote.getTitle());
+        Note updatedNote = noteStore.findById(TENANT, note.getId()).orElseThrow();
+        assertEquals("Updated", updatedNote.getTitle());
+        assertEquals(1L, updatedNote.getVersion());
+        assertTrue(noteStore.findSlice(TENANT, Set.of(Constant.Tag.BUSINESS), null, 10).getContent().isEmpty());
+        assertEquals(1, noteStore.findSlice(TENANT, Set.of(Constant.Tag.IMPORTANT), null, 10).getContent().size());
+    }
+
+    @Test
+    void shouldRejectDuplicateIdAndKeepStoredNoteApartFromCallers() {
+        // Given
+        Note note = insert(TENANT, "Title", Set.of(), NOW);
+
+        // When
+        note.setTitle("Changed by caller");
+
+        // Then
+        assertThrows(DuplicateKeyException.class, () -> noteStore.insert(note));
+        assertEquals("Title", noteStore.findById(TENANT, note.getId()).orElseThrow().getTitle());
+    }
+
+    @Test
+    void shouldRankTitleMatchesAboveTextMatches() {
+        // Given
+        Note inText = insert(TENANT, "Shopping", Set.of(), NOW);
+        noteStore.findAndUpdateContent(TENANT, inText.getId(), null, "Shopping", "Buy milk and bread", Set.of(), Instant.now());
+        Note inTitle = insert(TENANT, "Milk", Set.of(), NOW.minusDays(1));
+        insert(TENANT, "Unrelated", Set.of(), NOW.minusDays(2));
+
+        // When
+        List<ScoredNote> results = noteStore.search(TENANT, "MILK", null, PageRequest.of(0, 10));
+
+        // Then
+        assertEquals(List.of(inTitle.getId(), inText.getId()), results.stream().map(ScoredNote::getId).toList());
+        assertThat(results.get(0).getScore()).isGreaterThan(results.get(1).getScore());
+    }
+
+    @Test
+    void shouldApplyBatchesNoteByNote() {
+        // Given
+        Note stored = insert(TENANT, "Stored", Set.of(Constant.Tag.BUSINESS), NOW);
+        Note fresh = new Note(UUID.randomUUID(), "Fresh", null, Set.of(Constant.Tag.BUSINESS), NOW.minusDays(1));
+        fresh.setTenantId(TENANT);
+        Note duplicate = new Note(stored.getId(), "Duplicate", null, Set.of(), NOW);
+        duplicate.setTenantId(TENANT);
+
+        // When
+        BulkInsertResult result = noteStore.insertAllIdempotent(List.of(fresh, duplicate), 100);
+        Map<UUID, Set<Constant.Tag>> retagged = noteStore.setTags(TENANT,
+                List.of(stored.getId(), fresh.getId(), UUID.randomUUID()), Set.of(Constant.Tag.IMPORTANT));
+        Map<UUID, Set<Constant.Tag>> removed = noteStore.removeAllById("tenant-b", List.of(stored.getId()));
+
+        // Then
+        assertEquals(Set.of(1), result.getDuplicates());
+        assertTrue(result.getFailures().isEmpty());
+        assertEquals(Map.of(stored.getId(), Set.of(Constant.Tag.BUSINESS), fresh.getId(), Set.of(Constant.Tag.BUSINESS)),
+                retagged);
+        assertTrue(removed.isEmpty());
+        assertEquals(Set.of(Constant.Tag.IMPORTANT), noteStore.findById(TENANT, fresh.getId()).orElseThrow().getTags());
+        assertEquals(1L, noteStore.findById(TENANT, stored.getId()).orElseThrow().getVersion());
+        assertEquals(Map.of(TENANT, Map.of(Constant.Tag.IMPORTANT, 2L)), noteStore.countByTag());
+    }
+
+    @Test
+    void shouldReportEachRemovedNoteToOnlyOneOfTwoOverlappingDeletes() {
+        // Given
+        Note first = insert(TENANT, "First", Set.of(Constant.Tag.BUSINESS), NOW);
+        Note second = insert(TENANT, "Second", null, NOW.minusDays(1));
+
+        // When
+        Map<UUID, Set<Constant.Tag>> removed = noteStore.removeAllById(TENANT, List.of(first.getId()));
+        Map<UUID, Set<Constant.Tag>> removedAgain = noteStore.removeAllById(TENANT, List.of(first.getId(), second.getId()));
+
+        // Then
+        assertEquals(Map.of(first.getId(), Set.of(Constant.Tag.BUSINESS)), removed);
+        assertEquals(Map.of(second.getId(), Set.of()), removedAgain);
+        assertEquals(Map.of(), noteStore.setTags(TENANT, List.of(first.getId()), Set.of(Constant.Tag.IMPORTANT)));
+    }
+
+    @Test
+    void shouldStreamCreationDateRangeNewestFirst() {
+        // Given
+        insert(TENANT, "Too new", Set.of(Constant.Tag.BUSINESS), NOW);
+        Note upperBound = insert(TENANT, "Upper bound", Set.of(Constant.Tag.PERSONAL), NOW.minusDays(1));
+        Note inRange = insert(TENANT, "In range", Set.of(Constant.Tag.BUSINESS), NOW.minusDays(2));
+        Note lowerBound = insert(TENANT, "Lower bound", Set.of(Constant.Tag.BUSINESS), NOW.minusDays(3));
+        Note tooOld = insert(TENANT, "Too old", Set.of(Constant.Tag.BUSINESS), NOW.minusDays(4));
+        insert(TENANT, "Undated", Set.of(Constant.Tag.BUSINESS), null);
+
+        // When
+        List<UUID> all;
+        try (Stream<Note> notes = noteStore.streamAll(TENANT, null, NOW.minusDays(3), NOW.minusDays(1).plusSeconds(1), 10)) {
+            all = notes.map(Note::getId).toList();
+        }
+        List<UUID> business;
+        try (Stream<Note> notes = noteStore.streamAll(TENANT, Set.of(Constant.Tag.BUSINESS), null, NOW.minusDays(1), 10)) {
+            business = notes.map(Note::getId).toList();
+        }
+
+        // Then
+        assertEquals(List.of(upperBound.getId(), inRange.getId(), lowerBound.getId()), all);
+        assertEquals(List.of(inRange.getId(), lowerBound.getId(), tooOld.getId()), business);
+    }
+
+    @Test
+    void shouldKeepIndexesConsistentUnderConcurrentWrites() throws Exception {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When: every task inserts 500 notes and removes every other one
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int task = t;
+            tasks.add(executor.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    Note note = insert(TENANT, "Note", Set.of(Constant.Tag.values()[i % 3]), NOW.minusSeconds(task * 500L + i));
+                    if (i % 2 == 0) {
+                        noteStore.findAndRemove(TENANT, note.getId());
+                    }
+                }
+            }));
+        }
+        for (Future<?> task : tasks) {
+            task.get();
+        }
+        executor.shutdown();
+
+        // Then
+        assertEquals(2000, noteStore.findPage(TENANT, null, PageRequest.of(0, 1)).getTotalElements());
+        assertEquals(2000, noteStore.countByTag().get(TENANT).values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    private Note insert(String tenantId, String title, Set<Constant.Tag> tags, LocalDateTime createdDate) {
+        Note note = new Note(UUID.randomUUID(), title, null, tags, createdDate);
+        note.setTenantId(tenantId);
+        return noteStore.insert(note);
+    }
+}
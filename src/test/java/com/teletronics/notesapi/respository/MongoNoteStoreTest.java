@@ -0,0 +1,99 @@
+package com.teletronics.notesapi.respository;
+
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.NoteCursor;
+import com.teletronics.notesapi.model.store.NoteChanges;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MongoNoteStoreTest {
+    private static final String TENANT = "tenant-a";
+
+    @Mock
+    private NoteRepository noteRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private MongoNoteStore noteStore;
+
+    @Test
+    void shouldQueryPagesNewestFirst() {
+        // When
+        noteStore.findPage(TENANT, Set.of(), PageRequest.of(2, 10));
+        noteStore.findSummaryPage(TENANT, Set.of(Constant.Tag.PERSONAL), PageRequest.of(0, 5));
+
+        // Then
+        verify(noteRepository).findByTenantId(TENANT, PageRequest.of(2, 10, Sort.by("createdDate").descending()));
+        verify(noteRepository).findSummariesByTenantIdAndTagsIn(TENANT, Set.of(Constant.Tag.PERSONAL),
+                PageRequest.of(0, 5, Sort.by("createdDate").descending()));
+        verify(noteRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void shouldSeekFromCursorPosition() {
+        // Given
+        LocalDateTime createdDate = LocalDateTime.of(2024, 7, 2, 10, 36);
+        UUID lastId = UUID.randomUUID();
+        Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Order.desc("createdDate"), Sort.Order.desc("id")));
+
+        // When
+        noteStore.findSlice(TENANT, null, null, 10);
+        noteStore.findSummarySlice(TENANT, Set.of(Constant.Tag.BUSINESS), NoteCursor.of(createdDate, lastId), 10);
+
+        // Then
+        verify(noteRepository).findAllByTenantId(TENANT, pageable);
+        verify(noteRepository).findSummariesByTagsInAfter(TENANT, Set.of(Constant.Tag.BUSINESS), createdDate, lastId, pageable);
+    }
+
+    @Test
+    void shouldIncrementSequenceOfTheTenantChangeDocument() {
+        // When
+        noteStore.recordChange(TENANT);
+
+        // Then
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(query.capture(), update.capture(), eq(NoteChanges.class));
+        assertEquals(TENANT, query.getValue().getQueryObject().get("_id"));
+        assertEquals(1, update.getValue().getUpdateObject().get("$inc", Document.class).get("sequence"));
+    }
+
+    @Test
+    void shouldReturnInitialTokenWhenNothingWasWritten() {
+        // Given
+        when(mongoTemplate.findOne(any(Query.class), eq(NoteChanges.class))).thenReturn(null);
+
+        // When
+        NoteChanges changes = noteStore.currentChanges(TENANT);
+
+        // Then
+        assertEquals(0, changes.getSequence());
+        assertNull(changes.getModifiedDate());
+    }
+}
@@ -0,0 +1,139 @@
+package com.teletronics.notesapi.respository;
+
+import com.teletronics.notesapi.model.store.Note;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.CollectionCallback;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NoteIndexManagerTest {
+    private static final String ID_INDEX = """
+            {"v": 2, "name": "tenantId_createdDate_id", "key": {"tenantId": 1, "createdDate": -1, "_id": -1}}
+            """;
+    private static final String TEXT_INDEX = """
+            {"v": 2, "name": "Note_TextIndex", "key": {"_fts": "text", "_ftsx": 1},
+             "weights": {"text": 1, "title": 3}, "default_language": "english", "textIndexVersion": 3}
+            """;
+    private static final String OLD_TAGS_INDEX = """
+            {"v": 2, "name": "tenantId_tags_createdDate_id", "key": {"tenantId": 1, "tags": 1, "createdDate": -1}}
+            """;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MongoConverter mongoConverter;
+
+    @Mock
+    private IndexOperations indexOperations;
+
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.indexOps(Note.class)).thenReturn(indexOperations);
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        doReturn(mappingContext).when(mongoConverter).getMappingContext();
+    }
+
+    @Test
+    void shouldCreateMissingIndexesInBackgroundOnLargeCollection() {
+        // Given
+        existingIndexes(ID_INDEX, TEXT_INDEX);
+        when(mongoTemplate.estimatedCount(Note.class)).thenReturn(1_000L);
+        NoteIndexManager manager = new NoteIndexManager(mongoTemplate, true, 10, false);
+
+        // When
+        manager.reconcile();
+
+        // Then
+        ArgumentCaptor<IndexDefinition> captor = ArgumentCaptor.forClass(IndexDefinition.class);
+        verify(indexOperations, times(1)).ensureIndex(captor.capture());
+        assertEquals("tenantId_tags_createdDate_id", captor.getValue().getIndexOptions().getString("name"));
+        assertEquals(Boolean.TRUE, captor.getValue().getIndexOptions().get("background"));
+        assertEquals(NoteIndexManager.Status.UP_TO_DATE, manager.getStatus());
+        assertEquals(List.of("tenantId_createdDate_id", "Note_TextIndex"), manager.getVerifiedIndexes());
+        assertEquals(List.of("tenantId_tags_createdDate_id"), manager.getCreatedIndexes());
+    }
+
+    @Test
+    void shouldReportFailureWhenReconciliationFails() {
+        // Given
+        existingIndexes();
+        when(mongoTemplate.estimatedCount(Note.class)).thenReturn(0L);
+        when(indexOperations.ensureIndex(any())).thenThrow(new IllegalStateException("not primary"));
+        NoteIndexManager manager = new NoteIndexManager(mongoTemplate, true, 10, false);
+
+        // When
+        manager.reconcile();
+
+        // Then
+        assertEquals(NoteIndexManager.Status.FAILED, manager.getStatus());
+        assertTrue(manager.getLastError().contains("not primary"));
+    }
+
+    @Test
+    void shouldReportIndexWhoseKeysDifferFromItsDeclaration() {
+        // Given
+        existingIndexes(ID_INDEX, TEXT_INDEX, OLD_TAGS_INDEX);
+        when(mongoTemplate.estimatedCount(Note.class)).thenReturn(0L);
+        NoteIndexManager manager = new NoteIndexManager(mongoTemplate, true, 10, false);
+
+        // When
+        manager.reconcile();
+
+        // Then
+        verify(indexOperations, never()).ensureIndex(any());
+        verify(indexOperations, never()).dropIndex(any());
+        assertEquals(NoteIndexManager.Status.MISMATCHED, manager.getStatus());
+        assertEquals(List.of("tenantId_tags_createdDate_id"), manager.getMismatchedIndexes());
+        assertEquals(List.of("tenantId_createdDate_id", "Note_TextIndex"), manager.getVerifiedIndexes());
+    }
+
+    @Test
+    void shouldRecreateMismatchedIndexWhenEnabled() {
+        // Given
+        Document changedWeights = Document.parse(TEXT_INDEX);
+        changedWeights.put("weights", new Document("title", 1).append("text", 1));
+        existingIndexes(ID_INDEX, changedWeights.toJson(), OLD_TAGS_INDEX);
+        when(mongoTemplate.estimatedCount(Note.class)).thenReturn(0L);
+        NoteIndexManager manager = new NoteIndexManager(mongoTemplate, true, 10, true);
+
+        // When
+        manager.reconcile();
+
+        // Then
+        verify(indexOperations).dropIndex("tenantId_tags_createdDate_id");
+        verify(indexOperations).dropIndex("Note_TextIndex");
+        verify(indexOperations, times(2)).ensureIndex(any());
+        assertEquals(NoteIndexManager.Status.UP_TO_DATE, manager.getStatus());
+        assertEquals(List.of("tenantId_tags_createdDate_id", "Note_TextIndex"), manager.getRecreatedIndexes());
+        assertEquals(List.of(), manager.getMismatchedIndexes());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void existingIndexes(String... indexes) {
+        List<Document> documents = Arrays.stream(indexes).map(Document::parse).toList();
+        doReturn(documents).when(mongoTemplate).execute(eq(Note.class), any(CollectionCallback.class));
+    }
+}
@@ -0,0 +1,177 @@
+package com.teletronics.notesapi.service;
+
+import com.teletronics.notesapi.config.CacheConfig;
+import com.teletronics.notesapi.exception.BatchTooLargeException;
+import com.teletronics.notesapi.mapper.NoteMapper;
+import com.teletronics.notesapi.model.BatchItemResult;
+import com.teletronics.notesapi.model.BatchResponse;
+import com.teletronics.notesapi.model.BatchTagUpdateRequest;
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.NoteRequest;
+import com.teletronics.notesapi.model.store.Note;
+import com.teletronics.notesapi.respository.NoteStore;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class NoteBatchServiceTest {
+    private static final String TENANT = "tenant-a";
+
+    @Mock
+    private NoteStore noteStore;
+
+    @Mock
+    private NoteStatsService noteStatsService;
+
+    @Mock
+    private TagCountService tagCountService;
+
+    @Mock
+    private NoteChangeService noteChangeService;
+
+    @Mock
+    private NoteChangeFeed noteChangeFeed;
+
+    @Mock
+    private NoteMapper noteMapper;
+
+    private ConcurrentMapCacheManager cacheManager;
+
+    private NoteBatchService noteBatchService;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager(CacheConfig.NOTES_CACHE, CacheConfig.NOTE_STATS_CACHE);
+        noteBatchService = new NoteBatchService(noteStore, noteStatsService, tagCountService, noteChangeService, noteChangeFeed, noteMapper,
+                Validation.buildDefaultValidatorFactory().getValidator(), cacheManager, 2, 3);
+    }
+
+    @Test
+    void shouldReportInvalidAndFailedItemsAndStoreStatsOfInsertedOnes() {
+        // Given
+        NoteRequest valid = noteRequest("First");
+        NoteRequest duplicate = noteRequest("Second");
+        NoteRequest invalid = noteRequest(" ");
+        Note firstNote = new Note(UUID.randomUUID(), "First", "text", null, LocalDateTime.now());
+        Note secondNote = new Note(UUID.randomUUID(), "Second", "text", null, LocalDateTime.now());
+        when(noteMapper.toEntity(valid)).thenReturn(firstNote);
+        when(noteMapper.toEntity(duplicate)).thenReturn(secondNote);
+        when(noteStore.insertAllUnordered(List.of(firstNote, secondNote), 2))
+                .thenReturn(Map.of(1, "E11000 duplicate key error"));
+
+        // When
+        BatchResponse response = noteBatchService.createNotes(TENANT, List.of(valid, invalid, duplicate));
+
+        // Then
+        assertThat(response.getSucceeded()).isEqualTo(1);
+        assertThat(response.getFailed()).isEqualTo(2);
+        assertThat(response.getItems()).extracting(BatchItemResult::getStatus).containsExactly(
+                BatchItemResult.Status.CREATED, BatchItemResult.Status.INVALID, BatchItemResult.Status.FAILED);
+        assertThat(response.getItems().get(1).getMessage()).isEqualTo("Title cannot be blank");
+        assertThat(response.getItems().get(2).getId()).isEqualTo(secondNote.getId());
+        verify(noteStatsService).storeNew(List.of(firstNote));
+        assertThat(firstNote.getTenantId()).isEqualTo(TENANT);
+        verify(noteChangeService).recordChange(TENANT);
+    }
+
+    @Test
+    void shouldReportInsertedNotesWhenStoringTheirStatsFails() {
+        // Given
+        NoteRequest request = noteRequest("First");
+        Note note = new Note(UUID.randomUUID(), "First", "text", null, LocalDateTime.now());
+        when(noteMapper.toEntity(request)).thenReturn(note);
+        when(noteStore.insertAllUnordered(List.of(note), 2)).thenReturn(Map.of());
+        doThrow(new DataAccessResourceFailureException("Connection reset")).when(noteStatsService).storeNew(anyList());
+
+        // When
+        BatchResponse response = noteBatchService.createNotes(TENANT, List.of(request));
+
+        // Then
+        assertThat(response.getItems()).extracting(BatchItemResult::getStatus)
+                .containsExactly(BatchItemResult.Status.CREATED);
+        verify(noteChangeService).recordChange(TENANT);
+    }
+
+    @Test
+    void shouldRejectBatchLargerThanMaxItems() {
+        // Given
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+
+        // When & Then
+        assertThrows(BatchTooLargeException.class, () -> noteBatchService.deleteNotes(TENANT, ids));
+        verifyNoInteractions(noteStore);
+    }
+
+    @Test
+    void shouldDeleteExistingNotesAndReportMissingOnes() {
+        // Given
+        UUID existing = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        Cache notesCache = cacheManager.getCache(CacheConfig.NOTES_CACHE);
+        notesCache.put(new SimpleKey(TENANT, existing), "cached");
+        when(noteStore.removeAllById(TENANT, List.of(existing, missing)))
+                .thenReturn(Map.of(existing, Set.of(Constant.Tag.BUSINESS)));
+
+        // When
+        BatchResponse response = noteBatchService.deleteNotes(TENANT, List.of(existing, missing));
+
+        // Then
+        assertThat(response.getItems()).extracting(BatchItemResult::getStatus)
+                .containsExactly(BatchItemResult.Status.DELETED, BatchItemResult.Status.NOT_FOUND);
+        verify(noteStatsService).deleteAll(Set.of(existing));
+        verify(tagCountService).removed(TENANT, Set.of(Constant.Tag.BUSINESS));
+        verify(noteChangeFeed).removed(TENANT, existing, Set.of(Constant.Tag.BUSINESS));
+        assertThat(notesCache.get(new SimpleKey(TENANT, existing))).isNull();
+    }
+
+    @Test
+    void shouldSetTagsOfExistingNotes() {
+        // Given
+        UUID id = UUID.randomUUID();
+        BatchTagUpdateRequest request = new BatchTagUpdateRequest();
+        request.setIds(List.of(id));
+        request.setTags(Set.of(Constant.Tag.IMPORTANT));
+        when(noteStore.setTags(TENANT, List.of(id), Set.of(Constant.Tag.IMPORTANT)))
+                .thenReturn(Map.of(id, Set.of(Constant.Tag.PERSONAL)));
+
+        // When
+        BatchResponse response = noteBatchService.updateTags(TENANT, request);
+
+        // Then
+        assertThat(response.getSucceeded()).isEqualTo(1);
+        verify(tagCountService).changed(TENANT, Set.of(Constant.Tag.PERSONAL), Set.of(Constant.Tag.IMPORTANT));
+        verify(noteChangeFeed).changed(TENANT, id, Set.of(Constant.Tag.PERSONAL), Set.of(Constant.Tag.IMPORTANT));
+    }
+
+    private NoteRequest noteRequest(String title) {
+        NoteRequest request = new NoteRequest();
+        request.setTitle(title);
+        request.setText("text");
+        request.setCreatedDate(LocalDateTime.now());
+        return request;
+    }
+}
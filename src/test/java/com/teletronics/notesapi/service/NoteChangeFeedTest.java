@@ -0,0 +1,161 @@
+package com.teletronics.notesapi.service;
+
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.NoteChangeEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NoteChangeFeedTest {
+    private static final String TENANT = "tenant-a";
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private NoteChangeFeed noteChangeFeed;
+
+    @BeforeEach
+    void setUp() {
+        noteChangeFeed = new NoteChangeFeed(2, 100, Duration.ofMinutes(1), 100, meterRegistry);
+        noteChangeFeed.startDispatcher();
+    }
+
+    @AfterEach
+    void tearDown() {
+        noteChangeFeed.close();
+    }
+
+    @Test
+    void shouldStreamOnlyChangesOfTenantAndTags() {
+        // Given
+        UUID id = UUID.randomUUID();
+
+        // When & Then
+        StepVerifier.create(noteChangeFeed.subscribe(TENANT, Set.of(Constant.Tag.BUSINESS), null))
+                .then(() -> {
+                    noteChangeFeed.added("tenant-b", UUID.randomUUID(), Set.of(Constant.Tag.BUSINESS));
+                    noteChangeFeed.added(TENANT, UUID.randomUUID(), Set.of(Constant.Tag.PERSONAL));
+                    // Leaving the tag is still a change to a note the subscriber knows.
+                    noteChangeFeed.changed(TENANT, id, Set.of(Constant.Tag.BUSINESS), Set.of(Constant.Tag.PERSONAL));
+                })
+                .assertNext(event -> {
+                    assertThat(event.data().getType()).isEqualTo(NoteChangeEvent.Type.UPDATED);
+                    assertThat(event.data().getId()).isEqualTo(id);
+                    assertThat(event.data().getTags()).containsExactly(Constant.Tag.PERSONAL);
+                })
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void shouldReplayChangesMissedSinceLastEventId() {
+        // Given
+        AtomicReference<String> lastEventId = new AtomicReference<>();
+        StepVerifier.create(noteChangeFeed.subscribe(TENANT, null, null))
+                .then(() -> noteChangeFeed.added(TENANT, UUID.randomUUID(), null))
+                .consumeNextWith(event -> lastEventId.set(event.id()))
+                .thenCancel()
+                .verify(TIMEOUT);
+        UUID deleted = UUID.randomUUID();
+        noteChangeFeed.removed(TENANT, deleted, Set.of(Constant.Tag.IMPORTANT));
+
+        // When & Then
+        StepVerifier.create(noteChangeFeed.subscribe(TENANT, null, lastEventId.get()))
+                .assertNext(event -> {
+                    assertThat(event.data().getType()).isEqualTo(NoteChangeEvent.Type.DELETED);
+                    assertThat(event.data().getId()).isEqualTo(deleted);
+                    assertThat(event.data().getTags()).containsExactly(Constant.Tag.IMPORTANT);
+                })
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void shouldResetSubscriberResumingFromUnknownEventId() {
+        // When & Then
+        StepVerifier.create(noteChangeFeed.subscribe(TENANT, null, "unknown-1"))
+                .assertNext(event -> {
+                    assertThat(event.data().getType()).isEqualTo(NoteChangeEvent.Type.RESET);
+                    assertThat(event.id()).isNotNull();
+                })
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void shouldDisconnectSubscriberThatFallsBehind() {
+        // When & Then: nothing is read, so the buffer of two fills up
+        StepVerifier.create(noteChangeFeed.subscribe(TENANT, null, null), 0)
+                .then(() -> {
+                    for (int i = 0; i < 5; i++) {
+                        noteChangeFeed.added(TENANT, UUID.randomUUID(), null);
+                    }
+                })
+                .then(this::awaitDrop)
+                .thenRequest(Long.MAX_VALUE)
+                .thenConsumeWhile(event -> event.data() != null)
+                .expectComplete()
+                .verify(TIMEOUT);
+
+        assertThat(meterRegistry.counter(NoteChangeFeed.DROPPED_COUNTER).count()).isEqualTo(1);
+        assertThat(meterRegistry.get(NoteChangeFeed.SUBSCRIBERS_GAUGE).gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldPublishLocalChangesAgainOnceUnfollowingChangeStream() {
+        // Given
+        UUID id = UUID.randomUUID();
+        noteChangeFeed.followChangeStream();
+
+        // When & Then
+        StepVerifier.create(noteChangeFeed.subscribe(TENANT, null, null))
+                .then(() -> {
+                    noteChangeFeed.added(TENANT, UUID.randomUUID(), null);
+                    noteChangeFeed.unfollowChangeStream();
+                    noteChangeFeed.reset();
+                    noteChangeFeed.added(TENANT, id, null);
+                })
+                .assertNext(event -> assertThat(event.data().getType()).isEqualTo(NoteChangeEvent.Type.RESET))
+                .assertNext(event -> assertThat(event.data().getId()).isEqualTo(id))
+                .thenCancel()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void shouldResetSubscribersWhenQueueOverflows() {
+        // Given: the dispatcher is not running yet, so the second change does not fit the queue of one
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        NoteChangeFeed feed = new NoteChangeFeed(2, 100, Duration.ofMinutes(1), 1, registry);
+        feed.added(TENANT, UUID.randomUUID(), null);
+        feed.added(TENANT, UUID.randomUUID(), null);
+
+        // When & Then
+        try {
+            StepVerifier.create(feed.subscribe(TENANT, null, null))
+                    .then(feed::startDispatcher)
+                    .assertNext(event -> assertThat(event.data().getType()).isEqualTo(NoteChangeEvent.Type.RESET))
+                    .then(() -> feed.added(TENANT, UUID.randomUUID(), null))
+                    .assertNext(event -> assertThat(event.data().getType()).isEqualTo(NoteChangeEvent.Type.CREATED))
+                    .thenCancel()
+                    .verify(TIMEOUT);
+        } finally {
+            feed.close();
+        }
+        assertThat(registry.counter(NoteChangeFeed.OVERFLOW_COUNTER).count()).isEqualTo(1);
+    }
+
+    private void awaitDrop() {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (meterRegistry.counter(NoteChangeFeed.DROPPED_COUNTER).count() == 0 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.teletronics.notesapi.service;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.teletronics.notesapi.config.CacheConfig;
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.NoteChangeEvent;
+import org.bson.BsonBinary;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.UuidRepresentation;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class NoteChangeStreamListenerTest {
+    private static final String TENANT = "tenant-a";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MongoDatabase database;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private TagCountService tagCountService;
+
+    @Mock
+    private NoteChangeFeed noteChangeFeed;
+
+    @Mock
+    private ChangeStreamIterable<Document> changeStream;
+
+    @Mock
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+
+    private NoteChangeStreamListener listener;
+
+    @BeforeEach
+    void setUp() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        lenient().when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(mongoTemplate.getDb()).thenReturn(database);
+        lenient().when(database.getCodecRegistry()).thenReturn(CodecRegistries.withUuidRepresentation(
+                MongoClientSettings.getDefaultCodecRegistry(), UuidRepresentation.STANDARD));
+        listener = new NoteChangeStreamListener(mongoTemplate, cacheManager, tagCountService, noteChangeFeed, true, true, Duration.ofSeconds(5), 3);
+    }
+
+    @Test
+    void shouldEvictNoteAndMoveTagCountsOnUpdate() {
+        // Given
+        UUID id = UUID.randomUUID();
+        when(cacheManager.getCache(CacheConfig.NOTES_CACHE)).thenReturn(cache);
+
+        // When
+        listener.apply(change("update", "notes", id, note(id, Constant.Tag.BUSINESS), note(id, Constant.Tag.BUSINESS, Constant.Tag.IMPORTANT)));
+
+        // Then
+        verify(cache).evict(new SimpleKey(TENANT, id));
+        verify(tagCountService).applyChange(TENANT, Set.of(Constant.Tag.BUSINESS), Set.of(Constant.Tag.BUSINESS, Constant.Tag.IMPORTANT));
+        verify(noteChangeFeed).publish(NoteChangeEvent.Type.UPDATED, TENANT, id, Set.of(Constant.Tag.BUSINESS),
+                Set.of(Constant.Tag.BUSINESS, Constant.Tag.IMPORTANT));
+    }
+
+    @Test
+    void shouldClearNotesAndReconcileCountsWhenDeleteHasNoPreImage() {
+        // Given
+        UUID id = UUID.randomUUID();
+        when(cacheManager.getCache(CacheConfig.NOTES_CACHE)).thenReturn(cache);
+
+        // When
+        listener.apply(change("delete", "notes", id, null, null));
+
+        // Then
+        verify(cache).clear();
+        verify(tagCountService).invalidate();
+    }
+
+    @Test
+    void shouldEvictStatsOfChangedNote() {
+        // Given
+        UUID id = UUID.randomUUID();
+        when(cacheManager.getCache(CacheConfig.NOTE_STATS_CACHE)).thenReturn(cache);
+
+        // When
+        listener.apply(change("replace", "note_stats", id, null, new Document("_id", id).append("tenantId", TENANT)));
+
+        // Then
+        verify(cache).evict(new SimpleKey(TENANT, id));
+    }
+
+    @Test
+    void shouldApplyLocalWritesAgainWhenStreamKeepsFailingToOpen() {
+        // Given
+        when(database.watch(anyList()))
+                .thenReturn(changeStream)
+                .thenThrow(new MongoException("not primary"));
+        when(changeStream.fullDocument(any())).thenReturn(changeStream);
+        when(changeStream.fullDocumentBeforeChange(any())).thenReturn(changeStream);
+        when(changeStream.maxAwaitTime(anyLong(), any())).thenReturn(changeStream);
+        when(changeStream.cursor()).thenReturn(cursor);
+        NoteChangeStreamListener failing = new NoteChangeStreamListener(mongoTemplate, cacheManager, tagCountService,
+                noteChangeFeed, true, false, Duration.ofMillis(1), 2);
+
+        // When
+        failing.listenAfterStartup();
+
+        // Then: the probe opened a stream, the two after it did not
+        try {
+            InOrder inOrder = inOrder(tagCountService, noteChangeFeed);
+            inOrder.verify(tagCountService, timeout(5000)).followChangeStream();
+            inOrder.verify(tagCountService, timeout(5000)).unfollowChangeStream();
+            inOrder.verify(noteChangeFeed, timeout(5000)).unfollowChangeStream();
+            inOrder.verify(tagCountService, timeout(5000)).invalidate();
+            inOrder.verify(noteChangeFeed, timeout(5000)).reset();
+        } finally {
+            failing.stop();
+        }
+        verify(tagCountService, times(1)).followChangeStream();
+    }
+
+    private static Document note(UUID id, Constant.Tag... tags) {
+        return new Document("_id", id)
+                .append("tenantId", TENANT)
+                .append("title", "Title")
+                .append("tags", Arrays.stream(tags).map(Enum::name).toList());
+    }
+
+    private static ChangeStreamDocument<Document> change(String operationType, String collection, UUID id,
+                                                         Document before, Document after) {
+        BsonDocument namespace = new BsonDocument("db", new BsonString("notesdb")).append("coll", new BsonString(collection));
+        BsonDocument documentKey = new BsonDocument("_id", new BsonBinary(id, UuidRepresentation.STANDARD));
+        return new ChangeStreamDocument<>(operationType, new BsonDocument(), namespace, null, after, before, documentKey,
+                null, null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,76 @@
+package com.teletronics.notesapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.teletronics.notesapi.mapper.NoteMapper;
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.NoteResponse;
+import com.teletronics.notesapi.model.store.Note;
+import com.teletronics.notesapi.respository.NoteStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class NoteExportServiceTest {
+
+    @Mock
+    private NoteStore noteStore;
+
+    @Mock
+    private NoteMapper noteMapper;
+
+    private NoteExportService noteExportService;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        noteExportService = new NoteExportService(noteStore, noteMapper, objectMapper, 100, Duration.ofHours(1), 2);
+    }
+
+    @Test
+    void shouldWriteOneJsonDocumentPerLineAndCloseCursor() throws Exception {
+        // Given
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        Note first = new Note(UUID.randomUUID(), "First", "one", Set.of(Constant.Tag.PERSONAL), from.plusDays(2));
+        Note second = new Note(UUID.randomUUID(), "Second", "two", null, from.plusDays(1));
+        AtomicBoolean closed = new AtomicBoolean();
+        when(noteStore.streamAll("tenant-a", Set.of(Constant.Tag.PERSONAL), from, null, 100))
+                .thenReturn(Stream.of(first, second).onClose(() -> closed.set(true)));
+        when(noteMapper.toResponseDTO(any(Note.class))).thenAnswer(invocation -> {
+            Note note = invocation.getArgument(0);
+            return new NoteResponse(note.getId(), note.getTitle(), note.getText(), note.getTags(), note.getCreatedDate());
+        });
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        long exported = noteExportService.exportNotes("tenant-a", Set.of(Constant.Tag.PERSONAL), from, null, output);
+
+        // Then
+        assertThat(exported).isEqualTo(2);
+        assertThat(closed).isTrue();
+        assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "{\"id\":\"" + first.getId() + "\",\"title\":\"First\",\"text\":\"one\",\"tags\":[\"PERSONAL\"],"
+                        + "\"createdDate\":\"2024-01-03T00:00:00\"}\n"
+                        + "{\"id\":\"" + second.getId() + "\",\"title\":\"Second\",\"text\":\"two\","
+                        + "\"createdDate\":\"2024-01-02T00:00:00\"}\n");
+    }
+}
@@ -0,0 +1,197 @@
+package com.teletronics.notesapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.teletronics.notesapi.exception.ConflictException;
+import com.teletronics.notesapi.exception.ResourceNotFoundException;
+import com.teletronics.notesapi.mapper.ImportJobMapper;
+import com.teletronics.notesapi.mapper.NoteMapper;
+import com.teletronics.notesapi.model.ImportJobResponse;
+import com.teletronics.notesapi.model.NoteRequest;
+import com.teletronics.notesapi.model.store.ImportJob;
+import com.teletronics.notesapi.model.store.Note;
+import com.teletronics.notesapi.respository.BulkInsertResult;
+import com.teletronics.notesapi.respository.ImportJobRepository;
+import com.teletronics.notesapi.respository.NoteRepository;
+import jakarta.validation.Validation;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class NoteImportServiceTest {
+    private static final String TENANT = "tenant-a";
+
+    @Mock
+    private ImportJobRepository importJobRepository;
+
+    @Mock
+    private NoteRepository noteRepository;
+
+    @Mock
+    private NoteStatsService noteStatsService;
+
+    @Mock
+    private TagCountService tagCountService;
+
+    @Mock
+    private NoteChangeService noteChangeService;
+
+    @Mock
+    private NoteChangeFeed noteChangeFeed;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private NoteMapper noteMapper;
+
+    @Mock
+    private ImportJobMapper importJobMapper;
+
+    @Captor
+    private ArgumentCaptor<List<Note>> insertedCaptor;
+
+    private NoteImportService noteImportService;
+
+    @BeforeEach
+    void setUp() {
+        noteImportService = new NoteImportService(importJobRepository, noteRepository, noteStatsService, tagCountService,
+                noteChangeService, noteChangeFeed, mongoTemplate, noteMapper, importJobMapper, new ObjectMapper().registerModule(new JavaTimeModule()),
+                Validation.buildDefaultValidatorFactory().getValidator(), 10, 100, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void shouldResumeAfterCommittedOffsetAndCheckpointEveryLine() {
+        // Given
+        UUID jobId = UUID.randomUUID();
+        ImportJob job = new ImportJob(jobId, TENANT, LocalDateTime.now());
+        job.setCommittedOffset(1);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(ImportJob.class)))
+                .thenReturn(job);
+        when(noteMapper.toEntity(any(NoteRequest.class))).thenAnswer(invocation -> new Note());
+        when(noteRepository.insertAllIdempotent(anyList(), eq(10)))
+                .thenReturn(new BulkInsertResult(Set.of(1), Map.of()));
+        when(importJobRepository.findById(jobId)).thenReturn(Optional.of(job));
+        when(importJobMapper.toResponseDTO(job)).thenReturn(new ImportJobResponse());
+        String data = String.join("\n",
+                note("Already imported"),
+                note("Second"),
+                "{\"title\":\"\",\"text\":\"text\",\"createdDate\":\"2024-01-01T00:00:00\"}",
+                "{not json",
+                note("Fifth"));
+
+        // When
+        noteImportService.importNotes(TENANT, jobId, new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)));
+
+        // Then
+        verify(noteRepository).insertAllIdempotent(insertedCaptor.capture(), eq(10));
+        assertThat(insertedCaptor.getValue()).extracting(Note::getId).containsExactly(
+                NoteImportService.noteId(jobId, 2), NoteImportService.noteId(jobId, 5));
+        assertThat(insertedCaptor.getValue()).extracting(Note::getTenantId).containsOnly(TENANT);
+        verify(noteChangeService).recordChange(TENANT);
+        verify(noteStatsService).storeNew(List.of(insertedCaptor.getValue().get(0)));
+        verify(noteStatsService).refreshMissing(List.of(insertedCaptor.getValue().get(1)));
+        // The duplicate was left by an interrupted attempt, so it is counted and published like the new note.
+        verify(tagCountService, times(2)).added(TENANT, null);
+        verify(noteChangeFeed).added(TENANT, NoteImportService.noteId(jobId, 2), null);
+        verify(noteChangeFeed).added(TENANT, NoteImportService.noteId(jobId, 5), null);
+
+        ArgumentCaptor<Update> checkpoint = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), checkpoint.capture(), eq(ImportJob.class));
+        Document set = (Document) checkpoint.getValue().getUpdateObject().get("$set");
+        assertThat(set.get("status")).isEqualTo(ImportJob.Status.COMPLETED);
+        assertThat(set.get("committedOffset")).isEqualTo(5L);
+        assertThat(set.get("imported")).isEqualTo(1L);
+        assertThat(set.get("duplicates")).isEqualTo(1L);
+        assertThat(set.get("invalid")).isEqualTo(2L);
+        assertThat(job.getErrors()).extracting(ImportJob.LineError::getLine).containsExactly(3L, 4L);
+    }
+
+    @Test
+    void shouldCompleteJobWhenStoringStatsFails() {
+        // Given
+        UUID jobId = UUID.randomUUID();
+        ImportJob job = new ImportJob(jobId, TENANT, LocalDateTime.now());
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(ImportJob.class)))
+                .thenReturn(job);
+        when(noteMapper.toEntity(any(NoteRequest.class))).thenAnswer(invocation -> new Note());
+        when(noteRepository.insertAllIdempotent(anyList(), eq(10))).thenReturn(new BulkInsertResult(Set.of(), Map.of()));
+        doThrow(new DataAccessResourceFailureException("Connection reset")).when(noteStatsService).storeNew(anyList());
+        when(importJobRepository.findById(jobId)).thenReturn(Optional.of(job));
+        when(importJobMapper.toResponseDTO(job)).thenReturn(new ImportJobResponse());
+
+        // When
+        noteImportService.importNotes(TENANT, jobId, new ByteArrayInputStream(note("First").getBytes(StandardCharsets.UTF_8)));
+
+        // Then
+        verify(noteChangeFeed).added(TENANT, NoteImportService.noteId(jobId, 1), null);
+        verify(noteChangeService).recordChange(TENANT);
+        ArgumentCaptor<Update> checkpoint = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), checkpoint.capture(), eq(ImportJob.class));
+        Document set = (Document) checkpoint.getValue().getUpdateObject().get("$set");
+        assertThat(set.get("status")).isEqualTo(ImportJob.Status.COMPLETED);
+        assertThat(set.get("imported")).isEqualTo(1L);
+    }
+
+    @Test
+    void shouldRejectUploadToCompletedJob() {
+        // Given
+        UUID jobId = UUID.randomUUID();
+        ImportJob job = new ImportJob(jobId, TENANT, LocalDateTime.now());
+        job.setStatus(ImportJob.Status.COMPLETED);
+        when(importJobRepository.findById(jobId)).thenReturn(Optional.of(job));
+
+        // When, Then
+        assertThrows(ConflictException.class, () ->
+                noteImportService.importNotes(TENANT, jobId, new ByteArrayInputStream(new byte[0])));
+        verify(noteRepository, never()).insertAllIdempotent(anyList(), eq(10));
+    }
+
+    @Test
+    void shouldNotFindJobOfAnotherTenant() {
+        // Given
+        UUID jobId = UUID.randomUUID();
+        when(importJobRepository.findById(jobId)).thenReturn(Optional.of(new ImportJob(jobId, "tenant-b", LocalDateTime.now())));
+
+        // When, Then
+        assertThrows(ResourceNotFoundException.class, () -> noteImportService.getJob(TENANT, jobId));
+        assertThrows(ResourceNotFoundException.class, () ->
+                noteImportService.importNotes(TENANT, jobId, new ByteArrayInputStream(new byte[0])));
+    }
+
+    private static String note(String title) {
+        return "{\"title\":\"" + title + "\",\"text\":\"text\",\"createdDate\":\"2024-01-01T00:00:00\"}";
+    }
+}
@@ -0,0 +1,134 @@
+package com.teletronics.notesapi.service;
+
+import com.teletronics.notesapi.config.CacheConfig;
+import com.teletronics.notesapi.exception.ResourceNotFoundException;
+import com.teletronics.notesapi.mapper.NoteMapper;
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.NoteRequest;
+import com.teletronics.notesapi.model.NoteResponse;
+import com.teletronics.notesapi.model.store.Note;
+import com.teletronics.notesapi.model.store.NoteStats;
+import com.teletronics.notesapi.respository.NoteStore;
+import com.teletronics.notesapi.respository.NoteStatsStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(classes = {CacheConfig.class, NoteService.class, NoteStatsService.class})
+class NoteServiceCachingTest {
+    private static final String TENANT = "tenant-a";
+
+    @MockBean
+    private NoteStore noteStore;
+
+    @MockBean
+    private NoteStatsStore noteStatsStore;
+
+    @MockBean
+    private TagCountService tagCountService;
+
+    @MockBean
+    private NoteChangeService noteChangeService;
+
+    @MockBean
+    private NoteChangeFeed noteChangeFeed;
+
+    @MockBean
+    private NoteMapper noteMapper;
+
+    @Autowired
+    private NoteService noteService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    void shouldServeRepeatedReadsFromCacheUntilUpdated() {
+        // Given
+        UUID id = UUID.randomUUID();
+        Note note = new Note(id, "Test Note", "Text", Set.of(Constant.Tag.PERSONAL), LocalDateTime.now());
+        when(noteStore.findById(TENANT, id)).thenReturn(Optional.of(note));
+        when(noteStore.findAndUpdateContent(eq(TENANT), eq(id), isNull(), isNull(), eq("Updated"), isNull(), any(Instant.class))).thenReturn(Optional.of(note));
+        when(noteMapper.toResponseDTO(any(Note.class))).thenReturn(new NoteResponse());
+        NoteRequest request = new NoteRequest();
+        request.setText("Updated");
+
+        // When
+        noteService.getNote(TENANT, id);
+        noteService.getNote(TENANT, id);
+        noteService.updateNote(TENANT, id, request, null);
+        noteService.getNote(TENANT, id);
+
+        // Then: one read before and one after the update
+        verify(noteStore, times(2)).findById(TENANT, id);
+    }
+
+    @Test
+    void shouldNotServeCachedNoteToAnotherTenant() {
+        // Given
+        UUID id = UUID.randomUUID();
+        Note note = new Note(id, "Test Note", "Text", Set.of(Constant.Tag.PERSONAL), LocalDateTime.now());
+        when(noteStore.findById(TENANT, id)).thenReturn(Optional.of(note));
+        when(noteMapper.toResponseDTO(any(Note.class))).thenReturn(new NoteResponse());
+
+        // When
+        noteService.getNote(TENANT, id);
+
+        // Then
+        assertThrows(ResourceNotFoundException.class, () -> noteService.getNote("tenant-b", id));
+        verify(noteStore).findById("tenant-b", id);
+    }
+
+    @Test
+    void shouldEvictCachedStatsWhenNoteIsDeleted() {
+        // Given
+        UUID id = UUID.randomUUID();
+        when(noteStatsStore.findById(id))
+                .thenReturn(Optional.of(new NoteStats(id, TENANT, List.of(new NoteStats.WordCount("note", 1)))));
+        when(noteStore.findAndRemove(TENANT, id)).thenReturn(Optional.of(new Note()));
+
+        // When
+        noteService.getNoteTextStats(TENANT, id, null);
+        noteService.getNoteTextStats(TENANT, id, 1);
+        noteService.deleteNote(TENANT, id);
+        noteService.getNoteTextStats(TENANT, id, null);
+
+        // Then
+        verify(noteStatsStore, times(2)).findById(id);
+        verify(noteStore, never()).existsById(any(), any(UUID.class));
+    }
+
+    @Test
+    void shouldNotServeCachedStatsToAnotherTenant() {
+        // Given
+        UUID id = UUID.randomUUID();
+        when(noteStatsStore.findById(id))
+                .thenReturn(Optional.of(new NoteStats(id, TENANT, List.of(new NoteStats.WordCount("note", 1)))));
+        noteService.getNoteTextStats(TENANT, id, null);
+
+        // When, Then
+        assertThrows(ResourceNotFoundException.class, () -> noteService.getNoteTextStats("tenant-b", id, null));
+        verify(noteStore).findById("tenant-b", id);
+    }
+}
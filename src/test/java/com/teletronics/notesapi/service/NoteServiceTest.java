@@ -1,34 +1,57 @@
 package com.teletronics.notesapi.service;
 
+import com.teletronics.notesapi.exception.PreconditionFailedException;
 import com.teletronics.notesapi.exception.ResourceNotFoundException;
 import com.teletronics.notesapi.mapper.NoteMapper;
 import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.CursorPage;
+import com.teletronics.notesapi.model.NoteCursor;
 import com.teletronics.notesapi.model.NoteRequest;
 import com.teletronics.notesapi.model.NoteResponse;
+import com.teletronics.notesapi.model.NoteSearchResult;
 import com.teletronics.notesapi.model.NoteSummary;
 import com.teletronics.notesapi.model.store.Note;
-import com.teletronics.notesapi.respository.NoteRepository;
+import com.teletronics.notesapi.model.store.NoteSummaryView;
+import com.teletronics.notesapi.model.store.ScoredNote;
+import com.teletronics.notesapi.respository.NoteStore;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.*;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class NoteServiceTest {
+    private static final String TENANT = "tenant-a";
 
     @Mock
-    private NoteRepository noteRepository;
+    private NoteStore noteStore;
+
+    @Mock
+    private NoteStatsService noteStatsService;
+
+    @Mock
+    private TagCountService tagCountService;
+
+    @Mock
+    private NoteChangeService noteChangeService;
+
+    @Mock
+    private NoteChangeFeed noteChangeFeed;
 
     @Mock
     private NoteMapper noteMapper;
@@ -56,11 +79,11 @@ class NoteServiceTest {
 
         // Mocking behavior
         when(noteMapper.toEntity(any(NoteRequest.class))).thenReturn(noteEntity);
-        when(noteRepository.save(any(Note.class))).thenReturn(noteEntity);
+        when(noteStore.insert(any(Note.class))).thenReturn(noteEntity);
         when(noteMapper.toResponseDTO(any(Note.class))).thenReturn(expectedResponse);
 
         // When
-        NoteResponse actualResponse = noteService.createNote(request);
+        NoteResponse actualResponse = noteService.createNote(TENANT, request);
 
         // Then
         assertEquals(expectedResponse.getTitle(), actualResponse.getTitle());
@@ -68,8 +91,12 @@ class NoteServiceTest {
         assertEquals(expectedResponse.getTags(), actualResponse.getTags());
 
         verify(noteMapper, times(1)).toEntity(any(NoteRequest.class));
-        verify(noteRepository, times(1)).save(any(Note.class));
+        verify(noteStore, times(1)).insert(any(Note.class));
+        verify(noteStatsService, times(1)).refresh(noteEntity);
         verify(noteMapper, times(1)).toResponseDTO(any(Note.class));
+        assertEquals(TENANT, noteEntity.getTenantId());
+        verify(tagCountService, times(1)).added(TENANT, Set.of(Constant.Tag.PERSONAL));
+        verify(noteChangeService, times(1)).recordChange(TENANT);
     }
 
     @Test
@@ -84,18 +111,18 @@ class NoteServiceTest {
                 new NoteResponse(anotherNote.getId(), anotherNote.getTitle(), anotherNote.getText(), anotherNote.getTags(), anotherNote.getCreatedDate())
         );
 
-        when(noteRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(notes));
+        when(noteStore.findPage(eq(TENANT), isNull(), eq(PageRequest.of(0, 10)))).thenReturn(new PageImpl<>(notes));
         when(noteMapper.toResponseDTOList(anyList())).thenReturn(expectedResponse);
 
         // When
-        List<NoteResponse> actualResponse = noteService.fetchNotes(null,0, 10);
+        List<NoteResponse> actualResponse = noteService.fetchNotes(TENANT, null, 0, 10);
 
         // Then
         assertEquals(2, actualResponse.size());
         assertEquals(expectedResponse.get(0).getTitle(), actualResponse.get(0).getTitle());
         assertEquals(expectedResponse.get(1).getText(), actualResponse.get(1).getText());
 
-        verify(noteRepository, times(1)).findAll(any(Pageable.class));
+        verify(noteStore, times(1)).findPage(eq(TENANT), isNull(), eq(PageRequest.of(0, 10)));
         verify(noteMapper, times(1)).toResponseDTOList(anyList());
     }
 
@@ -106,24 +133,24 @@ class NoteServiceTest {
         tags.add(Constant.Tag.PERSONAL);
         int page = 0;
         int size = 10;
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdDate").descending());
+        Pageable pageable = PageRequest.of(page, size);
 
-        List<Note> notes = List.of(new Note(UUID.randomUUID(), "Test Note", "Text", Set.of(Constant.Tag.PERSONAL), LocalDateTime.now()));
-        Page<Note> notesPage = new org.springframework.data.domain.PageImpl<>(notes, pageable, notes.size());
+        List<NoteSummaryView> summaries = List.of(summaryView(new Note(UUID.randomUUID(), "Test Note", "Text", Set.of(Constant.Tag.PERSONAL), LocalDateTime.now())));
+        Page<NoteSummaryView> summariesPage = new PageImpl<>(summaries, pageable, summaries.size());
         List<NoteSummary> expectedSummaries = List.of(new NoteSummary("Test Note", LocalDateTime.now()));
 
-        when(noteRepository.findByTagsIn(eq(tags), eq(pageable))).thenReturn(notesPage);
-        when(noteMapper.toSummaryDTOList(anyList())).thenReturn(expectedSummaries);
+        when(noteStore.findSummaryPage(eq(TENANT), eq(tags), eq(pageable))).thenReturn(summariesPage);
+        when(noteMapper.toSummaryDTOListFromView(anyList())).thenReturn(expectedSummaries);
 
         // When
-        List<NoteSummary> actualSummaries = noteService.fetchNoteSummaries(tags, page, size);
+        List<NoteSummary> actualSummaries = noteService.fetchNoteSummaries(TENANT, tags, page, size);
 
         // Then
         assertEquals(1, actualSummaries.size());
         assertEquals(expectedSummaries.get(0).getTitle(), actualSummaries.get(0).getTitle());
 
-        verify(noteRepository, times(1)).findByTagsIn(eq(tags), eq(pageable));
-        verify(noteMapper, times(1)).toSummaryDTOList(anyList());
+        verify(noteStore, times(1)).findSummaryPage(eq(TENANT), eq(tags), eq(pageable));
+        verify(noteMapper, times(1)).toSummaryDTOListFromView(anyList());
     }
 
     @Test
@@ -131,31 +158,78 @@ class NoteServiceTest {
         // Given
         int page = 0;
         int size = 10;
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdDate").descending());
+        Pageable pageable = PageRequest.of(page, size);
 
-        List<Note> notes = Arrays.asList(
-                new Note(UUID.randomUUID(), "Test Note 1", "Text 1", Set.of(Constant.Tag.PERSONAL), LocalDateTime.now()),
-                new Note(UUID.randomUUID(), "Test Note 2", "Text 2", Set.of(Constant.Tag.BUSINESS), LocalDateTime.now())
+        List<NoteSummaryView> summaries = Arrays.asList(
+                summaryView(new Note(UUID.randomUUID(), "Test Note 1", "Text 1", Set.of(Constant.Tag.PERSONAL), LocalDateTime.now())),
+                summaryView(new Note(UUID.randomUUID(), "Test Note 2", "Text 2", Set.of(Constant.Tag.BUSINESS), LocalDateTime.now()))
         );
-        Page<Note> notesPage = new org.springframework.data.domain.PageImpl<>(notes, pageable, notes.size());
+        Page<NoteSummaryView> summariesPage = new PageImpl<>(summaries, pageable, summaries.size());
         List<NoteSummary> expectedSummaries = Arrays.asList(
                 new NoteSummary("Test Note 1", LocalDateTime.now()),
                 new NoteSummary("Test Note 2", LocalDateTime.now())
         );
 
         // Mocking behavior
-        when(noteRepository.findAll(eq(pageable))).thenReturn(notesPage);
-        when(noteMapper.toSummaryDTOList(anyList())).thenReturn(expectedSummaries);
+        when(noteStore.findSummaryPage(eq(TENANT), isNull(), eq(pageable))).thenReturn(summariesPage);
+        when(noteMapper.toSummaryDTOListFromView(anyList())).thenReturn(expectedSummaries);
 
         // When
-        List<NoteSummary> actualSummaries = noteService.fetchNoteSummaries(null, page, size);
+        List<NoteSummary> actualSummaries = noteService.fetchNoteSummaries(TENANT, null, page, size);
 
         // Then
         assertEquals(2, actualSummaries.size());
         assertEquals(expectedSummaries.get(0).getTitle(), actualSummaries.get(0).getTitle());
 
-        verify(noteRepository, times(1)).findAll(eq(pageable));
-        verify(noteMapper, times(1)).toSummaryDTOList(anyList());
+        verify(noteStore, times(1)).findSummaryPage(eq(TENANT), isNull(), eq(pageable));
+        verify(noteMapper, times(1)).toSummaryDTOListFromView(anyList());
+    }
+
+    @Test
+    void shouldFetchFirstNoteSliceAndReturnNextCursor() {
+        // Given
+        LocalDateTime createdDate = LocalDateTime.of(2024, 7, 2, 10, 36);
+        Note note = new Note(UUID.randomUUID(), "Test Note", "Text", Set.of(Constant.Tag.PERSONAL), createdDate);
+        Pageable pageable = PageRequest.of(0, 1);
+        List<NoteResponse> expectedResponse = List.of(new NoteResponse(note.getId(), note.getTitle(), note.getText(), note.getTags(), createdDate));
+
+        when(noteStore.findSlice(eq(TENANT), isNull(), isNull(), eq(1))).thenReturn(new SliceImpl<>(List.of(note), pageable, true));
+        when(noteMapper.toResponseDTOList(anyList())).thenReturn(expectedResponse);
+
+        // When
+        CursorPage<NoteResponse> actualPage = noteService.fetchNotesByCursor(TENANT, null, "", 1);
+
+        // Then
+        assertEquals(1, actualPage.getContent().size());
+        NoteCursor nextCursor = NoteCursor.decode(actualPage.getNextCursor()).orElseThrow();
+        assertEquals(createdDate, nextCursor.getCreatedDate());
+        assertEquals(note.getId(), nextCursor.getId());
+
+        verify(noteStore, times(1)).findSlice(eq(TENANT), isNull(), isNull(), eq(1));
+    }
+
+    @Test
+    void shouldFetchNoteSummarySliceAfterCursorForGivenTags() {
+        // Given
+        Set<Constant.Tag> tags = Set.of(Constant.Tag.BUSINESS);
+        LocalDateTime createdDate = LocalDateTime.of(2024, 7, 2, 10, 36);
+        UUID lastId = UUID.randomUUID();
+        String cursor = NoteCursor.of(createdDate, lastId).encode();
+        Pageable pageable = PageRequest.of(0, 10);
+        List<NoteSummaryView> summaries = List.of(summaryView(new Note(UUID.randomUUID(), "Test Note", "Text", tags, createdDate.minusDays(1))));
+
+        when(noteStore.findSummarySlice(eq(TENANT), eq(tags), argThat(after -> createdDate.equals(after.getCreatedDate()) && lastId.equals(after.getId())), eq(10)))
+                .thenReturn(new SliceImpl<>(summaries, pageable, false));
+        when(noteMapper.toSummaryDTOListFromView(anyList())).thenReturn(List.of(new NoteSummary("Test Note", createdDate.minusDays(1))));
+
+        // When
+        CursorPage<NoteSummary> actualPage = noteService.fetchNoteSummariesByCursor(TENANT, tags, cursor, 10);
+
+        // Then
+        assertEquals(1, actualPage.getContent().size());
+        assertNull(actualPage.getNextCursor());
+
+        verify(noteStore, times(1)).findSummarySlice(eq(TENANT), eq(tags), any(NoteCursor.class), eq(10));
     }
 
     @Test
@@ -165,18 +239,18 @@ class NoteServiceTest {
         NoteResponse expectedResponse = new NoteResponse(id, "Test Note", "Text", Set.of(Constant.Tag.PERSONAL), LocalDateTime.now());
 
         // Mocking behavior
-        when(noteRepository.findById(eq(id))).thenReturn(Optional.of(new Note(
+        when(noteStore.findById(eq(TENANT), eq(id))).thenReturn(Optional.of(new Note(
                 id, "Test Note", "Text", Set.of(Constant.Tag.PERSONAL), LocalDateTime.now())));
         when(noteMapper.toResponseDTO(any(Note.class))).thenReturn(expectedResponse);
 
         // When
-        NoteResponse actualResponse = noteService.getNote(id);
+        NoteResponse actualResponse = noteService.getNote(TENANT, id);
 
         // Then
         assertEquals(expectedResponse.getTitle(), actualResponse.getTitle());
         assertEquals(expectedResponse.getText(), actualResponse.getText());
 
-        verify(noteRepository, times(1)).findById(eq(id));
+        verify(noteStore, times(1)).findById(eq(TENANT), eq(id));
         verify(noteMapper, times(1)).toResponseDTO(any(Note.class));
     }
 
@@ -189,52 +263,111 @@ class NoteServiceTest {
         request.setText("Updated Text");
         request.setTags(Set.of(Constant.Tag.BUSINESS));
 
-        Note existingNote = new Note(id, "Test Note", "Text", Set.of(Constant.Tag.PERSONAL), LocalDateTime.now());
-        Note updatedNote = new Note(id, "Updated Note", "Updated Text", Set.of(Constant.Tag.BUSINESS), LocalDateTime.now());
-        NoteResponse expectedResponse = new NoteResponse(id, "Updated Note", "Updated Text", Set.of(Constant.Tag.BUSINESS), LocalDateTime.now());
+        LocalDateTime createdDate = LocalDateTime.now();
+        Note previousNote = new Note(id, "Test Note", "Text", Set.of(Constant.Tag.PERSONAL), createdDate);
+        previousNote.setVersion(2L);
+        NoteResponse expectedResponse = new NoteResponse(id, "Updated Note", "Updated Text", Set.of(Constant.Tag.BUSINESS), createdDate);
 
         // Mocking behavior
-        when(noteRepository.findById(eq(id))).thenReturn(Optional.of(existingNote));
-        when(noteRepository.save(any(Note.class))).thenReturn(updatedNote);
+        when(noteStore.findAndUpdateContent(eq(TENANT), eq(id), isNull(), eq("Updated Note"), eq("Updated Text"), eq(Set.of(Constant.Tag.BUSINESS)), any(Instant.class)))
+                .thenReturn(Optional.of(previousNote));
         when(noteMapper.toResponseDTO(any(Note.class))).thenReturn(expectedResponse);
 
         // When
-        NoteResponse actualResponse = noteService.updateNote(id, request);
+        NoteResponse actualResponse = noteService.updateNote(TENANT, id, request, null);
 
         // Then
         assertEquals(expectedResponse.getTitle(), actualResponse.getTitle());
         assertEquals(expectedResponse.getText(), actualResponse.getText());
         assertEquals(expectedResponse.getTags(), actualResponse.getTags());
 
-        verify(noteRepository, times(1)).findById(eq(id));
-        verify(noteRepository, times(1)).save(any(Note.class));
+        ArgumentCaptor<Note> updatedNote = ArgumentCaptor.forClass(Note.class);
+        verify(noteStore, never()).findById(any(), any(UUID.class));
+        verify(noteStore, never()).insert(any(Note.class));
+        verify(noteStatsService, times(1)).refresh(updatedNote.capture());
+        assertEquals("Updated Text", updatedNote.getValue().getText());
+        assertEquals(createdDate, updatedNote.getValue().getCreatedDate());
+        assertEquals(3L, updatedNote.getValue().getVersion());
+        assertThat(updatedNote.getValue().getLastModifiedDate()).isNotNull();
+        assertEquals(TENANT, updatedNote.getValue().getTenantId());
+        verify(noteChangeService, times(1)).recordChange(TENANT);
+        verify(tagCountService, times(1)).changed(TENANT, Set.of(Constant.Tag.PERSONAL), Set.of(Constant.Tag.BUSINESS));
         verify(noteMapper, times(1)).toResponseDTO(any(Note.class));
     }
 
+    @Test
+    void shouldSearchNotesByRelevance() {
+        // Given
+        ScoredNote scoredNote = new ScoredNote();
+        scoredNote.setTitle("Groceries");
+        scoredNote.setScore(1.5f);
+        NoteSearchResult result = new NoteSearchResult();
+        result.setTitle("Groceries");
+        result.setScore(1.5f);
+        Set<Constant.Tag> tags = Set.of(Constant.Tag.PERSONAL);
+
+        when(noteStore.search(TENANT, "milk", tags, PageRequest.of(1, 5))).thenReturn(List.of(scoredNote));
+        when(noteMapper.toSearchResultDTOList(List.of(scoredNote))).thenReturn(List.of(result));
+
+        // When
+        List<NoteSearchResult> results = noteService.searchNotes(TENANT, "milk", tags, 1, 5);
+
+        // Then
+        assertEquals(List.of(result), results);
+    }
+
     @Test
     void shouldDeleteNoteById() {
         // Given
         UUID id = UUID.randomUUID();
 
         // Mocking behavior
-        when(noteRepository.existsById(eq(id))).thenReturn(true);
+        when(noteStore.findAndRemove(eq(TENANT), eq(id)))
+                .thenReturn(Optional.of(new Note(id, null, null, Set.of(Constant.Tag.IMPORTANT), null)));
 
         // When
-        noteService.deleteNote(id);
+        noteService.deleteNote(TENANT, id);
 
         // Then
-        verify(noteRepository, times(1)).existsById(eq(id));
-        verify(noteRepository, times(1)).deleteById(eq(id));
+        verify(noteStore, never()).existsById(any(), any(UUID.class));
+        verify(noteStore, times(1)).findAndRemove(eq(TENANT), eq(id));
+        verify(noteStatsService, times(1)).delete(TENANT, id);
+        verify(tagCountService, times(1)).removed(TENANT, Set.of(Constant.Tag.IMPORTANT));
     }
 
     @Test
-    public void shouldGetTextStatsForGivenNoteId() {
+    void shouldRejectUpdateWhenVersionIsStale() {
+        // Given
+        UUID id = UUID.randomUUID();
+        NoteRequest request = new NoteRequest();
+        request.setTitle("Updated Note");
+        request.setText("Updated Text");
+
+        when(noteStore.findAndUpdateContent(eq(TENANT), eq(id), eq(1L), eq("Updated Note"), eq("Updated Text"), isNull(), any(Instant.class))).thenReturn(Optional.empty());
+        when(noteStore.existsById(TENANT, id)).thenReturn(true);
+
+        // When, Then
+        assertThrows(PreconditionFailedException.class, () -> noteService.updateNote(TENANT, id, request, 1L));
+        verify(noteStatsService, never()).refresh(any(Note.class));
+    }
+
+    @Test
+    void shouldThrowExceptionWhenUpdatedNoteNotFound() {
+        // Given
+        UUID id = UUID.randomUUID();
+        NoteRequest request = new NoteRequest();
+
+        when(noteStore.findAndUpdateContent(eq(TENANT), eq(id), isNull(), isNull(), isNull(), isNull(), any(Instant.class))).thenReturn(Optional.empty());
+
+        // When, Then
+        assertThrows(ResourceNotFoundException.class, () -> noteService.updateNote(TENANT, id, request, null));
+        verify(noteStore, never()).existsById(any(), any(UUID.class));
+    }
+
+    @Test
+    public void shouldGetPrecomputedTextStatsForGivenNoteId() {
         // Given
         UUID noteId = UUID.randomUUID();
-        Note note = new Note();
-        note.setId(noteId);
-        note.setTitle("Title 1");
-        note.setText("note is just a note.");
         Map<String, Integer> expectedStats = Map.of(
                 "note", 2,
                 "is", 1,
@@ -242,17 +375,56 @@ class NoteServiceTest {
                 "a", 1
         );
 
-        when(noteRepository.findById(eq(noteId))).thenReturn(Optional.of(note));
-
+        when(noteStatsService.findWordFrequency(TENANT, noteId)).thenReturn(Optional.of(expectedStats));
 
         // When
-        Map<String, Integer> result = noteService.getNoteTextStats(noteId);
+        Map<String, Integer> result = noteService.getNoteTextStats(TENANT, noteId, null);
 
         // Then
-        assertThat(result).isNotNull();
         assertThat(result).isEqualTo(expectedStats);
 
-        verify(noteRepository, times(1)).findById(noteId);
+        verify(noteStore, never()).findById(any(), any(UUID.class));
+        verify(noteStatsService, never()).refresh(any(Note.class));
+    }
+
+    @Test
+    public void shouldComputeTextStatsWhenNotPrecomputed() {
+        // Given
+        UUID noteId = UUID.randomUUID();
+        Note note = new Note();
+        note.setId(noteId);
+        note.setTitle("Title 1");
+        note.setText("note is just a note.");
+        Map<String, Integer> computedStats = new LinkedHashMap<>();
+        computedStats.put("note", 2);
+        computedStats.put("is", 1);
+        computedStats.put("just", 1);
+        computedStats.put("a", 1);
+
+        when(noteStatsService.findWordFrequency(TENANT, noteId)).thenReturn(Optional.empty());
+        when(noteStore.findById(eq(TENANT), eq(noteId))).thenReturn(Optional.of(note));
+        when(noteStatsService.refresh(note)).thenReturn(computedStats);
+
+        // When
+        Map<String, Integer> result = noteService.getNoteTextStats(TENANT, noteId, 2);
+
+        // Then
+        assertThat(result).isEqualTo(Map.of("note", 2, "is", 1));
+
+        verify(noteStore, times(1)).findById(TENANT, noteId);
+        verify(noteStatsService, times(1)).refresh(note);
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenStatsRequestedForMissingNote() {
+        // Given
+        UUID noteId = UUID.randomUUID();
+        when(noteStatsService.findWordFrequency(TENANT, noteId)).thenReturn(Optional.empty());
+        when(noteStore.findById(TENANT, noteId)).thenReturn(Optional.empty());
+
+        // When, Then
+        assertThrows(ResourceNotFoundException.class, () -> noteService.getNoteTextStats(TENANT, noteId, null));
+        verify(noteStatsService, never()).refresh(any(Note.class));
     }
 
     @Test
@@ -261,12 +433,16 @@ class NoteServiceTest {
         UUID id = UUID.randomUUID();
 
         // Mocking behavior
-        when(noteRepository.existsById(eq(id))).thenReturn(false);
+        when(noteStore.findAndRemove(eq(TENANT), eq(id))).thenReturn(Optional.empty());
 
         // When, Then
-        assertThrows(ResourceNotFoundException.class, () -> noteService.deleteNote(id));
+        assertThrows(ResourceNotFoundException.class, () -> noteService.deleteNote(TENANT, id));
+
+        verify(noteStore, times(1)).findAndRemove(eq(TENANT), eq(id));
+        verify(noteStatsService, never()).delete(any(), any(UUID.class));
+    }
 
-        verify(noteRepository, times(1)).existsById(eq(id));
-        verify(noteRepository, never()).deleteById(any(UUID.class));
+    private static NoteSummaryView summaryView(Note note) {
+        return new SpelAwareProxyProjectionFactory().createProjection(NoteSummaryView.class, note);
     }
 }
@@ -0,0 +1,96 @@
+package com.teletronics.notesapi.service;
+
+import com.teletronics.notesapi.model.store.Note;
+import com.teletronics.notesapi.model.store.NoteStats;
+import com.teletronics.notesapi.respository.NoteStatsStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NoteStatsServiceTest {
+
+    @Mock
+    private NoteStatsStore noteStatsStore;
+
+    @InjectMocks
+    private NoteStatsService noteStatsService;
+
+    @Test
+    void shouldStoreWordFrequencyInDescendingOrderOnRefresh() {
+        // Given
+        Note note = new Note(UUID.randomUUID(), "Title 1", "note is just a note.", null, null);
+
+        // When
+        Map<String, Integer> result = noteStatsService.refresh(note);
+
+        // Then
+        assertThat(result).containsExactly(
+                Map.entry("note", 2), Map.entry("is", 1), Map.entry("just", 1), Map.entry("a", 1));
+
+        ArgumentCaptor<NoteStats> captor = ArgumentCaptor.forClass(NoteStats.class);
+        verify(noteStatsStore, times(1)).save(captor.capture());
+        assertEquals(note.getId(), captor.getValue().getId());
+        assertEquals("note", captor.getValue().getWords().get(0).getWord());
+        assertEquals(2, captor.getValue().getWords().get(0).getCount());
+    }
+
+    @Test
+    void shouldReadStoredWordFrequencyInStoredOrder() {
+        // Given
+        UUID noteId = UUID.randomUUID();
+        NoteStats stats = new NoteStats(noteId, "tenant-a",
+                List.of(new NoteStats.WordCount("note", 2), new NoteStats.WordCount("is", 1)));
+        when(noteStatsStore.findById(noteId)).thenReturn(Optional.of(stats));
+
+        // When
+        Optional<Map<String, Integer>> result = noteStatsService.findWordFrequency("tenant-a", noteId);
+
+        // Then
+        assertThat(result).isPresent();
+        assertThat(result.get()).containsExactly(Map.entry("note", 2), Map.entry("is", 1));
+        assertThat(noteStatsService.findWordFrequency("tenant-b", noteId)).isEmpty();
+    }
+
+    @Test
+    void shouldKeepOnlyMostFrequentWordsForTopLimit() {
+        // Given
+        Map<String, Integer> wordFrequency = WordFrequencyCalculator.calculateWordFrequency("note is just a note.");
+
+        // When
+        Map<String, Integer> result = NoteStatsService.topWords(wordFrequency, 2);
+
+        // Then
+        assertThat(result).containsExactly(Map.entry("note", 2), Map.entry("is", 1));
+        assertThat(NoteStatsService.topWords(wordFrequency, 10)).isSameAs(wordFrequency);
+    }
+
+    @Test
+    void shouldOnlyRefreshNotesWithoutStats() {
+        // Given
+        Note withStats = new Note(UUID.randomUUID(), "Title 1", "one", null, null);
+        Note withoutStats = new Note(UUID.randomUUID(), "Title 2", "two two", null, null);
+        when(noteStatsStore.findAllById(any()))
+                .thenReturn(List.of(new NoteStats(withStats.getId(), null, List.of())));
+
+        // When
+        int written = noteStatsService.refreshMissing(List.of(withStats, withoutStats));
+
+        // Then
+        assertEquals(1, written);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<NoteStats>> captor = ArgumentCaptor.forClass(List.class);
+        verify(noteStatsStore, times(1)).saveAll(captor.capture());
+        assertEquals(withoutStats.getId(), captor.getValue().get(0).getId());
+    }
+}
@@ -0,0 +1,200 @@
+package com.teletronics.notesapi.service;
+
+import com.teletronics.notesapi.exception.TooManyRequestsException;
+import com.teletronics.notesapi.mapper.NoteMapper;
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.NoteRequest;
+import com.teletronics.notesapi.model.NoteResponse;
+import com.teletronics.notesapi.model.store.Note;
+import com.teletronics.notesapi.respository.BulkInsertResult;
+import com.teletronics.notesapi.respository.NoteStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.PermissionDeniedDataAccessException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class NoteWriteBehindServiceTest {
+    private static final String TENANT = "tenant-a";
+
+    @Mock
+    private NoteStore noteStore;
+
+    @Mock
+    private NoteStatsService noteStatsService;
+
+    @Mock
+    private TagCountService tagCountService;
+
+    @Mock
+    private NoteChangeService noteChangeService;
+
+    @Mock
+    private NoteChangeFeed noteChangeFeed;
+
+    @Mock
+    private NoteMapper noteMapper;
+
+    @Captor
+    private ArgumentCaptor<List<Note>> notesCaptor;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldStoreQueuedNotesInOneBulkInsertWhenDraining() {
+        // Given
+        NoteWriteBehindService service = service(10);
+        mapNotes();
+        when(noteStore.insertAllIdempotent(anyList(), eq(100))).thenReturn(new BulkInsertResult(Set.of(), Map.of()));
+        UUID first = service.enqueue(TENANT, request()).getId();
+        UUID second = service.enqueue(TENANT, request()).getId();
+        assertThat(meterRegistry.get(NoteWriteBehindService.QUEUE_DEPTH_GAUGE).gauge().value()).isEqualTo(2);
+
+        // When
+        service.startWriter();
+        service.close();
+
+        // Then
+        verify(noteStore).insertAllIdempotent(notesCaptor.capture(), eq(100));
+        assertThat(notesCaptor.getValue()).extracting(Note::getId).containsExactly(first, second);
+        assertThat(notesCaptor.getValue()).extracting(Note::getTenantId).containsOnly(TENANT);
+        verify(noteStatsService).storeNew(notesCaptor.getValue());
+        verify(tagCountService, times(2)).added(TENANT, Set.of(Constant.Tag.BUSINESS));
+        verify(noteChangeFeed).added(TENANT, first, Set.of(Constant.Tag.BUSINESS));
+        verify(noteChangeService).recordChange(TENANT);
+        assertThat(meterRegistry.get(NoteWriteBehindService.QUEUE_DEPTH_GAUGE).gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldRejectNoteWhenQueueIsFull() {
+        // Given
+        NoteWriteBehindService service = service(1);
+        mapNotes();
+        service.enqueue(TENANT, request());
+
+        // When & Then
+        assertThrows(TooManyRequestsException.class, () -> service.enqueue(TENANT, request()));
+        assertThat(meterRegistry.counter(NoteWriteBehindService.REJECTED_COUNTER).count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRetryFailedBulkInsertAndApplyNotesItAlreadyStored() {
+        // Given
+        NoteWriteBehindService service = service(10);
+        mapNotes();
+        when(noteStore.insertAllIdempotent(anyList(), eq(100)))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"))
+                .thenReturn(new BulkInsertResult(Set.of(0), Map.of(1, "Document too large")));
+        UUID stored = service.enqueue(TENANT, request()).getId();
+        service.enqueue(TENANT, request());
+
+        // When
+        service.startWriter();
+        service.close();
+
+        // Then
+        verify(noteStore, times(2)).insertAllIdempotent(anyList(), eq(100));
+        verify(noteStatsService).refreshMissing(notesCaptor.capture());
+        assertThat(notesCaptor.getValue()).extracting(Note::getId).containsExactly(stored);
+        verify(tagCountService).added(TENANT, Set.of(Constant.Tag.BUSINESS));
+        verify(noteChangeFeed).added(TENANT, stored, Set.of(Constant.Tag.BUSINESS));
+        verify(noteChangeService).recordChange(TENANT);
+        assertThat(meterRegistry.counter(NoteWriteBehindService.FAILED_COUNTER).count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldApplyStoredNotesWhenStoringTheirStatsFails() {
+        // Given
+        NoteWriteBehindService service = service(10);
+        mapNotes();
+        when(noteStore.insertAllIdempotent(anyList(), eq(100))).thenReturn(new BulkInsertResult(Set.of(), Map.of()));
+        doThrow(new DataAccessResourceFailureException("Connection reset")).when(noteStatsService).storeNew(anyList());
+        UUID id = service.enqueue(TENANT, request()).getId();
+
+        // When
+        service.startWriter();
+        service.close();
+
+        // Then
+        verify(tagCountService).added(TENANT, Set.of(Constant.Tag.BUSINESS));
+        verify(noteChangeFeed).added(TENANT, id, Set.of(Constant.Tag.BUSINESS));
+        verify(noteChangeService).recordChange(TENANT);
+        assertThat(meterRegistry.counter(NoteWriteBehindService.FAILED_COUNTER).count()).isZero();
+    }
+
+    @Test
+    void shouldDropBatchWithoutRetryWhenFailureIsNotTransient() {
+        // Given
+        NoteWriteBehindService service = service(10);
+        mapNotes();
+        when(noteStore.insertAllIdempotent(anyList(), eq(100)))
+                .thenThrow(new PermissionDeniedDataAccessException("not authorized on notesdb", null));
+        service.enqueue(TENANT, request());
+        service.enqueue(TENANT, request());
+
+        // When
+        service.startWriter();
+        service.close();
+
+        // Then
+        verify(noteStore).insertAllIdempotent(anyList(), eq(100));
+        verify(noteStatsService, never()).storeNew(anyList());
+        assertThat(meterRegistry.counter(NoteWriteBehindService.FAILED_COUNTER).count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRejectNotesOnceShutDown() {
+        // Given
+        NoteWriteBehindService service = service(10);
+        service.close();
+
+        // When & Then
+        assertThrows(TooManyRequestsException.class, () -> service.enqueue(TENANT, request()));
+    }
+
+    private NoteWriteBehindService service(int capacity) {
+        return new NoteWriteBehindService(noteStore, noteStatsService, tagCountService, noteChangeService,
+                noteChangeFeed, noteMapper, meterRegistry, true, capacity, 100, Duration.ofMillis(5),
+                Duration.ofMillis(1), Duration.ofSeconds(5));
+    }
+
+    private void mapNotes() {
+        when(noteMapper.toEntity(any(NoteRequest.class))).thenAnswer(invocation -> new Note(UUID.randomUUID(), "Title",
+                "text", Set.of(Constant.Tag.BUSINESS), LocalDateTime.now()));
+        when(noteMapper.toResponseDTO(any(Note.class))).thenAnswer(invocation -> {
+            Note note = invocation.getArgument(0);
+            return new NoteResponse(note.getId(), note.getTitle(), note.getText(), note.getTags(), note.getCreatedDate());
+        });
+    }
+
+    private static NoteRequest request() {
+        NoteRequest noteRequest = new NoteRequest();
+        noteRequest.setTitle("Title");
+        noteRequest.setText("text");
+        noteRequest.setCreatedDate(LocalDateTime.now());
+        return noteRequest;
+    }
+}
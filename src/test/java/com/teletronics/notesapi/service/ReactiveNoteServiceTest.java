@@ -0,0 +1,246 @@
+package com.teletronics.notesapi.service;
+
+import com.teletronics.notesapi.config.CacheConfig;
+import com.teletronics.notesapi.exception.PreconditionFailedException;
+import com.teletronics.notesapi.exception.ResourceNotFoundException;
+import com.teletronics.notesapi.mapper.NoteMapper;
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.model.NoteCursor;
+import com.teletronics.notesapi.model.NoteRequest;
+import com.teletronics.notesapi.model.NoteResponse;
+import com.teletronics.notesapi.model.store.Note;
+import com.teletronics.notesapi.model.store.NoteStats;
+import com.teletronics.notesapi.respository.ReactiveNoteRepository;
+import com.teletronics.notesapi.respository.ReactiveNoteStatsRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveNoteServiceTest {
+    private static final String TENANT = "tenant-a";
+
+    @Mock
+    private ReactiveNoteRepository noteRepository;
+
+    @Mock
+    private ReactiveNoteStatsRepository noteStatsRepository;
+
+    @Mock
+    private NoteMapper noteMapper;
+
+    @Mock
+    private TagCountService tagCountService;
+
+    @Mock
+    private NoteChangeService noteChangeService;
+
+    @Mock
+    private NoteChangeFeed noteChangeFeed;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @InjectMocks
+    private ReactiveNoteService noteService;
+
+    @Test
+    void shouldReturnNextCursorWhenMoreNotesFollow() {
+        // Given
+        Note first = new Note(UUID.randomUUID(), "First", "text", null, LocalDateTime.of(2024, 1, 3, 0, 0));
+        Note second = new Note(UUID.randomUUID(), "Second", "text", null, LocalDateTime.of(2024, 1, 2, 0, 0));
+        Note third = new Note(UUID.randomUUID(), "Third", "text", null, LocalDateTime.of(2024, 1, 1, 0, 0));
+        when(noteRepository.findAllByTenantId(eq(TENANT), any(Pageable.class))).thenReturn(Flux.just(first, second, third));
+        when(noteMapper.toResponseDTOList(anyList())).thenAnswer(invocation ->
+                ((List<?>) invocation.getArgument(0)).stream().map(__ -> new NoteResponse()).toList());
+
+        // When & Then
+        StepVerifier.create(noteService.fetchNotesByCursor(TENANT, null, null, 2))
+                .assertNext(page -> {
+                    assertThat(page.getContent()).hasSize(2);
+                    assertThat(page.getNextCursor())
+                            .isEqualTo(NoteCursor.of(second.getCreatedDate(), second.getId()).encode());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldOmitNextCursorOnLastSlice() {
+        // Given
+        Note only = new Note(UUID.randomUUID(), "Only", "text", null, LocalDateTime.now());
+        when(noteRepository.findAllByTenantId(eq(TENANT), any(Pageable.class))).thenReturn(Flux.just(only));
+        when(noteMapper.toResponseDTOList(anyList())).thenReturn(List.of(new NoteResponse()));
+
+        // When & Then
+        StepVerifier.create(noteService.fetchNotesByCursor(TENANT, null, null, 2))
+                .assertNext(page -> assertThat(page.getNextCursor()).isNull())
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldSignalNotFoundWhenNoteDoesNotExist() {
+        // Given
+        UUID id = UUID.randomUUID();
+        when(noteRepository.findByTenantIdAndId(TENANT, id)).thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(noteService.getNote(TENANT, id))
+                .expectError(ResourceNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void shouldNotDeleteStatsWhenNoteDoesNotExist() {
+        // Given
+        UUID id = UUID.randomUUID();
+        when(noteRepository.findAndRemove(TENANT, id)).thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(noteService.deleteNote(TENANT, id))
+                .expectError(ResourceNotFoundException.class)
+                .verify();
+        verify(noteStatsRepository, never()).deleteById(any(UUID.class));
+        verifyNoInteractions(tagCountService, noteChangeService, noteChangeFeed);
+    }
+
+    @Test
+    void shouldUpdateInOneWriteAndReturnIncrementedVersion() {
+        // Given
+        UUID id = UUID.randomUUID();
+        Note previous = new Note(id, "Title", "old text", Set.of(Constant.Tag.PERSONAL), LocalDateTime.now());
+        previous.setVersion(3L);
+        NoteRequest request = new NoteRequest();
+        request.setTitle("New title");
+        request.setText("new text");
+        when(noteRepository.findAndUpdateContent(eq(TENANT), eq(id), eq(3L), eq("New title"), eq("new text"), isNull(), any()))
+                .thenReturn(Mono.just(previous));
+        when(noteStatsRepository.save(any(NoteStats.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(noteMapper.toResponseDTO(any(Note.class))).thenAnswer(invocation -> {
+            Note note = invocation.getArgument(0);
+            NoteResponse response = new NoteResponse(note.getId(), note.getTitle(), note.getText(), note.getTags(),
+                    note.getCreatedDate());
+            response.setVersion(note.getVersion());
+            return response;
+        });
+
+        // When & Then
+        StepVerifier.create(noteService.updateNote(TENANT, id, request, 3L))
+                .assertNext(response -> {
+                    assertThat(response.getTitle()).isEqualTo("New title");
+                    assertThat(response.getVersion()).isEqualTo(4L);
+                })
+                .verifyComplete();
+        verify(noteRepository, never()).save(any(Note.class));
+        verify(tagCountService).changed(TENANT, Set.of(Constant.Tag.PERSONAL), null);
+        verify(noteChangeService).recordChange(TENANT);
+        verify(noteChangeFeed).changed(TENANT, id, Set.of(Constant.Tag.PERSONAL), null);
+        verify(cacheManager).getCache(CacheConfig.NOTES_CACHE);
+    }
+
+    @Test
+    void shouldApplySideEffectsOfCreatedNote() {
+        // Given
+        UUID id = UUID.randomUUID();
+        Note note = new Note(id, "Title", "text", Set.of(Constant.Tag.BUSINESS), LocalDateTime.now());
+        when(noteMapper.toEntity(any(NoteRequest.class))).thenReturn(note);
+        when(noteRepository.save(note)).thenReturn(Mono.just(note));
+        when(noteStatsRepository.save(any(NoteStats.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(noteMapper.toResponseDTO(note)).thenReturn(new NoteResponse());
+
+        // When & Then
+        StepVerifier.create(noteService.createNote(TENANT, new NoteRequest()))
+                .expectNextCount(1)
+                .verifyComplete();
+        verify(tagCountService).added(TENANT, Set.of(Constant.Tag.BUSINESS));
+        verify(noteChangeService).recordChange(TENANT);
+        verify(noteChangeFeed).added(TENANT, id, Set.of(Constant.Tag.BUSINESS));
+    }
+
+    @Test
+    void shouldApplySideEffectsOfDeletedNoteOnce() {
+        // Given
+        UUID id = UUID.randomUUID();
+        Note removed = new Note(id, null, null, Set.of(Constant.Tag.BUSINESS), null);
+        when(noteRepository.findAndRemove(TENANT, id)).thenReturn(Mono.just(removed));
+        when(noteStatsRepository.deleteById(id)).thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(noteService.deleteNote(TENANT, id))
+                .verifyComplete();
+        verify(tagCountService).removed(TENANT, Set.of(Constant.Tag.BUSINESS));
+        verify(noteChangeService).recordChange(TENANT);
+        verify(noteChangeFeed).removed(TENANT, id, Set.of(Constant.Tag.BUSINESS));
+    }
+
+    @Test
+    void shouldSignalPreconditionFailedWhenVersionIsStale() {
+        // Given
+        UUID id = UUID.randomUUID();
+        NoteRequest request = new NoteRequest();
+        request.setTitle("New title");
+        request.setText("new text");
+        when(noteRepository.findAndUpdateContent(eq(TENANT), eq(id), eq(3L), any(), any(), any(), any()))
+                .thenReturn(Mono.empty());
+        when(noteRepository.existsByTenantIdAndId(TENANT, id)).thenReturn(Mono.just(true));
+
+        // When & Then
+        StepVerifier.create(noteService.updateNote(TENANT, id, request, 3L))
+                .expectError(PreconditionFailedException.class)
+                .verify();
+    }
+
+    @Test
+    void shouldSignalNotFoundWhenUpdatedNoteDoesNotExist() {
+        // Given
+        UUID id = UUID.randomUUID();
+        NoteRequest request = new NoteRequest();
+        request.setTitle("New title");
+        request.setText("new text");
+        when(noteRepository.findAndUpdateContent(eq(TENANT), eq(id), isNull(), any(), any(), any(), any()))
+                .thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(noteService.updateNote(TENANT, id, request, null))
+                .expectError(ResourceNotFoundException.class)
+                .verify();
+        verify(noteRepository, never()).existsByTenantIdAndId(any(), any());
+    }
+
+    @Test
+    void shouldComputeAndStoreStatsWhenMissing() {
+        // Given
+        UUID id = UUID.randomUUID();
+        Note note = new Note(id, "Title", "note is just a note", null, LocalDateTime.now());
+        when(noteStatsRepository.findById(id)).thenReturn(Mono.empty());
+        when(noteRepository.findByTenantIdAndId(TENANT, id)).thenReturn(Mono.just(note));
+        when(noteStatsRepository.save(any(NoteStats.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        // When & Then
+        StepVerifier.create(noteService.getNoteTextStats(TENANT, id, 1))
+                .expectNext(Map.of("note", 2))
+                .verifyComplete();
+    }
+}
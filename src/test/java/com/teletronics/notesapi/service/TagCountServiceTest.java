@@ -0,0 +1,133 @@
+package com.teletronics.notesapi.service;
+
+import com.teletronics.notesapi.model.Constant;
+import com.teletronics.notesapi.respository.NoteStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TagCountServiceTest {
+    private static final String TENANT = "tenant-a";
+
+    @Mock
+    private NoteStore noteStore;
+
+    @InjectMocks
+    private TagCountService tagCountService;
+
+    @Test
+    void shouldReconcileOnFirstReadAndApplyWritesIncrementally() {
+        // Given
+        when(noteStore.countByTag()).thenReturn(Map.of(TENANT, Map.of(Constant.Tag.BUSINESS, 2L, Constant.Tag.PERSONAL, 1L)));
+
+        // When
+        tagCountService.getCounts(TENANT);
+        tagCountService.added(TENANT, Set.of(Constant.Tag.IMPORTANT, Constant.Tag.BUSINESS));
+        tagCountService.changed(TENANT, Set.of(Constant.Tag.PERSONAL), Set.of(Constant.Tag.IMPORTANT));
+        tagCountService.removed(TENANT, null);
+        Map<Constant.Tag, Long> counts = tagCountService.getCounts(TENANT);
+
+        // Then
+        assertThat(counts).containsExactlyInAnyOrderEntriesOf(Map.of(
+                Constant.Tag.BUSINESS, 3L,
+                Constant.Tag.PERSONAL, 0L,
+                Constant.Tag.IMPORTANT, 2L));
+        verify(noteStore, times(1)).countByTag();
+    }
+
+    @Test
+    void shouldReplaceDriftedCountsOnReconcile() {
+        // Given
+        when(noteStore.countByTag()).thenReturn(Map.of(TENANT, Map.of(Constant.Tag.PERSONAL, 5L)));
+        tagCountService.added(TENANT, Set.of(Constant.Tag.BUSINESS));
+
+        // When
+        tagCountService.reconcile();
+
+        // Then
+        assertThat(tagCountService.getCounts(TENANT)).containsExactlyInAnyOrderEntriesOf(Map.of(
+                Constant.Tag.BUSINESS, 0L,
+                Constant.Tag.PERSONAL, 5L,
+                Constant.Tag.IMPORTANT, 0L));
+    }
+
+    @Test
+    void shouldKeepCountsOfTenantsApart() {
+        // Given
+        when(noteStore.countByTag()).thenReturn(Map.of(TENANT, Map.of(Constant.Tag.PERSONAL, 1L)));
+
+        // When
+        tagCountService.getCounts(TENANT);
+        tagCountService.added("tenant-b", Set.of(Constant.Tag.PERSONAL, Constant.Tag.BUSINESS));
+        tagCountService.removed(TENANT, Set.of(Constant.Tag.PERSONAL));
+
+        // Then
+        assertThat(tagCountService.getCounts(TENANT)).containsEntry(Constant.Tag.PERSONAL, 0L);
+        assertThat(tagCountService.getCounts("tenant-b")).containsEntry(Constant.Tag.PERSONAL, 1L)
+                .containsEntry(Constant.Tag.BUSINESS, 1L);
+        assertThat(tagCountService.getCounts("tenant-c")).containsOnlyKeys(Constant.Tag.values())
+                .allSatisfy((tag, count) -> assertThat(count).isZero());
+    }
+
+    @Test
+    void shouldOnlyApplyChangeStreamOnceFollowingIt() {
+        // Given
+        when(noteStore.countByTag()).thenReturn(Map.of());
+        tagCountService.getCounts(TENANT);
+        tagCountService.followChangeStream();
+
+        // When: the write of this instance is counted when it comes back on the stream
+        tagCountService.added(TENANT, Set.of(Constant.Tag.BUSINESS));
+        tagCountService.applyChange(TENANT, null, Set.of(Constant.Tag.BUSINESS));
+        tagCountService.applyChange(TENANT, Set.of(Constant.Tag.BUSINESS), Set.of(Constant.Tag.PERSONAL));
+
+        // Then
+        assertThat(tagCountService.getCounts(TENANT)).containsExactlyInAnyOrderEntriesOf(Map.of(
+                Constant.Tag.BUSINESS, 0L,
+                Constant.Tag.PERSONAL, 1L,
+                Constant.Tag.IMPORTANT, 0L));
+    }
+
+    @Test
+    void shouldServeCurrentCountsWhileReconcilingOnceInBackground() throws InterruptedException {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        when(noteStore.countByTag())
+                .thenReturn(Map.of(TENANT, Map.of(Constant.Tag.BUSINESS, 1L)))
+                .thenAnswer(invocation -> {
+                    release.await();
+                    return Map.of(TENANT, Map.of(Constant.Tag.BUSINESS, 4L));
+                });
+        tagCountService.getCounts(TENANT);
+        tagCountService.invalidate();
+
+        // When: readers neither wait for the aggregation nor start one each
+        for (int i = 0; i < 5; i++) {
+            assertThat(tagCountService.getCounts(TENANT)).containsEntry(Constant.Tag.BUSINESS, 1L);
+        }
+        release.countDown();
+
+        // Then
+        verify(noteStore, timeout(5000).times(2)).countByTag();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (tagCountService.getCounts(TENANT).get(Constant.Tag.BUSINESS) != 4L && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(tagCountService.getCounts(TENANT)).containsEntry(Constant.Tag.BUSINESS, 4L);
+        verify(noteStore, times(2)).countByTag();
+    }
+}
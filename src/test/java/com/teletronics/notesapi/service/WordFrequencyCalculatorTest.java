@@ -0,0 +1,25 @@
+package com.teletronics.notesapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WordFrequencyCalculatorTest {
+
+    @Test
+    void shouldCountCaseInsensitiveWordsInDescendingOrder() {
+        Map<String, Integer> result = WordFrequencyCalculator.calculateWordFrequency("Note is just a NOTE.\tA note!");
+
+        assertThat(result).containsExactly(
+                Map.entry("note", 3), Map.entry("a", 2), Map.entry("is", 1), Map.entry("just", 1));
+    }
+
+    @Test
+    void shouldIgnoreLeadingTrailingAndRepeatedDelimiters() {
+        Map<String, Integer> result = WordFrequencyCalculator.calculateWordFrequency(" ,hello;; world?! hello:\r\n");
+
+        assertThat(result).containsExactly(Map.entry("hello", 2), Map.entry("world", 1));
+    }
+}